@@ -11,9 +11,26 @@ CREATE TABLE employees (
     salary DECIMAL(10,2),
     level VARCHAR(20),
     bonus DECIMAL(10,2),
-    status VARCHAR(20) DEFAULT 'Active'
+    status VARCHAR(20) DEFAULT 'Active',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL
 );
 
+-- Index used by incremental (delta) exports
+CREATE INDEX employees_updated_at_idx ON employees (updated_at);
+
+-- Keep updated_at current so delta exports pick up modified rows
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER employee_updated_at_trigger
+    BEFORE UPDATE ON employees
+    FOR EACH ROW
+    EXECUTE FUNCTION touch_updated_at();
+
 -- Insert test data
 INSERT INTO employees (employee_name, department, email, hire_date, salary, level, bonus, status) 
 VALUES 
@@ -29,7 +46,9 @@ CREATE TABLE csv_export_log (
     export_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     employee_count INTEGER,
     file_name VARCHAR(200),
-    status VARCHAR(20)
+    status VARCHAR(20),
+    export_type VARCHAR(20),
+    high_water_mark TIMESTAMP
 );
 
 -- Create test user with limited permissions
@@ -23,9 +23,13 @@ CREATE TABLE employees (
     salary NUMBER(10,2),
     level VARCHAR2(20),
     bonus NUMBER(10,2),
-    status VARCHAR2(20) DEFAULT 'Active'
+    status VARCHAR2(20) DEFAULT 'Active',
+    updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL
 );
 
+-- Index used by incremental (delta) exports
+CREATE INDEX employees_updated_at_idx ON employees (updated_at);
+
 -- Create sequence for employee_id
 CREATE SEQUENCE employee_seq
     START WITH 1000
@@ -43,6 +47,15 @@ BEGIN
 END;
 /
 
+-- Keep updated_at current so delta exports pick up modified rows
+CREATE OR REPLACE TRIGGER employee_updated_at_trigger
+    BEFORE UPDATE ON employees
+    FOR EACH ROW
+BEGIN
+    :NEW.updated_at := SYSTIMESTAMP;
+END;
+/
+
 -- Insert test data
 INSERT INTO employees (employee_name, department, email, hire_date, salary, level, bonus, status) 
 VALUES ('田中太郎', '開発部', 'tanaka@example.com', DATE '2020-04-01', 500000, 'Senior', 150000, 'Active');
@@ -65,7 +78,9 @@ CREATE TABLE csv_export_log (
     export_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     employee_count NUMBER(10),
     file_name VARCHAR2(200),
-    status VARCHAR2(20)
+    status VARCHAR2(20),
+    export_type VARCHAR2(20),
+    high_water_mark TIMESTAMP
 );
 
 CREATE SEQUENCE csv_export_log_seq
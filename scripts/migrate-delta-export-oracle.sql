@@ -0,0 +1,60 @@
+-- Oracle migration for incremental (delta) exports
+-- Brings databases created before updated_at / high_water_mark up to the current schema.
+-- Safe to run more than once: objects that already exist are skipped.
+-- Run as the application schema owner (csvuser).
+
+-- Existing rows get the migration time, so the first delta after it re-exports them once
+DECLARE
+    column_exists EXCEPTION;
+    PRAGMA EXCEPTION_INIT(column_exists, -1430);
+BEGIN
+    EXECUTE IMMEDIATE 'ALTER TABLE employees ADD (updated_at TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL)';
+EXCEPTION
+    WHEN column_exists THEN NULL;
+END;
+/
+
+-- Index used by incremental (delta) exports
+DECLARE
+    name_in_use EXCEPTION;
+    PRAGMA EXCEPTION_INIT(name_in_use, -955);
+BEGIN
+    EXECUTE IMMEDIATE 'CREATE INDEX employees_updated_at_idx ON employees (updated_at)';
+EXCEPTION
+    WHEN name_in_use THEN NULL;
+END;
+/
+
+-- Keep updated_at current so delta exports pick up modified rows
+CREATE OR REPLACE TRIGGER employee_updated_at_trigger
+    BEFORE UPDATE ON employees
+    FOR EACH ROW
+BEGIN
+    :NEW.updated_at := SYSTIMESTAMP;
+END;
+/
+
+-- Export type and high-water mark of each export; delta exports start from the last one
+DECLARE
+    column_exists EXCEPTION;
+    PRAGMA EXCEPTION_INIT(column_exists, -1430);
+BEGIN
+    EXECUTE IMMEDIATE 'ALTER TABLE csv_export_log ADD (export_type VARCHAR2(20))';
+EXCEPTION
+    WHEN column_exists THEN NULL;
+END;
+/
+
+DECLARE
+    column_exists EXCEPTION;
+    PRAGMA EXCEPTION_INIT(column_exists, -1430);
+BEGIN
+    EXECUTE IMMEDIATE 'ALTER TABLE csv_export_log ADD (high_water_mark TIMESTAMP)';
+EXCEPTION
+    WHEN column_exists THEN NULL;
+END;
+/
+
+COMMIT;
+
+PROMPT Delta export migration completed successfully!
@@ -0,0 +1,29 @@
+-- PostgreSQL migration for incremental (delta) exports
+-- Brings databases created before updated_at / high_water_mark up to the current schema.
+-- Safe to run more than once.
+
+-- Existing rows get the migration time, so the first delta after it re-exports them once
+ALTER TABLE employees ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+-- Index used by incremental (delta) exports
+CREATE INDEX IF NOT EXISTS employees_updated_at_idx ON employees (updated_at);
+
+-- Keep updated_at current so delta exports pick up modified rows
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS employee_updated_at_trigger ON employees;
+CREATE TRIGGER employee_updated_at_trigger
+    BEFORE UPDATE ON employees
+    FOR EACH ROW
+    EXECUTE FUNCTION touch_updated_at();
+
+-- Export type and high-water mark of each export; delta exports start from the last one
+ALTER TABLE csv_export_log ADD COLUMN IF NOT EXISTS export_type VARCHAR(20);
+ALTER TABLE csv_export_log ADD COLUMN IF NOT EXISTS high_water_mark TIMESTAMP;
+
+SELECT 'Delta export migration completed' as info;
@@ -0,0 +1,218 @@
+package com.example.csvbatch.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final double SHORT_RTT_ALPHA = 0.2;
+    private static final double LONG_RTT_ALPHA = 0.003;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitAvailable = lock.newCondition();
+    
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double shortRttNanos;
+    private double longRttNanos;
+    
+    private AdaptiveConcurrencyLimiter(Builder builder) {
+        if (builder.minLimit < 1 || builder.maxLimit < builder.minLimit) {
+            throw new IllegalArgumentException("Invalid limiter bounds: " + builder.minLimit + ".." + builder.maxLimit);
+        }
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.rttTolerance = builder.rttTolerance;
+        this.smoothing = builder.smoothing;
+        this.backoffRatio = builder.backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+    }
+    
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double rttTolerance = 1.5;
+        private double smoothing = 0.2;
+        private double backoffRatio = 0.9;
+        
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+        
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+        
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+        
+        public Builder rttTolerance(double rttTolerance) {
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+        
+        public Builder smoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+        
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+        
+        public AdaptiveConcurrencyLimiter build() {
+            return new AdaptiveConcurrencyLimiter(this);
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        
+        lock.lock();
+        try {
+            waiting++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    remainingNanos = permitAvailable.awaitNanos(remainingNanos);
+                }
+            } finally {
+                waiting--;
+            }
+            
+            inFlight++;
+            return true;
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int inFlightAtCompletion = inFlight;
+            inFlight--;
+            
+            if (dropped) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else {
+                updateLimit(rttNanos, inFlightAtCompletion);
+            }
+            
+            permitAvailable.signalAll();
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Called when the upstream is known to be overloaded (e.g. the circuit opened)
+    // so the limiter does not wait for individual samples to back off.
+    public void onOverload() {
+        lock.lock();
+        try {
+            limit = Math.max(minLimit, limit / 2);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void updateLimit(long rttNanos, int inFlightAtCompletion) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        
+        if (shortRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        
+        shortRttNanos += SHORT_RTT_ALPHA * (rttNanos - shortRttNanos);
+        longRttNanos += LONG_RTT_ALPHA * (rttNanos - longRttNanos);
+        
+        // Let the baseline follow a sustained improvement instead of
+        // holding the limit down with a stale, slow long-term average.
+        if (longRttNanos / shortRttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+        
+        // Only grow while the limit is actually the bottleneck.
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+        
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+    
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public double getShortRttMillis() {
+        lock.lock();
+        try {
+            return shortRttNanos / 1_000_000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public double getLongRttMillis() {
+        lock.lock();
+        try {
+            return longRttNanos / 1_000_000.0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
\ No newline at end of file
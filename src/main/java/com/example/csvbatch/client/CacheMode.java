@@ -0,0 +1,7 @@
+package com.example.csvbatch.client;
+
+public enum CacheMode {
+    USE,
+    REFRESH,
+    BYPASS
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+package com.example.csvbatch.client;
+
+import com.example.csvbatch.dto.EmployeeDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+public class EmployeeDetailsCache {
+    
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+    private static final int MAX_FREQUENCY = 255;
+    
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final PersistentDetailsStore backingStore;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    // Dense copy of the entries so eviction can sample at random in O(1)
+    private final List<Entry> slots = new ArrayList<>();
+    
+    private long hits;
+    private long diskHits;
+    private long misses;
+    private long evictions;
+    private long accessesSinceAging;
+    
+    private EmployeeDetailsCache(Builder builder) {
+        if (builder.maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be positive: " + builder.maxEntries);
+        }
+        this.ttlNanos = builder.ttl.toNanos();
+        this.maxEntries = builder.maxEntries;
+        this.clock = builder.clock;
+        this.backingStore = builder.backingStore;
+    }
+    
+    public static class Builder {
+        private Duration ttl = Duration.ofHours(12);
+        private int maxEntries = 500_000;
+        private LongSupplier clock = System::nanoTime;
+        private PersistentDetailsStore backingStore;
+        
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+        
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+        
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+        
+        public Builder backingStore(PersistentDetailsStore backingStore) {
+            this.backingStore = backingStore;
+            return this;
+        }
+        
+        public EmployeeDetailsCache build() {
+            return new EmployeeDetailsCache(this);
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public EmployeeDetails get(Long employeeId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(employeeId);
+            if (entry != null && entry.expiresAt - clock.getAsLong() > 0) {
+                recordAccess(entry);
+                hits++;
+                return entry.details;
+            }
+            
+            if (entry != null) {
+                remove(entry);
+            }
+            if (backingStore == null) {
+                misses++;
+                return null;
+            }
+            
+        } finally {
+            lock.unlock();
+        }
+        
+        // Read through to disk outside the lock so slow page faults do not serialize lookups
+        PersistentDetailsStore.StoredDetails stored = backingStore.get(employeeId);
+        
+        lock.lock();
+        try {
+            if (stored == null) {
+                misses++;
+                return null;
+            }
+            
+            putInMemory(employeeId, stored.getDetails(), clock.getAsLong() + stored.getRemainingTtl().toNanos());
+            diskHits++;
+            return stored.getDetails();
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void put(Long employeeId, EmployeeDetails details) {
+        lock.lock();
+        try {
+            putInMemory(employeeId, details, clock.getAsLong() + ttlNanos);
+        } finally {
+            lock.unlock();
+        }
+        
+        if (backingStore != null) {
+            backingStore.put(employeeId, details);
+        }
+    }
+    
+    public void invalidate(Long employeeId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(employeeId);
+            if (entry != null) {
+                remove(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        
+        if (backingStore != null) {
+            backingStore.delete(employeeId);
+        }
+    }
+    
+    private void putInMemory(Long employeeId, EmployeeDetails details, long expiresAt) {
+        Entry entry = entries.get(employeeId);
+        if (entry != null) {
+            entry.details = details;
+            entry.expiresAt = expiresAt;
+            recordAccess(entry);
+            return;
+        }
+        
+        if (entries.size() >= maxEntries) {
+            evictOne();
+        }
+        
+        entry = new Entry(employeeId, details, expiresAt);
+        entry.slot = slots.size();
+        slots.add(entry);
+        entries.put(employeeId, entry);
+    }
+    
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            slots.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Sampled LFU: of a few random entries, drop an expired one if there is one,
+    // otherwise the least frequently used, breaking ties by the oldest expiry.
+    private void evictOne() {
+        long now = clock.getAsLong();
+        Entry victim = null;
+        
+        boolean scanAll = slots.size() <= EVICTION_SAMPLE_SIZE;
+        for (int i = 0; i < Math.min(EVICTION_SAMPLE_SIZE, slots.size()); i++) {
+            Entry candidate = slots.get(scanAll ? i : ThreadLocalRandom.current().nextInt(slots.size()));
+            if (candidate.expiresAt - now <= 0) {
+                victim = candidate;
+                break;
+            }
+            if (victim == null
+                    || candidate.frequency < victim.frequency
+                    || (candidate.frequency == victim.frequency && candidate.expiresAt - victim.expiresAt < 0)) {
+                victim = candidate;
+            }
+        }
+        
+        if (victim != null) {
+            remove(victim);
+            evictions++;
+        }
+    }
+    
+    private void remove(Entry entry) {
+        entries.remove(entry.employeeId);
+        
+        Entry last = slots.remove(slots.size() - 1);
+        if (last != entry) {
+            last.slot = entry.slot;
+            slots.set(entry.slot, last);
+        }
+    }
+    
+    // Frequencies are halved periodically so rows that were hot in an old export
+    // do not stay pinned forever.
+    private void recordAccess(Entry entry) {
+        if (entry.frequency < MAX_FREQUENCY) {
+            entry.frequency++;
+        }
+        
+        if (++accessesSinceAging >= 10L * maxEntries) {
+            accessesSinceAging = 0;
+            for (Entry slot : slots) {
+                slot.frequency >>= 1;
+            }
+        }
+    }
+    
+    public long getHitCount() {
+        lock.lock();
+        try {
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getDiskHitCount() {
+        lock.lock();
+        try {
+            return diskHits;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getMissCount() {
+        lock.lock();
+        try {
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getEvictionCount() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private static class Entry {
+        private final Long employeeId;
+        private EmployeeDetails details;
+        private long expiresAt;
+        private int frequency = 1;
+        private int slot;
+        
+        Entry(Long employeeId, EmployeeDetails details, long expiresAt) {
+            this.employeeId = employeeId;
+            this.details = details;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
\ No newline at end of file
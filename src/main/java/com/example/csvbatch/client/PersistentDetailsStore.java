@@ -0,0 +1,533 @@
+package com.example.csvbatch.client;
+
+import com.example.csvbatch.dto.EmployeeDetails;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+public class PersistentDetailsStore implements AutoCloseable {
+    
+    private static final Logger LOGGER = Logger.getLogger(PersistentDetailsStore.class.getName());
+    
+    // Record layout (big-endian):
+    //   int    length of everything after this field, including the CRC
+    //   byte   type (PUT or DELETE)
+    //   long   employeeId
+    //   long   written at, epoch millis
+    //   short  level length, level UTF-8 bytes
+    //   short  status length, status UTF-8 bytes
+    //   int    bonus scale
+    //   byte   bonus unscaled length (-1 when null), unscaled two's-complement bytes
+    //   int    CRC32 of the bytes from type up to here
+    // A length of 0 marks the end of the log; SKIP_TO_NEXT_REGION pads the tail of a region.
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_DELETE = 2;
+    private static final int SKIP_TO_NEXT_REGION = -1;
+    private static final int MAX_RECORD_LENGTH = 4096;
+    private static final long DEFAULT_REGION_SIZE = 64L * 1024 * 1024;
+    private static final long MIN_COMPACTION_BYTES = 8L * 1024 * 1024;
+    
+    private final Path file;
+    private final long ttlMillis;
+    private final long regionSize;
+    private final LongSupplier wallClock;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    
+    private FileChannel channel;
+    private final List<MappedByteBuffer> regions = new ArrayList<>();
+    private final Map<Long, Long> offsets = new HashMap<>();
+    private long writePosition;
+    private long liveBytes;
+    private long generation;
+    private volatile boolean loaded;
+    
+    public PersistentDetailsStore(Path file, Duration ttl) {
+        this(file, ttl, DEFAULT_REGION_SIZE, System::currentTimeMillis);
+    }
+    
+    PersistentDetailsStore(Path file, Duration ttl, long regionSize, LongSupplier wallClock) {
+        this.file = file;
+        this.ttlMillis = ttl.toMillis();
+        this.regionSize = regionSize;
+        this.wallClock = wallClock;
+    }
+    
+    // Returns immediately; until the background scan finishes, reads miss and
+    // writes are not persisted, so startup never waits for a large file.
+    public void loadInBackground() {
+        Thread.ofVirtual().name("details-store-loader").start(() -> {
+            try {
+                load();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to load persistent details cache from " + file, e);
+            }
+        });
+    }
+    
+    public void load() throws IOException {
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            
+            long position = 0;
+            long fileSize = channel.size();
+            mapRegions(fileSize);
+            long now = wallClock.getAsLong();
+            while (position < fileSize) {
+                ByteBuffer region = region(position);
+                int offset = (int) (position % regionSize);
+                int length = region.remaining() - offset >= Integer.BYTES ? region.getInt(offset) : SKIP_TO_NEXT_REGION;
+                
+                if (length == SKIP_TO_NEXT_REGION) {
+                    position = (position / regionSize + 1) * regionSize;
+                    continue;
+                }
+                if (!isValidRecord(region, offset, length)) {
+                    break;
+                }
+                
+                long employeeId = region.getLong(offset + 5);
+                boolean live = region.get(offset + 4) == TYPE_PUT && now - region.getLong(offset + 13) <= ttlMillis;
+                Long previous = live ? offsets.put(employeeId, position) : offsets.remove(employeeId);
+                if (previous != null) {
+                    liveBytes -= recordLength(previous);
+                }
+                if (live) {
+                    liveBytes += Integer.BYTES + length;
+                }
+                position += Integer.BYTES + length;
+            }
+            
+            // Anything past the last valid record is a torn write or mapped padding
+            writePosition = position;
+            generation++;
+            loaded = true;
+            LOGGER.info("Loaded " + offsets.size() + " cached employee details from " + file);
+            
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    public StoredDetails get(Long employeeId) {
+        if (!loaded) {
+            return null;
+        }
+        
+        lock.readLock().lock();
+        try {
+            Long position = offsets.get(employeeId);
+            if (!loaded || position == null) {
+                return null;
+            }
+            
+            ByteBuffer region = region(position);
+            int offset = (int) (position % regionSize);
+            if (!isValidRecord(region, offset, region.getInt(offset)) || region.getLong(offset + 5) != employeeId) {
+                LOGGER.warning("Discarding corrupt cached details for employee: " + employeeId);
+                return null;
+            }
+            
+            long writtenAt = region.getLong(offset + 13);
+            long remainingMillis = ttlMillis - (wallClock.getAsLong() - writtenAt);
+            if (remainingMillis <= 0) {
+                return null;
+            }
+            
+            return new StoredDetails(decode(region, offset, employeeId), Duration.ofMillis(remainingMillis));
+            
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public void put(Long employeeId, EmployeeDetails details) {
+        append(TYPE_PUT, employeeId, details);
+    }
+    
+    public void delete(Long employeeId) {
+        append(TYPE_DELETE, employeeId, null);
+    }
+    
+    private void append(byte type, Long employeeId, EmployeeDetails details) {
+        if (!loaded) {
+            return;
+        }
+        
+        byte[] record = encode(type, employeeId, details, wallClock.getAsLong());
+        if (record == null) {
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            writeRecord(record, employeeId, type);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to persist cached details for employee: " + employeeId, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        if (shouldCompact() && compacting.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("details-store-compactor").start(() -> {
+                try {
+                    compact();
+                } catch (Exception e) {
+                    LOGGER.log(Level.WARNING, "Failed to compact persistent details cache " + file, e);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+    
+    private void writeRecord(byte[] record, Long employeeId, byte type) throws IOException {
+        long regionEnd = (writePosition / regionSize + 1) * regionSize;
+        if (writePosition + record.length > regionEnd) {
+            if (regionEnd - writePosition >= Integer.BYTES) {
+                region(writePosition).putInt((int) (writePosition % regionSize), SKIP_TO_NEXT_REGION);
+            }
+            writePosition = regionEnd;
+        }
+        
+        mapRegions(writePosition + record.length);
+        ByteBuffer region = region(writePosition);
+        region.put((int) (writePosition % regionSize), record);
+        
+        Long previous = type == TYPE_PUT ? offsets.put(employeeId, writePosition) : offsets.remove(employeeId);
+        if (previous != null) {
+            liveBytes -= recordLength(previous);
+        }
+        if (type == TYPE_PUT) {
+            liveBytes += record.length;
+        }
+        writePosition += record.length;
+    }
+    
+    private boolean shouldCompact() {
+        lock.readLock().lock();
+        try {
+            return writePosition > MIN_COMPACTION_BYTES && writePosition > 2 * liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Rewrites the live, unexpired records into a fresh file and swaps it in. The bulk copy
+    // runs from a snapshot without the lock; only the records appended since then and the
+    // swap itself hold the write lock.
+    void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        
+        Map<Long, Long> snapshot;
+        List<MappedByteBuffer> snapshotRegions;
+        long snapshotEnd;
+        long snapshotGeneration;
+        lock.readLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            snapshot = new HashMap<>(offsets);
+            snapshotRegions = List.copyOf(regions);
+            snapshotEnd = writePosition;
+            snapshotGeneration = generation;
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        // Records below snapshotEnd are never rewritten in place, so they can be read without the lock
+        long now = wallClock.getAsLong();
+        Map<Long, Long> copied = new HashMap<>();
+        long position = 0;
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<Long, Long> entry : snapshot.entrySet()) {
+                ByteBuffer region = snapshotRegions.get((int) (entry.getValue() / regionSize));
+                int offset = (int) (entry.getValue() % regionSize);
+                if (now - region.getLong(offset + 13) > ttlMillis) {
+                    continue;
+                }
+                
+                int length = Integer.BYTES + region.getInt(offset);
+                position = writeAligned(out, region.slice(offset, length), position);
+                copied.put(entry.getKey(), position);
+                position += length;
+            }
+            
+            lock.writeLock().lock();
+            try {
+                if (!loaded || generation != snapshotGeneration) {
+                    out.close();
+                    Files.deleteIfExists(compacted);
+                    return;
+                }
+                
+                Map<Long, Long> newOffsets = new HashMap<>();
+                long newLiveBytes = 0;
+                for (Map.Entry<Long, Long> entry : offsets.entrySet()) {
+                    long current = entry.getValue();
+                    Long newPosition;
+                    if (current < snapshotEnd) {
+                        // Unchanged since the snapshot; absent from the copy when it had expired
+                        newPosition = copied.get(entry.getKey());
+                        if (newPosition == null) {
+                            continue;
+                        }
+                    } else {
+                        int length = recordLength(current);
+                        newPosition = writeAligned(out, region(current).slice((int) (current % regionSize), length), position);
+                        position = newPosition + length;
+                    }
+                    newOffsets.put(entry.getKey(), newPosition);
+                    newLiveBytes += recordLength(current);
+                }
+                
+                // A copied PUT whose DELETE came after the snapshot must not come back on the next load
+                for (Long employeeId : copied.keySet()) {
+                    if (!offsets.containsKey(employeeId)) {
+                        byte[] record = encode(TYPE_DELETE, employeeId, null, now);
+                        position = writeAligned(out, ByteBuffer.wrap(record), position) + record.length;
+                    }
+                }
+                out.force(true);
+                out.close();
+                
+                swap(compacted, newOffsets, position, newLiveBytes);
+                
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    // Called under the write lock once the compacted file is complete and durable.
+    private void swap(Path compacted, Map<Long, Long> newOffsets, long newWritePosition, long newLiveBytes) throws IOException {
+        long before = writePosition;
+        closeMappings();
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The old log is still complete at its path, so keep serving it
+            reopen();
+            throw e;
+        }
+        
+        offsets.clear();
+        offsets.putAll(newOffsets);
+        writePosition = newWritePosition;
+        liveBytes = newLiveBytes;
+        generation++;
+        reopen();
+        LOGGER.info("Compacted persistent details cache from " + before + " to " + newWritePosition + " bytes");
+    }
+    
+    private void reopen() {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            mapRegions(writePosition);
+        } catch (IOException e) {
+            // Reads and writes go back to missing rather than touching unmapped regions
+            loaded = false;
+            regions.clear();
+            LOGGER.log(Level.WARNING, "Failed to reopen persistent details cache " + file, e);
+        }
+    }
+    
+    // Writes one record at or after position, padding to the next region when it would straddle one.
+    private long writeAligned(FileChannel out, ByteBuffer record, long position) throws IOException {
+        long regionEnd = (position / regionSize + 1) * regionSize;
+        if (position + record.remaining() > regionEnd) {
+            if (regionEnd - position >= Integer.BYTES) {
+                out.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, SKIP_TO_NEXT_REGION), position);
+            }
+            position = regionEnd;
+        }
+        out.write(record, position);
+        return position;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return offsets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getFileBytes() {
+        lock.readLock().lock();
+        try {
+            return writePosition;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            if (channel != null) {
+                for (MappedByteBuffer region : regions) {
+                    region.force();
+                }
+                closeMappings();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void closeMappings() throws IOException {
+        regions.clear();
+        if (!channel.isOpen()) {
+            return;
+        }
+        // Drop the mapped padding so the next load stops at the real end of the log
+        channel.truncate(writePosition);
+        channel.close();
+    }
+    
+    // Regions are only ever mapped under the write lock, so readers never change the list.
+    private void mapRegions(long end) throws IOException {
+        while (regions.size() * regionSize < end) {
+            regions.add(channel.map(FileChannel.MapMode.READ_WRITE, regions.size() * regionSize, regionSize));
+        }
+    }
+    
+    private ByteBuffer region(long position) {
+        return regions.get((int) (position / regionSize));
+    }
+    
+    private int recordLength(long position) {
+        return Integer.BYTES + region(position).getInt((int) (position % regionSize));
+    }
+    
+    private static boolean isValidRecord(ByteBuffer region, int offset, int length) {
+        return length > 0 && length <= MAX_RECORD_LENGTH && offset + Integer.BYTES + length <= region.limit()
+                && checksumMatches(region, offset, length);
+    }
+    
+    private static boolean checksumMatches(ByteBuffer region, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(region.slice(offset + Integer.BYTES, length - Integer.BYTES));
+        return (int) crc.getValue() == region.getInt(offset + length);
+    }
+    
+    private static byte[] encode(byte type, Long employeeId, EmployeeDetails details, long writtenAt) {
+        byte[] level = bytes(details != null ? details.getLevel() : null);
+        byte[] status = bytes(details != null ? details.getStatus() : null);
+        BigDecimal bonus = details != null ? details.getBonus() : null;
+        byte[] unscaled = bonus != null ? bonus.unscaledValue().toByteArray() : new byte[0];
+        
+        int length = 1 + Long.BYTES + Long.BYTES
+                + Short.BYTES + level.length
+                + Short.BYTES + status.length
+                + Integer.BYTES + 1 + unscaled.length
+                + Integer.BYTES;
+        if (length > MAX_RECORD_LENGTH || unscaled.length > Byte.MAX_VALUE) {
+            return null;
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + length)
+                .putInt(length)
+                .put(type)
+                .putLong(employeeId)
+                .putLong(writtenAt)
+                .putShort((short) level.length).put(level)
+                .putShort((short) status.length).put(status)
+                .putInt(bonus != null ? bonus.scale() : 0)
+                .put((byte) (bonus != null ? unscaled.length : -1)).put(unscaled);
+        
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, length - Integer.BYTES);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+    
+    private static EmployeeDetails decode(ByteBuffer region, int offset, Long employeeId) {
+        int position = offset + 21;
+        
+        int levelLength = region.getShort(position);
+        String level = string(region, position + Short.BYTES, levelLength);
+        position += Short.BYTES + levelLength;
+        
+        int statusLength = region.getShort(position);
+        String status = string(region, position + Short.BYTES, statusLength);
+        position += Short.BYTES + statusLength;
+        
+        int scale = region.getInt(position);
+        int unscaledLength = region.get(position + Integer.BYTES);
+        BigDecimal bonus = null;
+        if (unscaledLength >= 0) {
+            byte[] unscaled = new byte[unscaledLength];
+            region.get(position + Integer.BYTES + 1, unscaled);
+            bonus = new BigDecimal(new BigInteger(unscaled), scale);
+        }
+        
+        return EmployeeDetails.builder()
+                .employeeId(employeeId)
+                .level(level)
+                .bonus(bonus)
+                .status(status)
+                .build();
+    }
+    
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+    }
+    
+    private static String string(ByteBuffer region, int position, int length) {
+        byte[] value = new byte[length];
+        region.get(position, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+    
+    public static class StoredDetails {
+        private final EmployeeDetails details;
+        private final Duration remainingTtl;
+        
+        public StoredDetails(EmployeeDetails details, Duration remainingTtl) {
+            this.details = details;
+            this.remainingTtl = remainingTtl;
+        }
+        
+        public EmployeeDetails getDetails() {
+            return details;
+        }
+        
+        public Duration getRemainingTtl() {
+            return remainingTtl;
+        }
+    }
+}
\ No newline at end of file
@@ -2,38 +2,39 @@ package com.example.csvbatch.client;
 
 import com.example.csvbatch.dto.EmployeeDetails;
 import com.example.csvbatch.exception.DataProcessingException;
+import com.example.csvbatch.metrics.LatencyHistogram;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.metrics.MetricUnits;
 import org.eclipse.microprofile.metrics.annotation.Counted;
+import org.eclipse.microprofile.metrics.annotation.Gauge;
 
-import java.io.StringReader;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
 
 @ApplicationScoped
 public class SoapClient {
@@ -52,9 +53,61 @@ public class SoapClient {
     @ConfigProperty(name = "soap.api.timeout.read", defaultValue = "60000")
     private int readTimeout;
     
+    @Inject
+    @ConfigProperty(name = "soap.batch.size", defaultValue = "50")
+    private int batchSize;
+    
+    @Inject
+    @ConfigProperty(name = "soap.cache.enabled", defaultValue = "true")
+    private boolean cacheEnabled;
+    
+    @Inject
+    @ConfigProperty(name = "soap.cache.ttl-seconds", defaultValue = "43200")
+    private long cacheTtlSeconds;
+    
+    @Inject
+    @ConfigProperty(name = "soap.cache.max-entries", defaultValue = "500000")
+    private int cacheMaxEntries;
+    
+    @Inject
+    @ConfigProperty(name = "soap.cache.persistent.enabled", defaultValue = "true")
+    private boolean persistentCacheEnabled;
+    
+    @Inject
+    @ConfigProperty(name = "csv.output.path", defaultValue = "/app/output/result.csv")
+    private String csvOutputPath;
+    
+    @Inject
+    @ConfigProperty(name = "soap.limiter.enabled", defaultValue = "true")
+    private boolean limiterEnabled;
+    
+    @Inject
+    @ConfigProperty(name = "soap.limiter.initial-limit", defaultValue = "20")
+    private int limiterInitialLimit;
+    
+    @Inject
+    @ConfigProperty(name = "soap.limiter.min-limit", defaultValue = "1")
+    private int limiterMinLimit;
+    
+    @Inject
+    @ConfigProperty(name = "soap.limiter.max-limit", defaultValue = "200")
+    private int limiterMaxLimit;
+    
+    @Inject
+    @ConfigProperty(name = "soap.limiter.rtt-tolerance", defaultValue = "1.5")
+    private double limiterRttTolerance;
+    
     private HttpClient httpClient;
     private CircuitBreaker circuitBreaker;
     private Retry retry;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private EmployeeDetailsCache detailsCache;
+    private PersistentDetailsStore persistentStore;
+    private final SoapRequestTemplate requestTemplate = new SoapRequestTemplate();
+    private final SoapResponseParser responseParser = new SoapResponseParser();
+    // One sample per HTTP attempt, so each retry is a sample of its own; cache hits never reach them
+    private final LatencyHistogram callLatency = new LatencyHistogram();
+    private final LatencyHistogram batchCallLatency = new LatencyHistogram();
     
     @PostConstruct
     public void init() {
@@ -78,22 +131,58 @@ public class SoapClient {
         
         retry = Retry.of("soapRetry", retryConfig);
         
+        concurrencyLimiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(limiterInitialLimit)
+                .minLimit(limiterMinLimit)
+                .maxLimit(limiterMaxLimit)
+                .rttTolerance(limiterRttTolerance)
+                .build();
+        
+        if (cacheEnabled && persistentCacheEnabled) {
+            Path storeFile = Paths.get(csvOutputPath).resolveSibling("employee-details.cache");
+            persistentStore = new PersistentDetailsStore(storeFile, Duration.ofSeconds(cacheTtlSeconds));
+            persistentStore.loadInBackground();
+        }
+        
+        detailsCache = EmployeeDetailsCache.builder()
+                .ttl(Duration.ofSeconds(cacheTtlSeconds))
+                .maxEntries(cacheMaxEntries)
+                .backingStore(persistentStore)
+                .build();
+        
         circuitBreaker.getEventPublisher()
-                .onStateTransition(event -> 
-                    LOGGER.info("Circuit breaker state transition: " + event.getStateTransition()));
+                .onStateTransition(event -> {
+                    LOGGER.info("Circuit breaker state transition: " + event.getStateTransition());
+                    if (event.getStateTransition().getToState() == CircuitBreaker.State.OPEN) {
+                        concurrencyLimiter.onOverload();
+                        LOGGER.warning("SOAP concurrency limit reduced to " + concurrencyLimiter.getLimit());
+                    }
+                });
+    }
+    
+    public EmployeeDetails getEmployeeDetails(Long employeeId) {
+        return getEmployeeDetails(employeeId, CacheMode.USE);
     }
     
     @Counted(name = "soap.client.calls")
     @Fallback(fallbackMethod = "getEmployeeDetailsFallback")
-    public EmployeeDetails getEmployeeDetails(Long employeeId) {
+    public EmployeeDetails getEmployeeDetails(Long employeeId, CacheMode cacheMode) {
+        EmployeeDetails cached = lookupCache(employeeId, cacheMode);
+        if (cached != null) {
+            return cached;
+        }
+        
         LOGGER.info("Fetching details for employee ID: " + employeeId);
         
         Supplier<EmployeeDetails> decoratedSupplier = CircuitBreaker
                 .decorateSupplier(circuitBreaker, 
-                    Retry.decorateSupplier(retry, () -> callSoapApi(employeeId)));
+                    Retry.decorateSupplier(retry, () -> withConcurrencyLimit(
+                            () -> timed(callLatency, () -> callSoapApi(employeeId)))));
         
         try {
-            return decoratedSupplier.get();
+            EmployeeDetails details = decoratedSupplier.get();
+            storeInCache(employeeId, details, cacheMode);
+            return details;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to get employee details for ID: " + employeeId, e);
             throw new DataProcessingException("SOAP_API_ERROR", 
@@ -101,108 +190,261 @@ public class SoapClient {
         }
     }
     
+    public Map<Long, EmployeeDetails> getEmployeeDetailsBatch(List<Long> employeeIds) {
+        return getEmployeeDetailsBatch(employeeIds, CacheMode.USE);
+    }
+    
+    @Counted(name = "soap.client.batch.calls")
+    public Map<Long, EmployeeDetails> getEmployeeDetailsBatch(List<Long> employeeIds, CacheMode cacheMode) {
+        Map<Long, EmployeeDetails> detailsById = new LinkedHashMap<>();
+        List<Long> uncachedIds = new ArrayList<>(employeeIds.size());
+        
+        for (Long employeeId : employeeIds) {
+            EmployeeDetails cached = lookupCache(employeeId, cacheMode);
+            detailsById.put(employeeId, cached);
+            if (cached == null) {
+                uncachedIds.add(employeeId);
+            }
+        }
+        
+        for (int from = 0; from < uncachedIds.size(); from += getBatchSize()) {
+            List<Long> chunk = uncachedIds.subList(from, Math.min(from + getBatchSize(), uncachedIds.size()));
+            detailsById.putAll(fetchEmployeeDetailsBatch(chunk, cacheMode));
+        }
+        
+        return detailsById;
+    }
+    
+    public int getBatchSize() {
+        return Math.max(1, batchSize);
+    }
+    
+    public LatencyHistogram getCallLatency() {
+        return callLatency;
+    }
+    
+    public LatencyHistogram getBatchCallLatency() {
+        return batchCallLatency;
+    }
+    
+    private Map<Long, EmployeeDetails> fetchEmployeeDetailsBatch(List<Long> employeeIds, CacheMode cacheMode) {
+        LOGGER.info("Fetching details for " + employeeIds.size() + " employees in one SOAP call");
+        
+        Supplier<List<EmployeeDetails>> decoratedSupplier = CircuitBreaker
+                .decorateSupplier(circuitBreaker,
+                    Retry.decorateSupplier(retry, () -> withConcurrencyLimit(
+                            () -> timed(batchCallLatency, () -> callSoapApiBatch(employeeIds)))));
+        
+        Map<Long, EmployeeDetails> received = new LinkedHashMap<>();
+        try {
+            for (EmployeeDetails details : decoratedSupplier.get()) {
+                received.put(details.getEmployeeId(), details);
+                storeInCache(details.getEmployeeId(), details, cacheMode);
+            }
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Batch SOAP call failed for " + employeeIds.size()
+                    + " employees, falling back to per-id calls", e);
+        }
+        
+        Map<Long, EmployeeDetails> detailsById = new LinkedHashMap<>();
+        for (Long employeeId : employeeIds) {
+            EmployeeDetails details = received.get(employeeId);
+            detailsById.put(employeeId, details != null ? details : getEmployeeDetailsOrFallback(employeeId, cacheMode));
+        }
+        
+        return detailsById;
+    }
+    
+    private EmployeeDetails getEmployeeDetailsOrFallback(Long employeeId, CacheMode cacheMode) {
+        try {
+            return getEmployeeDetails(employeeId, cacheMode);
+        } catch (Exception e) {
+            return getEmployeeDetailsFallback(employeeId);
+        }
+    }
+    
+    private EmployeeDetails lookupCache(Long employeeId, CacheMode cacheMode) {
+        return cacheEnabled && cacheMode == CacheMode.USE ? detailsCache.get(employeeId) : null;
+    }
+    
+    // Fallback results are never stored, only real SOAP answers
+    private void storeInCache(Long employeeId, EmployeeDetails details, CacheMode cacheMode) {
+        if (cacheEnabled && cacheMode != CacheMode.BYPASS) {
+            detailsCache.put(employeeId, details);
+        }
+    }
+    
+    private <T> T withConcurrencyLimit(Supplier<T> call) {
+        if (!limiterEnabled) {
+            return call.get();
+        }
+        
+        try {
+            if (!concurrencyLimiter.tryAcquire(readTimeout, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Timed out waiting for SOAP concurrency permit (limit: "
+                        + concurrencyLimiter.getLimit() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for SOAP concurrency permit", e);
+        }
+        
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            T result = call.get();
+            dropped = false;
+            return result;
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+    
+    // Inside the retry and the concurrency permit: only the request itself is measured.
+    private static <T> T timed(LatencyHistogram histogram, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+    
     private EmployeeDetails callSoapApi(Long employeeId) {
         try {
-            String soapRequest = buildSoapRequest(employeeId);
+            byte[] soapRequest = requestTemplate.encode(employeeId);
             
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(soapApiUrl))
                     .header("Content-Type", "text/xml;charset=UTF-8")
                     .header("SOAPAction", "getEmployeeDetails")
                     .timeout(Duration.ofMillis(readTimeout))
-                    .POST(HttpRequest.BodyPublishers.ofString(soapRequest))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(soapRequest))
                     .build();
             
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
             
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("SOAP API returned status: " + response.statusCode());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new RuntimeException("SOAP API returned status: " + response.statusCode());
+                }
+                
+                return responseParser.parse(body);
             }
             
-            return parseSoapResponse(response.body());
-            
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "SOAP API call failed for employee: " + employeeId, e);
             throw new RuntimeException("SOAP API call failed", e);
         }
     }
     
-    private String buildSoapRequest(Long employeeId) {
+    private List<EmployeeDetails> callSoapApiBatch(List<Long> employeeIds) {
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.newDocument();
-            
-            Element envelope = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Envelope");
-            doc.appendChild(envelope);
-            
-            Element header = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Header");
-            envelope.appendChild(header);
-            
-            Element body = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Body");
-            envelope.appendChild(body);
+            byte[] soapRequest = requestTemplate.encode(employeeIds);
             
-            Element request = doc.createElementNS("http://example.com/employees", "emp:getEmployeeDetailsRequest");
-            body.appendChild(request);
-            
-            Element empId = doc.createElementNS("http://example.com/employees", "emp:employeeId");
-            empId.setTextContent(employeeId.toString());
-            request.appendChild(empId);
-            
-            TransformerFactory tf = TransformerFactory.newInstance();
-            Transformer transformer = tf.newTransformer();
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-            transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-            transformer.setOutputProperty(OutputKeys.INDENT, "no");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(soapApiUrl))
+                    .header("Content-Type", "text/xml;charset=UTF-8")
+                    .header("SOAPAction", "getEmployeeDetails")
+                    .timeout(Duration.ofMillis(readTimeout))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(soapRequest))
+                    .build();
             
-            StringWriter writer = new StringWriter();
-            transformer.transform(new DOMSource(doc), new StreamResult(writer));
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
             
-            return writer.toString();
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new RuntimeException("SOAP API returned status: " + response.statusCode());
+                }
+                
+                return responseParser.parseBatch(body);
+            }
             
         } catch (Exception e) {
-            throw new RuntimeException("Failed to build SOAP request", e);
+            LOGGER.log(Level.SEVERE, "Batch SOAP API call failed for " + employeeIds.size() + " employees", e);
+            throw new RuntimeException("Batch SOAP API call failed", e);
         }
     }
     
-    private EmployeeDetails parseSoapResponse(String soapResponse) {
-        try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setNamespaceAware(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(new InputSource(new StringReader(soapResponse)));
-            
-            doc.getDocumentElement().normalize();
-            
-            Element employeeDetails = (Element) doc.getElementsByTagNameNS(
-                "http://example.com/employees", "employeeDetails").item(0);
-            
-            if (employeeDetails == null) {
-                throw new RuntimeException("No employee details found in SOAP response");
+    @Gauge(name = "soap.limiter.limit", unit = MetricUnits.NONE,
+            description = "Current adaptive concurrency limit for SOAP calls")
+    public int getConcurrencyLimit() {
+        return concurrencyLimiter.getLimit();
+    }
+    
+    @Gauge(name = "soap.limiter.inflight", unit = MetricUnits.NONE,
+            description = "SOAP calls currently holding a concurrency permit")
+    public int getLimiterInFlight() {
+        return concurrencyLimiter.getInFlight();
+    }
+    
+    @Gauge(name = "soap.limiter.queue.depth", unit = MetricUnits.NONE,
+            description = "SOAP calls waiting for a concurrency permit")
+    public int getLimiterQueueDepth() {
+        return concurrencyLimiter.getQueueDepth();
+    }
+    
+    @Gauge(name = "soap.limiter.rtt.short", unit = MetricUnits.MILLISECONDS,
+            description = "Short-term SOAP round trip time estimate")
+    public double getShortRttMillis() {
+        return concurrencyLimiter.getShortRttMillis();
+    }
+    
+    @Gauge(name = "soap.limiter.rtt.long", unit = MetricUnits.MILLISECONDS,
+            description = "Long-term SOAP round trip time baseline")
+    public double getLongRttMillis() {
+        return concurrencyLimiter.getLongRttMillis();
+    }
+    
+    @Gauge(name = "soap.cache.hits", unit = MetricUnits.NONE,
+            description = "Employee details served from the enrichment cache")
+    public long getCacheHits() {
+        return detailsCache.getHitCount();
+    }
+    
+    @Gauge(name = "soap.cache.misses", unit = MetricUnits.NONE,
+            description = "Employee details lookups that missed the enrichment cache")
+    public long getCacheMisses() {
+        return detailsCache.getMissCount();
+    }
+    
+    @Gauge(name = "soap.cache.evictions", unit = MetricUnits.NONE,
+            description = "Entries evicted from the enrichment cache to stay within its size bound")
+    public long getCacheEvictions() {
+        return detailsCache.getEvictionCount();
+    }
+    
+    @Gauge(name = "soap.cache.size", unit = MetricUnits.NONE,
+            description = "Entries currently held in the enrichment cache")
+    public int getCacheSize() {
+        return detailsCache.size();
+    }
+    
+    @Gauge(name = "soap.cache.disk.hits", unit = MetricUnits.NONE,
+            description = "Employee details read through from the persistent cache file")
+    public long getCacheDiskHits() {
+        return detailsCache.getDiskHitCount();
+    }
+    
+    @Gauge(name = "soap.cache.disk.bytes", unit = MetricUnits.BYTES,
+            description = "Size of the persistent cache log including superseded records")
+    public long getCacheDiskBytes() {
+        return persistentStore != null ? persistentStore.getFileBytes() : 0;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (persistentStore != null) {
+            try {
+                persistentStore.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to close persistent details cache", e);
             }
-            
-            Long id = Long.parseLong(getElementValue(employeeDetails, "employeeId"));
-            String level = getElementValue(employeeDetails, "level");
-            BigDecimal bonus = new BigDecimal(getElementValue(employeeDetails, "bonus"));
-            String status = getElementValue(employeeDetails, "status");
-            
-            return EmployeeDetails.builder()
-                    .employeeId(id)
-                    .level(level)
-                    .bonus(bonus)
-                    .status(status)
-                    .build();
-            
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse SOAP response", e);
         }
     }
     
-    private String getElementValue(Element parent, String tagName) {
-        Element element = (Element) parent.getElementsByTagNameNS(
-            "http://example.com/employees", tagName).item(0);
-        return element != null ? element.getTextContent() : "";
+    public EmployeeDetails getEmployeeDetailsFallback(Long employeeId, CacheMode cacheMode) {
+        return getEmployeeDetailsFallback(employeeId);
     }
     
     public EmployeeDetails getEmployeeDetailsFallback(Long employeeId) {
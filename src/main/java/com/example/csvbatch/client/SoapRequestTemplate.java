@@ -0,0 +1,87 @@
+package com.example.csvbatch.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class SoapRequestTemplate {
+    
+    // Byte-for-byte what the DOM + identity Transformer path used to emit
+    private static final byte[] PREFIX = ("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">"
+            + "<soap:Header/>"
+            + "<soap:Body>"
+            + "<emp:getEmployeeDetailsRequest xmlns:emp=\"http://example.com/employees\">")
+            .getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] ID_OPEN = "<emp:employeeId>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] ID_CLOSE = "</emp:employeeId>".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] SUFFIX = ("</emp:getEmployeeDetailsRequest>"
+            + "</soap:Body>"
+            + "</soap:Envelope>")
+            .getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    
+    public byte[] encode(Long employeeId) {
+        return encode(List.of(employeeId));
+    }
+    
+    // Sizes the array exactly up front so each request is a single allocation
+    public byte[] encode(List<Long> employeeIds) {
+        int length = PREFIX.length + SUFFIX.length;
+        for (Long employeeId : employeeIds) {
+            length += ID_OPEN.length + digitCount(employeeId) + ID_CLOSE.length;
+        }
+        
+        byte[] request = new byte[length];
+        int position = put(request, 0, PREFIX);
+        for (Long employeeId : employeeIds) {
+            position = put(request, position, ID_OPEN);
+            position = putLong(request, position, employeeId);
+            position = put(request, position, ID_CLOSE);
+        }
+        put(request, position, SUFFIX);
+        
+        return request;
+    }
+    
+    private static int put(byte[] target, int position, byte[] source) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+    
+    private static int putLong(byte[] target, int position, long value) {
+        if (value == Long.MIN_VALUE) {
+            return put(target, position, MIN_LONG);
+        }
+        
+        int end = position + digitCount(value);
+        if (value < 0) {
+            target[position] = '-';
+            value = -value;
+        }
+        
+        int index = end;
+        do {
+            target[--index] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        
+        return end;
+    }
+    
+    private static int digitCount(long value) {
+        if (value == Long.MIN_VALUE) {
+            return MIN_LONG.length;
+        }
+        
+        int count = value < 0 ? 2 : 1;
+        long remaining = Math.abs(value);
+        while (remaining >= 10) {
+            remaining /= 10;
+            count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.example.csvbatch.client;
+
+import com.example.csvbatch.dto.EmployeeDetails;
+
+import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+public class SoapResponseParser {
+    
+    private static final Logger LOGGER = Logger.getLogger(SoapResponseParser.class.getName());
+    
+    private static final String EMPLOYEES_NAMESPACE = "http://example.com/employees";
+    
+    // XMLInputFactory is thread-safe once configured, so one instance serves every call
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    
+    public EmployeeDetails parse(String soapResponse) {
+        List<EmployeeDetails> detailsList = parseAll(soapResponse, false);
+        if (detailsList.isEmpty()) {
+            throw new RuntimeException("No employee details found in SOAP response");
+        }
+        return detailsList.get(0);
+    }
+    
+    public EmployeeDetails parse(InputStream soapResponse) {
+        List<EmployeeDetails> detailsList = parseAll(soapResponse, false);
+        if (detailsList.isEmpty()) {
+            throw new RuntimeException("No employee details found in SOAP response");
+        }
+        return detailsList.get(0);
+    }
+    
+    public List<EmployeeDetails> parseBatch(String soapResponse) {
+        return parseAll(soapResponse, true);
+    }
+    
+    public List<EmployeeDetails> parseBatch(InputStream soapResponse) {
+        return parseAll(soapResponse, true);
+    }
+    
+    private List<EmployeeDetails> parseAll(String soapResponse, boolean skipMalformed) {
+        try {
+            return read(INPUT_FACTORY.createXMLStreamReader(new StringReader(soapResponse)), skipMalformed);
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Failed to parse SOAP response", e);
+        }
+    }
+    
+    private List<EmployeeDetails> parseAll(InputStream soapResponse, boolean skipMalformed) {
+        try {
+            return read(INPUT_FACTORY.createXMLStreamReader(soapResponse), skipMalformed);
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Failed to parse SOAP response", e);
+        }
+    }
+    
+    private List<EmployeeDetails> read(XMLStreamReader reader, boolean skipMalformed) throws XMLStreamException {
+        List<EmployeeDetails> detailsList = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && isEmployeeElement(reader, "employeeDetails")) {
+                    ItemFields fields = readItem(reader);
+                    try {
+                        detailsList.add(fields.toEmployeeDetails());
+                    } catch (RuntimeException e) {
+                        if (!skipMalformed) {
+                            throw new RuntimeException("Failed to parse SOAP response", e);
+                        }
+                        // A malformed item is treated as missing so it falls back on its own
+                        LOGGER.log(Level.WARNING, "Skipping malformed employeeDetails item in batch response", e);
+                    }
+                    if (!skipMalformed) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return detailsList;
+    }
+    
+    // Reads up to the matching end tag; the first occurrence of each field wins,
+    // as with a DOM getElementsByTagNameNS(...).item(0) lookup.
+    private ItemFields readItem(XMLStreamReader reader) throws XMLStreamException {
+        ItemFields fields = new ItemFields();
+        int depth = 1;
+        
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                if (!EMPLOYEES_NAMESPACE.equals(reader.getNamespaceURI())) {
+                    depth++;
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "employeeId" -> fields.employeeId = firstValue(fields.employeeId, reader);
+                    case "level" -> fields.level = firstValue(fields.level, reader);
+                    case "bonus" -> fields.bonus = firstValue(fields.bonus, reader);
+                    case "status" -> fields.status = firstValue(fields.status, reader);
+                    default -> depth++;
+                }
+            }
+        }
+        
+        return fields;
+    }
+    
+    private String firstValue(String current, XMLStreamReader reader) throws XMLStreamException {
+        String text = reader.getElementText();
+        return current != null ? current : text;
+    }
+    
+    private boolean isEmployeeElement(XMLStreamReader reader, String localName) {
+        return localName.equals(reader.getLocalName()) && EMPLOYEES_NAMESPACE.equals(reader.getNamespaceURI());
+    }
+    
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+    
+    private static class ItemFields {
+        private String employeeId;
+        private String level;
+        private String bonus;
+        private String status;
+        
+        private EmployeeDetails toEmployeeDetails() {
+            return EmployeeDetails.builder()
+                    .employeeId(Long.parseLong(valueOrEmpty(employeeId)))
+                    .level(valueOrEmpty(level))
+                    .bonus(new BigDecimal(valueOrEmpty(bonus)))
+                    .status(valueOrEmpty(status))
+                    .build();
+        }
+        
+        private static String valueOrEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.csvbatch.dto;
+
+import java.time.LocalDateTime;
+
+public class ExportManifest {
+    
+    private String exportType;
+    private LocalDateTime since;
+    private LocalDateTime highWaterMark;
+    private long recordCount;
+    private String fileName;
+    private LocalDateTime generatedAt;
+    
+    public static class Builder {
+        private String exportType;
+        private LocalDateTime since;
+        private LocalDateTime highWaterMark;
+        private long recordCount;
+        private String fileName;
+        private LocalDateTime generatedAt;
+        
+        public Builder exportType(String exportType) {
+            this.exportType = exportType;
+            return this;
+        }
+        
+        public Builder since(LocalDateTime since) {
+            this.since = since;
+            return this;
+        }
+        
+        public Builder highWaterMark(LocalDateTime highWaterMark) {
+            this.highWaterMark = highWaterMark;
+            return this;
+        }
+        
+        public Builder recordCount(long recordCount) {
+            this.recordCount = recordCount;
+            return this;
+        }
+        
+        public Builder fileName(String fileName) {
+            this.fileName = fileName;
+            return this;
+        }
+        
+        public Builder generatedAt(LocalDateTime generatedAt) {
+            this.generatedAt = generatedAt;
+            return this;
+        }
+        
+        public ExportManifest build() {
+            ExportManifest manifest = new ExportManifest();
+            manifest.exportType = this.exportType;
+            manifest.since = this.since;
+            manifest.highWaterMark = this.highWaterMark;
+            manifest.recordCount = this.recordCount;
+            manifest.fileName = this.fileName;
+            manifest.generatedAt = this.generatedAt != null ? this.generatedAt : LocalDateTime.now();
+            return manifest;
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public String toJson() {
+        return "{\n"
+                + "  \"exportType\": " + quote(exportType) + ",\n"
+                + "  \"since\": " + quote(since) + ",\n"
+                + "  \"highWaterMark\": " + quote(highWaterMark) + ",\n"
+                + "  \"recordCount\": " + recordCount + ",\n"
+                + "  \"fileName\": " + quote(fileName) + ",\n"
+                + "  \"generatedAt\": " + quote(generatedAt) + "\n"
+                + "}\n";
+    }
+    
+    private static String quote(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.toString().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+    
+    public String getExportType() {
+        return exportType;
+    }
+    
+    public LocalDateTime getSince() {
+        return since;
+    }
+    
+    public LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.example.csvbatch.exception;
+
+public class ExportCancelledException extends CsvProcessingException {
+    
+    public ExportCancelledException(String message) {
+        super("EXPORT_CANCELLED", message);
+    }
+}
\ No newline at end of file
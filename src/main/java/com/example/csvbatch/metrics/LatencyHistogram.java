@@ -0,0 +1,109 @@
+package com.example.csvbatch.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-linear latency histogram in the style of HdrHistogram: every power of two is split into
+// 32 linear sub-buckets, so a percentile is within about 3% of the recorded value. Recording is
+// two atomic increments and never allocates, so it can sit on per-row and per-call paths.
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // 2^37 ns is a little over two minutes; slower samples land in the last bucket.
+    private static final int MAX_EXPONENT = 37;
+    private static final long MAX_TRACKABLE_NANOS = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong maxNanos = new AtomicLong();
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(Math.min(value, MAX_TRACKABLE_NANOS)));
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+    
+    // Buckets are copied one by one while recording goes on, so a concurrent sample may or may
+    // not be included; the copy itself never changes afterwards.
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, maxNanos.get());
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+    
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+    
+    public static class Snapshot {
+        private final long[] counts;
+        private final long maxNanos;
+        private final long totalCount;
+        
+        private Snapshot(long[] counts, long maxNanos) {
+            this.counts = counts;
+            this.maxNanos = maxNanos;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            this.totalCount = total;
+        }
+        
+        // Only what was recorded after the baseline was taken, e.g. during one export job.
+        public Snapshot since(Snapshot baseline) {
+            long[] delta = new long[counts.length];
+            int highest = -1;
+            for (int i = 0; i < counts.length; i++) {
+                delta[i] = Math.max(0, counts[i] - baseline.counts[i]);
+                if (delta[i] > 0) {
+                    highest = i;
+                }
+            }
+            // The exact maximum of the interval is not kept; its bucket bounds it from above.
+            return new Snapshot(delta, highest < 0 ? 0 : Math.min(maxNanos, bucketUpperBound(highest)));
+        }
+        
+        public long getCount() {
+            return totalCount;
+        }
+        
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+        
+        // Reported as the upper bound of the bucket holding the percentile, never above the max.
+        public long getValueAtPercentile(double percentile) {
+            if (totalCount == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+}
\ No newline at end of file
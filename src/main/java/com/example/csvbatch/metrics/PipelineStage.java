@@ -0,0 +1,26 @@
+package com.example.csvbatch.metrics;
+
+public enum PipelineStage {
+    // One fetch-size batch of rows pulled from the result set
+    DB_FETCH("db.fetch"),
+    // One single-employee SOAP request attempt; each retry is a sample of its own
+    SOAP_CALL("soap.call"),
+    // One batch SOAP request attempt, whatever the number of employees in it
+    SOAP_BATCH_CALL("soap.batch.call"),
+    // One row turned into CSV bytes
+    CSV_ENCODE("csv.encode"),
+    // One buffer written to the local export file
+    LOCAL_WRITE("local.write"),
+    // One multipart upload part including its retries
+    PART_UPLOAD("upload.part");
+    
+    private final String metricName;
+    
+    PipelineStage(String metricName) {
+        this.metricName = metricName;
+    }
+    
+    public String getMetricName() {
+        return metricName;
+    }
+}
\ No newline at end of file
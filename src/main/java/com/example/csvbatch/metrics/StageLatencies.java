@@ -0,0 +1,68 @@
+package com.example.csvbatch.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+// Latency percentiles of every export pipeline stage at one point in time.
+public class StageLatencies {
+    
+    private final Map<PipelineStage, LatencyHistogram.Snapshot> snapshots;
+    
+    private StageLatencies(Map<PipelineStage, LatencyHistogram.Snapshot> snapshots) {
+        this.snapshots = snapshots;
+    }
+    
+    public static StageLatencies capture(Map<PipelineStage, LatencyHistogram> histograms) {
+        Map<PipelineStage, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(PipelineStage.class);
+        histograms.forEach((stage, histogram) -> snapshots.put(stage, histogram.snapshot()));
+        return new StageLatencies(snapshots);
+    }
+    
+    public StageLatencies since(StageLatencies baseline) {
+        Map<PipelineStage, LatencyHistogram.Snapshot> delta = new EnumMap<>(PipelineStage.class);
+        snapshots.forEach((stage, snapshot) -> {
+            LatencyHistogram.Snapshot before = baseline.snapshots.get(stage);
+            delta.put(stage, before != null ? snapshot.since(before) : snapshot);
+        });
+        return new StageLatencies(delta);
+    }
+    
+    public LatencyHistogram.Snapshot get(PipelineStage stage) {
+        return snapshots.get(stage);
+    }
+    
+    // Stage name -> count, p50_ms, p99_ms, p999_ms and max_ms, in pipeline order.
+    public Map<String, Object> toMap() {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        snapshots.forEach((stage, snapshot) -> {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", snapshot.getCount());
+            values.put("p50_ms", millis(snapshot.getValueAtPercentile(50.0)));
+            values.put("p99_ms", millis(snapshot.getValueAtPercentile(99.0)));
+            values.put("p999_ms", millis(snapshot.getValueAtPercentile(99.9)));
+            values.put("max_ms", millis(snapshot.getMaxNanos()));
+            stages.put(stage.getMetricName(), values);
+        });
+        return stages;
+    }
+    
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ");
+        snapshots.forEach((stage, snapshot) -> {
+            if (snapshot.getCount() > 0) {
+                joiner.add(stage.getMetricName() + " p50=" + millis(snapshot.getValueAtPercentile(50.0))
+                        + "ms p99=" + millis(snapshot.getValueAtPercentile(99.0))
+                        + "ms p999=" + millis(snapshot.getValueAtPercentile(99.9))
+                        + "ms (n=" + snapshot.getCount() + ")");
+            }
+        });
+        return joiner.toString();
+    }
+    
+    static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
\ No newline at end of file
@@ -2,24 +2,44 @@ package com.example.csvbatch.repository;
 
 import com.example.csvbatch.entity.Employee;
 import com.example.csvbatch.exception.DataProcessingException;
+import com.example.csvbatch.metrics.LatencyHistogram;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 
 import javax.sql.DataSource;
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @ApplicationScoped
 public class EmployeeRepository {
     
     private static final Logger LOGGER = Logger.getLogger(EmployeeRepository.class.getName());
     
+    private static final Employee END_OF_PARTITION = new Employee();
+    
+    private static final long PARTITION_POLL_MS = 100;
+    
     private static final String SELECT_ALL_EMPLOYEES = 
         "SELECT employee_id, employee_name, department, email, hire_date, salary " +
         "FROM employees ORDER BY employee_id";
@@ -28,12 +48,49 @@ public class EmployeeRepository {
         "SELECT employee_id, employee_name, department, email, hire_date, salary " +
         "FROM employees WHERE employee_id = ?";
     
+    private static final String SELECT_EMPLOYEES_AFTER_KEY = 
+        "SELECT employee_id, employee_name, department, email, hire_date, salary " +
+        "FROM employees WHERE employee_id > ? ORDER BY employee_id FETCH FIRST ? ROWS ONLY";
+    
+    private static final String SELECT_EMPLOYEES_IN_RANGE = 
+        "SELECT employee_id, employee_name, department, email, hire_date, salary " +
+        "FROM employees WHERE employee_id BETWEEN ? AND ? ORDER BY employee_id";
+    
+    private static final String SELECT_EMPLOYEE_ID_RANGE = 
+        "SELECT MIN(employee_id), MAX(employee_id) FROM employees";
+    
+    private static final String SELECT_EMPLOYEES_MODIFIED_SINCE = 
+        "SELECT employee_id, employee_name, department, email, hire_date, salary " +
+        "FROM employees WHERE updated_at > ? AND employee_id > ? ORDER BY employee_id";
+    
+    private static final String SELECT_EMPLOYEES_AFTER = 
+        "SELECT employee_id, employee_name, department, email, hire_date, salary " +
+        "FROM employees WHERE employee_id > ? ORDER BY employee_id";
+    
+    private static final String SELECT_LATEST_MODIFICATION = 
+        "SELECT MAX(updated_at) FROM employees";
+    
     private static final String COUNT_EMPLOYEES = 
         "SELECT COUNT(*) FROM employees";
     
     @Inject
     private DataSource dataSource;
     
+    @Inject
+    @ConfigProperty(name = "datasource.fetchSize", defaultValue = "1000")
+    private int fetchSize;
+    
+    @Inject
+    @ConfigProperty(name = "datasource.scan.partitions", defaultValue = "1")
+    private int scanPartitions;
+    
+    @Inject
+    @ConfigProperty(name = "datasource.connectionPooling.maxPoolSize", defaultValue = "10")
+    private int maxPoolSize;
+    
+    // One sample per fetch-size batch of rows, i.e. roughly one driver round trip each
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    
     @Retry(maxRetries = 3, delay = 1000)
     @Counted(name = "employee.repository.findAll.count")
     @Timed(name = "employee.repository.findAll.time")
@@ -41,11 +98,24 @@ public class EmployeeRepository {
         List<Employee> employees = new ArrayList<>();
         
         try (Connection connection = dataSource.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SELECT_ALL_EMPLOYEES);
-             ResultSet resultSet = statement.executeQuery()) {
+             PreparedStatement statement = connection.prepareStatement(SELECT_ALL_EMPLOYEES)) {
+            
+            statement.setFetchSize(fetchSize);
             
-            while (resultSet.next()) {
-                employees.add(mapResultSetToEmployee(resultSet));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                int batchSize = Math.max(1, fetchSize);
+                long batchStart = System.nanoTime();
+                while (resultSet.next()) {
+                    employees.add(mapResultSetToEmployee(resultSet));
+                    if (employees.size() % batchSize == 0) {
+                        long now = System.nanoTime();
+                        fetchLatency.record(now - batchStart);
+                        batchStart = now;
+                    }
+                }
+                if (employees.size() % batchSize != 0) {
+                    fetchLatency.record(System.nanoTime() - batchStart);
+                }
             }
             
             LOGGER.info("Retrieved " + employees.size() + " employees from database");
@@ -57,6 +127,255 @@ public class EmployeeRepository {
         }
     }
     
+    @Counted(name = "employee.repository.streamAll.count")
+    @Timed(name = "employee.repository.streamAll.time")
+    public long streamAll(Consumer<Employee> consumer) {
+        int partitions = getScanPartitions();
+        if (partitions > 1) {
+            return streamAllPartitioned(consumer, partitions);
+        }
+        
+        long rowCount = drain(streamEmployees(), consumer);
+        
+        LOGGER.info("Streamed " + rowCount + " employees from database");
+        return rowCount;
+    }
+    
+    // The caller must close the stream; that releases the cursor and the connection.
+    public Stream<Employee> streamEmployees() {
+        return openStream(SELECT_ALL_EMPLOYEES);
+    }
+    
+    @Counted(name = "employee.repository.streamModifiedSince.count")
+    @Timed(name = "employee.repository.streamModifiedSince.time")
+    public long streamModifiedSince(LocalDateTime since, Consumer<Employee> consumer) {
+        return streamModifiedSince(since, null, consumer);
+    }
+    
+    // Resumes a delta scan after the last employee a checkpoint recorded.
+    @Counted(name = "employee.repository.streamModifiedSince.count")
+    @Timed(name = "employee.repository.streamModifiedSince.time")
+    public long streamModifiedSince(LocalDateTime since, Long afterEmployeeId, Consumer<Employee> consumer) {
+        long rowCount = drain(openStream(SELECT_EMPLOYEES_MODIFIED_SINCE, Timestamp.valueOf(since),
+                afterEmployeeId != null ? afterEmployeeId : Long.MIN_VALUE), consumer);
+        
+        LOGGER.info("Streamed " + rowCount + " employees modified since " + since
+                + (afterEmployeeId != null ? " after employee " + afterEmployeeId : ""));
+        return rowCount;
+    }
+    
+    // Resumes a full scan after the last employee a checkpoint recorded.
+    @Counted(name = "employee.repository.streamAll.count")
+    @Timed(name = "employee.repository.streamAll.time")
+    public long streamAfter(Long afterEmployeeId, Consumer<Employee> consumer) {
+        if (afterEmployeeId == null) {
+            return streamAll(consumer);
+        }
+        
+        long rowCount = drain(openStream(SELECT_EMPLOYEES_AFTER, afterEmployeeId), consumer);
+        
+        LOGGER.info("Streamed " + rowCount + " employees after employee " + afterEmployeeId);
+        return rowCount;
+    }
+    
+    @Retry(maxRetries = 3, delay = 1000)
+    public LocalDateTime findLatestModification() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_LATEST_MODIFICATION);
+             ResultSet resultSet = statement.executeQuery()) {
+            
+            if (resultSet.next()) {
+                Timestamp latest = resultSet.getTimestamp(1);
+                return latest != null ? latest.toLocalDateTime() : null;
+            }
+            return null;
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read latest employee modification", e);
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to read latest employee modification", e);
+        }
+    }
+    
+    public Stream<Employee> streamEmployees(KeyRange range) {
+        return openStream(SELECT_EMPLOYEES_IN_RANGE, range.getFromId(), range.getToId());
+    }
+    
+    // Even split of [min, max]; employee ids are sequence-generated so this stays
+    // close to equal row counts without a sampling query.
+    public List<KeyRange> partitionKeyRange(int partitions) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_EMPLOYEE_ID_RANGE);
+             ResultSet resultSet = statement.executeQuery()) {
+            
+            List<KeyRange> ranges = new ArrayList<>(partitions);
+            if (!resultSet.next()) {
+                return ranges;
+            }
+            
+            long minId = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                return ranges;
+            }
+            long maxId = resultSet.getLong(2);
+            
+            long step = (maxId - minId) / partitions + 1;
+            for (long fromId = minId; fromId <= maxId; fromId += step) {
+                ranges.add(new KeyRange(fromId, Math.min(maxId, fromId + step - 1)));
+                if (maxId - fromId < step) {
+                    break;
+                }
+            }
+            return ranges;
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read employee id range", e);
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to partition employee data", e);
+        }
+    }
+    
+    public LatencyHistogram getFetchLatency() {
+        return fetchLatency;
+    }
+    
+    public int getScanPartitions() {
+        // Leave one connection for health checks and single-row lookups.
+        return Math.max(1, Math.min(scanPartitions, maxPoolSize - 1));
+    }
+    
+    // Each partition is read on its own pooled connection into a bounded queue.
+    // Partitions are drained in key order, so the consumer still sees rows in
+    // global employee_id order while later partitions read ahead in parallel.
+    // Partitions do not share a snapshot; rows committed mid-scan may or may not appear.
+    private long streamAllPartitioned(Consumer<Employee> consumer, int partitions) {
+        List<KeyRange> ranges = partitionKeyRange(partitions);
+        LOGGER.info("Streaming employees with " + ranges.size() + " parallel range partitions");
+        
+        List<BlockingQueue<Employee>> queues = new ArrayList<>(ranges.size());
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long rowCount = 0;
+        
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (KeyRange range : ranges) {
+                BlockingQueue<Employee> queue = new ArrayBlockingQueue<>(fetchSize);
+                queues.add(queue);
+                executor.submit(() -> readPartition(range, queue, cancelled, failure));
+            }
+            
+            for (BlockingQueue<Employee> queue : queues) {
+                while (true) {
+                    Employee employee = queue.poll(PARTITION_POLL_MS, TimeUnit.MILLISECONDS);
+                    throwIfFailed(failure.get());
+                    if (employee == null) {
+                        continue;
+                    }
+                    if (employee == END_OF_PARTITION) {
+                        break;
+                    }
+                    consumer.accept(employee);
+                    rowCount++;
+                }
+            }
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Partitioned employee scan was interrupted", e);
+        } finally {
+            cancelled.set(true);
+            executor.shutdownNow();
+            executor.close();
+        }
+        
+        LOGGER.info("Streamed " + rowCount + " employees from database across " + ranges.size() + " partitions");
+        return rowCount;
+    }
+    
+    private void throwIfFailed(Throwable partitionFailure) {
+        if (partitionFailure == null) {
+            return;
+        }
+        if (partitionFailure instanceof DataProcessingException) {
+            throw (DataProcessingException) partitionFailure;
+        }
+        throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to stream employee data", partitionFailure);
+    }
+    
+    private void readPartition(KeyRange range, BlockingQueue<Employee> queue,
+                               AtomicBoolean cancelled, AtomicReference<Throwable> failure) {
+        try (Stream<Employee> employees = streamEmployees(range)) {
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                if (!offer(queue, iterator.next(), cancelled)) {
+                    return;
+                }
+            }
+            offer(queue, END_OF_PARTITION, cancelled);
+        } catch (Throwable t) {
+            if (!cancelled.get()) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+    
+    private boolean offer(BlockingQueue<Employee> queue, Employee employee, AtomicBoolean cancelled) {
+        try {
+            while (!queue.offer(employee, PARTITION_POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private long drain(Stream<Employee> stream, Consumer<Employee> consumer) {
+        long rowCount = 0;
+        
+        try (Stream<Employee> employees = stream) {
+            Iterator<Employee> iterator = employees.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                rowCount++;
+            }
+        }
+        return rowCount;
+    }
+    
+    private Stream<Employee> openStream(String query, Object... parameters) {
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            
+            // PostgreSQL only uses a server-side cursor (and honours the fetch size)
+            // inside a transaction; Oracle streams either way.
+            boolean autoCommit = connection.getAutoCommit();
+            if (autoCommit) {
+                connection.setAutoCommit(false);
+            }
+            
+            PreparedStatement statement = connection.prepareStatement(query,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.setFetchSize(fetchSize);
+            ResultSet resultSet = statement.executeQuery();
+            
+            Connection streamConnection = connection;
+            return StreamSupport.stream(new ResultSetSpliterator(resultSet), false)
+                    .onClose(() -> closeStream(streamConnection, statement, resultSet, autoCommit));
+            
+        } catch (SQLException e) {
+            closeQuietly(connection);
+            LOGGER.log(Level.SEVERE, "Failed to stream employees from database", e);
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to stream employee data", e);
+        }
+    }
+    
     @Retry(maxRetries = 3, delay = 1000)
     public Employee findById(Long employeeId) {
         try (Connection connection = dataSource.getConnection();
@@ -106,6 +425,47 @@ public class EmployeeRepository {
         }
     }
     
+    // Seeks past the last key instead of skipping rows, so every page costs the same
+    // regardless of depth. Pass null for the first page, then Page.getNextKey().
+    @Retry(maxRetries = 3, delay = 1000)
+    @Counted(name = "employee.repository.findPage.count")
+    @Timed(name = "employee.repository.findPage.time")
+    public Page findPageAfter(Long afterEmployeeId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        
+        List<Employee> employees = new ArrayList<>(Math.min(limit, fetchSize) + 1);
+        
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_EMPLOYEES_AFTER_KEY)) {
+            
+            // One extra row tells us whether another page exists without a second query.
+            statement.setLong(1, afterEmployeeId != null ? afterEmployeeId : Long.MIN_VALUE);
+            statement.setInt(2, limit + 1);
+            statement.setFetchSize(Math.min(limit + 1, fetchSize));
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    employees.add(mapResultSetToEmployee(resultSet));
+                }
+            }
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to retrieve employee page after key " + afterEmployeeId, e);
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to retrieve employee data", e);
+        }
+        
+        Long nextKey = null;
+        if (employees.size() > limit) {
+            employees.remove(limit);
+            nextKey = employees.get(limit - 1).getEmployeeId();
+        }
+        
+        LOGGER.fine("Retrieved " + employees.size() + " employees after key " + afterEmployeeId);
+        return new Page(employees, nextKey);
+    }
+    
     @Retry(maxRetries = 3, delay = 1000)
     public int countEmployees() {
         try (Connection connection = dataSource.getConnection();
@@ -139,6 +499,114 @@ public class EmployeeRepository {
         }
     }
     
+    private void closeStream(Connection connection, PreparedStatement statement, ResultSet resultSet,
+                             boolean autoCommit) {
+        try {
+            resultSet.close();
+            statement.close();
+            connection.rollback();
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to release employee stream cursor", e);
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+    
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Failed to close database connection", e);
+        }
+    }
+    
+    private class ResultSetSpliterator extends Spliterators.AbstractSpliterator<Employee> {
+        private final ResultSet resultSet;
+        // Time spent in the driver for the current batch; the consumer's time is left out.
+        private long batchNanos;
+        private int batchRows;
+        
+        ResultSetSpliterator(ResultSet resultSet) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.resultSet = resultSet;
+        }
+        
+        @Override
+        public boolean tryAdvance(Consumer<? super Employee> action) {
+            try {
+                long start = System.nanoTime();
+                boolean hasRow = resultSet.next();
+                Employee employee = hasRow ? mapResultSetToEmployee(resultSet) : null;
+                batchNanos += System.nanoTime() - start;
+                
+                if (hasRow ? ++batchRows >= fetchSize : batchNanos > 0) {
+                    fetchLatency.record(batchNanos);
+                    batchNanos = 0;
+                    batchRows = 0;
+                }
+                if (!hasRow) {
+                    return false;
+                }
+                action.accept(employee);
+                return true;
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Failed to stream employees from database", e);
+                throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to stream employee data", e);
+            }
+        }
+    }
+    
+    public static class KeyRange {
+        private final long fromId;
+        private final long toId;
+        
+        public KeyRange(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+        
+        public long getFromId() {
+            return fromId;
+        }
+        
+        public long getToId() {
+            return toId;
+        }
+        
+        @Override
+        public String toString() {
+            return "[" + fromId + ", " + toId + "]";
+        }
+    }
+    
+    public static class Page {
+        private final List<Employee> employees;
+        private final Long nextKey;
+        
+        public Page(List<Employee> employees, Long nextKey) {
+            this.employees = employees;
+            this.nextKey = nextKey;
+        }
+        
+        public List<Employee> getEmployees() {
+            return employees;
+        }
+        
+        public Long getNextKey() {
+            return nextKey;
+        }
+        
+        public boolean hasNext() {
+            return nextKey != null;
+        }
+    }
+    
     private Employee mapResultSetToEmployee(ResultSet resultSet) throws SQLException {
         Employee employee = new Employee();
         employee.setEmployeeId(resultSet.getLong("employee_id"));
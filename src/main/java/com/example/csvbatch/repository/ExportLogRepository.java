@@ -0,0 +1,74 @@
+package com.example.csvbatch.repository;
+
+import com.example.csvbatch.exception.DataProcessingException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.faulttolerance.Retry;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@ApplicationScoped
+public class ExportLogRepository {
+    
+    private static final Logger LOGGER = Logger.getLogger(ExportLogRepository.class.getName());
+    
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    
+    private static final String SELECT_LAST_HIGH_WATER_MARK = 
+        "SELECT MAX(high_water_mark) FROM csv_export_log WHERE status = ?";
+    
+    private static final String INSERT_EXPORT_LOG = 
+        "INSERT INTO csv_export_log (export_date, employee_count, file_name, status, export_type, high_water_mark) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    @Inject
+    private DataSource dataSource;
+    
+    @Retry(maxRetries = 3, delay = 1000)
+    public LocalDateTime findLastHighWaterMark() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_LAST_HIGH_WATER_MARK)) {
+            
+            statement.setString(1, STATUS_SUCCESS);
+            
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    Timestamp highWaterMark = resultSet.getTimestamp(1);
+                    return highWaterMark != null ? highWaterMark.toLocalDateTime() : null;
+                }
+            }
+            return null;
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to read export high-water mark", e);
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to read export high-water mark", e);
+        }
+    }
+    
+    @Retry(maxRetries = 3, delay = 1000)
+    public void recordExport(String exportType, long employeeCount, String fileName, String status,
+                             LocalDateTime highWaterMark) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(INSERT_EXPORT_LOG)) {
+            
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setLong(2, employeeCount);
+            statement.setString(3, fileName);
+            statement.setString(4, status);
+            statement.setString(5, exportType);
+            statement.setTimestamp(6, highWaterMark != null ? Timestamp.valueOf(highWaterMark) : null);
+            statement.executeUpdate();
+            
+            LOGGER.info("Recorded " + exportType + " export of " + employeeCount + " employees (high-water mark: "
+                    + highWaterMark + ")");
+            
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to record export log entry", e);
+            throw new DataProcessingException("DB_CONNECTION_ERROR", "Failed to record export log entry", e);
+        }
+    }
+}
\ No newline at end of file
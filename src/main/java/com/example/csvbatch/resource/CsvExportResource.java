@@ -1,19 +1,37 @@
 package com.example.csvbatch.resource;
 
-import com.example.csvbatch.service.CsvExportService;
+import com.example.csvbatch.client.CacheMode;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.service.CsvCompression;
+import com.example.csvbatch.service.CsvFilePage;
+import com.example.csvbatch.service.ExportJob;
+import com.example.csvbatch.service.ExportJobService;
+import com.example.csvbatch.service.ExportMode;
+import com.example.csvbatch.service.ExportProgress;
 import com.example.csvbatch.service.ObjectStorageService;
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.model.Range;
+import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 @Path("/api/csv")
@@ -23,49 +41,218 @@ import java.util.logging.Logger;
 public class CsvExportResource {
     
     private static final Logger LOGGER = Logger.getLogger(CsvExportResource.class.getName());
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
     
     @Inject
-    private CsvExportService csvExportService;
+    private ObjectStorageService objectStorageService;
     
     @Inject
-    private ObjectStorageService objectStorageService;
+    private ExportJobService exportJobService;
     
     @POST
     @Path("/export")
     @Counted(name = "csv.export.api.calls")
     @Timed(name = "csv.export.api.duration")
-    public Response exportCsv() {
+    public Response exportCsv(@QueryParam("cache") @DefaultValue("use") String cache,
+                              @QueryParam("mode") @DefaultValue("full") String mode,
+                              @QueryParam("wait") @DefaultValue("false") boolean wait) {
+        CacheMode cacheMode;
         try {
-            LOGGER.info("Received CSV export request via API");
-            
-            String objectName = csvExportService.exportEmployeesToCsv();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "CSV export completed successfully");
-            response.put("timestamp", LocalDateTime.now().toString());
-            response.put("outputLocation", objectName);
-            
-            if (objectName != null && objectName.startsWith("exports/")) {
-                response.put("downloadUrl", objectStorageService.getObjectUrl(objectName));
-            }
-            
-            return Response.ok(response).build();
-            
-        } catch (Exception e) {
-            LOGGER.severe("CSV export API failed: " + e.getMessage());
+            cacheMode = CacheMode.valueOf(cache.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return badRequest("Invalid cache mode: " + cache + " (expected use, refresh or bypass)");
+        }
+        
+        ExportMode exportMode;
+        try {
+            exportMode = ExportMode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return badRequest("Invalid export mode: " + mode + " (expected full or delta)");
+        }
+        
+        if (!wait) {
+            LOGGER.info("Received async CSV export request via API (mode: " + exportMode + ", cache: " + cacheMode + ")");
+            return submitJob(() -> exportJobService.submitExport(cacheMode, exportMode));
+        }
+        
+        LOGGER.info("Received CSV export request via API (mode: " + exportMode + ", cache: " + cacheMode + ")");
+        return awaitJob(() -> exportJobService.submitExport(cacheMode, exportMode),
+                "CSV export completed successfully", "CSV export failed");
+    }
+    
+    @POST
+    @Path("/export/resume")
+    @Counted(name = "csv.export.resume.api.calls")
+    @Timed(name = "csv.export.resume.api.duration")
+    public Response resumeExport(@QueryParam("wait") @DefaultValue("false") boolean wait) {
+        if (!wait) {
+            LOGGER.info("Received async CSV export resume request via API");
+            return submitJob(exportJobService::submitResume);
+        }
+        
+        LOGGER.info("Received CSV export resume request via API");
+        return awaitJob(exportJobService::submitResume,
+                "CSV export resumed and completed successfully", "CSV export resume failed");
+    }
+    
+    @GET
+    @Path("/jobs/{jobId}")
+    public Response getJob(@PathParam("jobId") String jobId) {
+        ExportJob job = exportJobService.getJob(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
+        }
+        
+        return Response.ok(toJobResponse(job)).build();
+    }
+    
+    @DELETE
+    @Path("/jobs/{jobId}")
+    public Response cancelJob(@PathParam("jobId") String jobId) {
+        ExportJob job = exportJobService.cancelJob(jobId);
+        if (job == null) {
+            return jobNotFound(jobId);
+        }
+        
+        Map<String, Object> response = toJobResponse(job);
+        response.put("message", job.isFinished()
+                ? "Export job already finished"
+                : "Cancellation requested");
+        
+        return Response.status(job.isFinished() ? Response.Status.CONFLICT : Response.Status.ACCEPTED)
+                .entity(response)
+                .build();
+    }
+    
+    private Response submitJob(Supplier<ExportJob> submission) {
+        try {
+            ExportJob job = submission.get();
             
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("status", "error");
-            errorResponse.put("message", "CSV export failed: " + e.getMessage());
-            errorResponse.put("timestamp", LocalDateTime.now().toString());
+            Map<String, Object> response = toJobResponse(job);
+            response.put("statusUrl", "/api/csv/jobs/" + job.getId());
             
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                    .entity(errorResponse)
+            return Response.status(Response.Status.ACCEPTED)
+                    .entity(response)
                     .build();
+            
+        } catch (CsvProcessingException e) {
+            return jobRejected(e);
         }
     }
     
+    // Synchronous requests go through the job service too, so they are never run beside a job
+    // that shares the working file and checkpoint.
+    private Response awaitJob(Supplier<ExportJob> submission, String successMessage, String failureMessage) {
+        ExportJob job;
+        try {
+            job = submission.get();
+            job.awaitFinished();
+        } catch (CsvProcessingException e) {
+            return jobRejected(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return exportFailed(failureMessage + ": interrupted while waiting for the export", null);
+        }
+        
+        if (job.getState() != ExportJob.State.SUCCEEDED) {
+            String error = job.getState() == ExportJob.State.CANCELLED ? "Export was cancelled" : job.getErrorMessage();
+            LOGGER.severe(failureMessage + ": " + error);
+            return exportFailed(failureMessage + ": " + error, job.getId());
+        }
+        
+        String objectName = job.getOutputLocation();
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("message", successMessage);
+        response.put("jobId", job.getId());
+        response.put("timestamp", LocalDateTime.now().toString());
+        response.put("outputLocation", objectName);
+        if (job.getProgress().getStageLatencies() != null) {
+            response.put("stageLatencies", job.getProgress().getStageLatencies().toMap());
+        }
+        
+        if (objectName != null && objectName.startsWith("exports/")) {
+            response.put("downloadUrl", objectStorageService.getObjectUrl(objectName));
+        }
+        
+        return Response.ok(response).build();
+    }
+    
+    private Response jobRejected(CsvProcessingException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", "error");
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("errorCode", e.getErrorCode());
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        
+        Response.Status status = "NO_CHECKPOINT".equals(e.getErrorCode())
+                ? Response.Status.NOT_FOUND
+                : Response.Status.CONFLICT;
+        return Response.status(status)
+                .entity(errorResponse)
+                .build();
+    }
+    
+    private Response exportFailed(String message, String jobId) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", "error");
+        errorResponse.put("message", message);
+        if (jobId != null) {
+            errorResponse.put("jobId", jobId);
+        }
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity(errorResponse)
+                .build();
+    }
+    
+    static Map<String, Object> toJobResponse(ExportJob job) {
+        ExportProgress progress = job.getProgress();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("state", job.getState().name());
+        response.put("submittedAt", job.getSubmittedAt().toString());
+        response.put("finishedAt", job.getFinishedAt() != null ? job.getFinishedAt().toString() : null);
+        response.put("rowsRead", progress.getRowsRead());
+        response.put("rowsEnriched", progress.getRowsEnriched());
+        response.put("rowsWritten", progress.getRowsWritten());
+        response.put("totalRows", progress.getTotalRows());
+        response.put("bytesUploaded", progress.getBytesUploaded());
+        response.put("rowsPerSecond", Math.round(job.getRowsPerSecond() * 10) / 10.0);
+        response.put("etaSeconds", job.getEtaSeconds());
+        response.put("outputLocation", job.getOutputLocation());
+        response.put("error", job.getErrorMessage());
+        response.put("stageLatencies", progress.getStageLatencies() != null
+                ? progress.getStageLatencies().toMap()
+                : null);
+        response.put("timestamp", LocalDateTime.now().toString());
+        return response;
+    }
+    
+    private Response jobNotFound(String jobId) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", "error");
+        errorResponse.put("message", "Export job not found: " + jobId);
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(errorResponse)
+                .build();
+    }
+    
+    private Response badRequest(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("status", "error");
+        errorResponse.put("message", message);
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(errorResponse)
+                .build();
+    }
+    
     @GET
     @Path("/status")
     public Response getExportStatus() {
@@ -79,14 +266,20 @@ public class CsvExportResource {
     
     @GET
     @Path("/files")
-    public Response listCsvFiles() {
+    public Response listCsvFiles(@QueryParam("start") String start,
+                                 @QueryParam("limit") Integer limit) {
+        if (limit != null && limit < 1) {
+            return badRequest("Invalid limit: " + limit + " (expected a positive number)");
+        }
+        
         try {
-            List<String> csvFiles = objectStorageService.listCsvFiles();
+            CsvFilePage page = objectStorageService.listCsvFiles(start, limit);
             
             Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
-            response.put("count", csvFiles.size());
-            response.put("files", csvFiles);
+            response.put("count", page.getFiles().size());
+            response.put("files", page.getFiles());
+            response.put("nextStart", page.getNextStart());
             response.put("timestamp", LocalDateTime.now().toString());
             
             return Response.ok(response).build();
@@ -108,28 +301,175 @@ public class CsvExportResource {
     @GET
     @Path("/download/{fileName}")
     @Produces("text/csv")
-    public Response downloadCsvFile(@PathParam("fileName") String fileName) {
+    public Response downloadCsvFile(@PathParam("fileName") String fileName,
+                                    @QueryParam("decompress") @DefaultValue("false") boolean decompress,
+                                    @HeaderParam("Range") String rangeHeader,
+                                    @HeaderParam("If-None-Match") String ifNoneMatch,
+                                    @HeaderParam("If-Modified-Since") String ifModifiedSince) {
+        if (!ObjectStorageService.isCsvObject(fileName)) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("File must be a CSV file")
+                    .build();
+        }
+        
+        CsvCompression compression = CsvCompression.fromFileName(fileName);
+        String csvFileName = fileName.substring(0, fileName.length() - compression.getExtension().length());
+        
+        // A range addresses the stored bytes, so it is ignored when the file is decompressed here.
+        boolean decode = decompress && compression != CsvCompression.NONE;
+        Range range = decode ? null : parseRange(rangeHeader);
+        
+        GetObjectResponse object;
         try {
-            if (!fileName.endsWith(".csv")) {
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity("File must be a CSV file")
-                        .build();
-            }
-            
-            String csvContent = objectStorageService.downloadCsvFile(fileName);
+            object = objectStorageService.getObject(fileName, range, singleEntityTag(ifNoneMatch));
             
-            return Response.ok(csvContent)
-                    .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                    .header("Content-Type", "text/csv")
-                    .build();
-                    
         } catch (Exception e) {
             LOGGER.severe("Failed to download CSV file: " + e.getMessage());
             
+            if (statusCode(e) == 416) {
+                return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .entity("Requested range not satisfiable")
+                        .build();
+            }
             return Response.status(Response.Status.NOT_FOUND)
                     .entity("File not found or download failed")
                     .build();
         }
+        
+        // The decompressed body is a different representation of the same object, hence a weak tag.
+        EntityTag eTag = object.getETag() != null ? new EntityTag(unquote(object.getETag()), decode) : null;
+        
+        if (object.isNotModified() || isNotModified(eTag, object.getLastModified(), ifNoneMatch, ifModifiedSince)) {
+            closeQuietly(object.getInputStream());
+            return Response.notModified()
+                    .tag(eTag)
+                    .lastModified(object.getLastModified())
+                    .build();
+        }
+        
+        InputStream content = object.getInputStream();
+        StreamingOutput body = output -> {
+            try (InputStream input = decode ? compression.decompress(content) : content) {
+                byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                }
+            }
+        };
+        
+        Response.ResponseBuilder response = Response.ok(body)
+                .header("Content-Disposition", "attachment; filename=\"" + csvFileName + "\"")
+                .header("Content-Type", "text/csv")
+                .tag(eTag)
+                .lastModified(object.getLastModified());
+        
+        if (!decode) {
+            response.header("Accept-Ranges", "bytes")
+                    .header("Content-Length", object.getContentLength());
+            if (compression != CsvCompression.NONE) {
+                // Passed through still compressed; HTTP clients decode it from Content-Encoding.
+                response.header("Content-Encoding", compression.getContentEncoding());
+            }
+            
+            Range contentRange = object.getContentRange();
+            if (range != null && contentRange != null) {
+                response.status(Response.Status.PARTIAL_CONTENT)
+                        .header("Content-Range", "bytes " + contentRange.getStartByte() + "-"
+                                + contentRange.getEndByte() + "/" + contentRange.getContentLength());
+            }
+        }
+        
+        return response.build();
+    }
+    
+    // Only a single "bytes=" range is passed through; anything else is served as the full file.
+    static Range parseRange(String header) {
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        
+        try {
+            Long start = dash > 0 ? Long.parseLong(spec.substring(0, dash).trim()) : null;
+            Long end = dash < spec.length() - 1 ? Long.parseLong(spec.substring(dash + 1).trim()) : null;
+            if (start == null && end == null || start != null && end != null && start > end) {
+                return null;
+            }
+            return new Range(start, end);
+            
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    static boolean isNotModified(EntityTag eTag, Date lastModified, String ifNoneMatch, String ifModifiedSince) {
+        if (ifNoneMatch != null) {
+            if (ifNoneMatch.trim().equals("*")) {
+                return eTag != null;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                if (eTag != null && unquote(tag).equals(eTag.getValue())) {
+                    return true;
+                }
+            }
+            // If-Modified-Since is only considered when the request has no If-None-Match.
+            return false;
+        }
+        
+        if (ifModifiedSince == null || lastModified == null) {
+            return false;
+        }
+        try {
+            ZonedDateTime since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return lastModified.toInstant().getEpochSecond() <= since.toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+    
+    // Object Storage compares the tag itself, so only a single tag can be handed over to it.
+    private static String singleEntityTag(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.indexOf(',') >= 0 || ifNoneMatch.trim().equals("*")) {
+            return null;
+        }
+        return unquote(ifNoneMatch);
+    }
+    
+    private static String unquote(String tag) {
+        String value = tag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+    
+    private static int statusCode(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BmcException bmcException) {
+                return bmcException.getStatusCode();
+            }
+        }
+        return -1;
+    }
+    
+    private static void closeQuietly(InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            LOGGER.warning("Failed to close object stream: " + e.getMessage());
+        }
     }
     
     @DELETE
@@ -0,0 +1,224 @@
+package com.example.csvbatch.resource;
+
+import com.example.csvbatch.client.SoapClient;
+import com.example.csvbatch.service.ExportJob;
+import com.example.csvbatch.service.ExportJobService;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@ApplicationScoped
+public class ExportEventPublisher {
+    
+    private static final Logger LOGGER = Logger.getLogger(ExportEventPublisher.class.getName());
+    
+    static final String PROGRESS_EVENT = "progress";
+    static final String RESULT_EVENT = "result";
+    
+    @Inject
+    private ExportJobService exportJobService;
+    
+    @Inject
+    private SoapClient soapClient;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.events.interval-ms", defaultValue = "1000")
+    private long intervalMs;
+    
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final ExecutorService senderExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private final Map<String, JobFeed> feeds = new ConcurrentHashMap<>();
+    
+    public boolean subscribe(String jobId, SseEventSink sink, Sse sse) {
+        ExportJob job = exportJobService.getJob(jobId);
+        if (job == null) {
+            return false;
+        }
+        
+        Subscriber subscriber = new Subscriber(sink);
+        if (job.isFinished()) {
+            subscriber.finish(new JobFeed(job, sse).createEvent(true), senderExecutor);
+            return true;
+        }
+        
+        // One producer per job samples the counters; subscribers only ever see its snapshots.
+        JobFeed feed = feeds.compute(jobId, (id, existing) -> {
+            JobFeed jobFeed = existing != null ? existing : startFeed(job, sse);
+            jobFeed.subscribers.add(subscriber);
+            return jobFeed;
+        });
+        
+        subscriber.offer(feed.createEvent(false), senderExecutor);
+        return true;
+    }
+    
+    int getActiveFeedCount() {
+        return feeds.size();
+    }
+    
+    private JobFeed startFeed(ExportJob job, Sse sse) {
+        LOGGER.info("Starting progress event feed for export job " + job.getId());
+        
+        JobFeed feed = new JobFeed(job, sse);
+        feed.ticker = scheduler.scheduleAtFixedRate(() -> publish(feed), intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        return feed;
+    }
+    
+    private void publish(JobFeed feed) {
+        try {
+            feed.subscribers.removeIf(Subscriber::isClosed);
+            
+            if (feed.job.isFinished()) {
+                stopFeed(feed);
+                OutboundSseEvent result = feed.createEvent(true);
+                feed.subscribers.forEach(subscriber -> subscriber.finish(result, senderExecutor));
+                return;
+            }
+            
+            // Removal and subscription both go through the map, so a client that
+            // subscribes concurrently either keeps this feed alive or starts a new one.
+            feeds.computeIfPresent(feed.job.getId(),
+                    (id, existing) -> existing == feed && feed.subscribers.isEmpty() ? null : existing);
+            if (feeds.get(feed.job.getId()) != feed) {
+                stopFeed(feed);
+                return;
+            }
+            
+            OutboundSseEvent event = feed.createEvent(false);
+            feed.subscribers.forEach(subscriber -> subscriber.offer(event, senderExecutor));
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to publish progress for export job " + feed.job.getId(), e);
+        }
+    }
+    
+    private void stopFeed(JobFeed feed) {
+        feeds.remove(feed.job.getId(), feed);
+        feed.ticker.cancel(false);
+        LOGGER.info("Stopped progress event feed for export job " + feed.job.getId());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        feeds.values().forEach(feed -> feed.subscribers.forEach(Subscriber::close));
+        feeds.clear();
+        senderExecutor.shutdown();
+    }
+    
+    private class JobFeed {
+        private final ExportJob job;
+        private final Sse sse;
+        private final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicLong sequence = new AtomicLong();
+        private volatile ScheduledFuture<?> ticker;
+        
+        JobFeed(ExportJob job, Sse sse) {
+            this.job = job;
+            this.sse = sse;
+        }
+        
+        OutboundSseEvent createEvent(boolean result) {
+            Map<String, Object> data = CsvExportResource.toJobResponse(job);
+            data.put("soapInFlight", soapClient.getLimiterInFlight());
+            
+            return sse.newEventBuilder()
+                    .id(String.valueOf(sequence.incrementAndGet()))
+                    .name(result ? RESULT_EVENT : PROGRESS_EVENT)
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(Map.class, data)
+                    .build();
+        }
+    }
+    
+    // Holds only the newest undelivered event, so a slow client skips intermediate
+    // snapshots instead of queueing them or delaying the producer and other clients.
+    private static class Subscriber {
+        private final SseEventSink sink;
+        private final AtomicReference<OutboundSseEvent> latest = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private volatile boolean closeWhenDrained;
+        
+        Subscriber(SseEventSink sink) {
+            this.sink = sink;
+        }
+        
+        void offer(OutboundSseEvent event, ExecutorService executor) {
+            if (closeWhenDrained) {
+                return;
+            }
+            latest.set(event);
+            scheduleDrain(executor);
+        }
+        
+        void finish(OutboundSseEvent event, ExecutorService executor) {
+            closeWhenDrained = true;
+            latest.set(event);
+            scheduleDrain(executor);
+        }
+        
+        boolean isClosed() {
+            return sink.isClosed();
+        }
+        
+        void close() {
+            try {
+                sink.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Failed to close event sink", e);
+            }
+        }
+        
+        private void scheduleDrain(ExecutorService executor) {
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(() -> drain(executor));
+            }
+        }
+        
+        private void drain(ExecutorService executor) {
+            try {
+                OutboundSseEvent event;
+                while ((event = latest.getAndSet(null)) != null) {
+                    if (sink.isClosed()) {
+                        return;
+                    }
+                    sink.send(event).toCompletableFuture().join();
+                }
+                
+                if (closeWhenDrained) {
+                    close();
+                }
+                
+            } catch (Exception e) {
+                LOGGER.log(Level.FINE, "Dropping progress event subscriber", e);
+                close();
+                
+            } finally {
+                draining.set(false);
+                if (latest.get() != null && !sink.isClosed()) {
+                    scheduleDrain(executor);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
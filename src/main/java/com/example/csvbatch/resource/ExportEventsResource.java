@@ -0,0 +1,33 @@
+package com.example.csvbatch.resource;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.util.logging.Logger;
+
+@Path("/api/csv/jobs/{jobId}/events")
+@RequestScoped
+public class ExportEventsResource {
+    
+    private static final Logger LOGGER = Logger.getLogger(ExportEventsResource.class.getName());
+    
+    @Inject
+    private ExportEventPublisher exportEventPublisher;
+    
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamProgress(@PathParam("jobId") String jobId,
+                               @Context SseEventSink eventSink,
+                               @Context Sse sse) {
+        LOGGER.info("Client subscribed to progress events for export job " + jobId);
+        
+        if (!exportEventPublisher.subscribe(jobId, eventSink, sse)) {
+            throw new NotFoundException("Export job not found: " + jobId);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.example.csvbatch.resource;
 
 import com.example.csvbatch.config.DatabaseConfig;
+import com.example.csvbatch.service.CsvExportService;
 import com.example.csvbatch.service.MonitoringService;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
@@ -25,6 +26,9 @@ public class MetricsResource {
     @Inject
     private DatabaseConfig databaseConfig;
     
+    @Inject
+    private CsvExportService csvExportService;
+    
     @GET
     @Path("/application")
     public Response getApplicationMetrics() {
@@ -48,6 +52,16 @@ public class MetricsResource {
         return Response.ok(dbMetrics).build();
     }
     
+    @GET
+    @Path("/pipeline")
+    public Response getPipelineMetrics() {
+        Map<String, Object> pipelineMetrics = new HashMap<>();
+        pipelineMetrics.put("stages", csvExportService.getStageLatencies().toMap());
+        pipelineMetrics.put("timestamp", LocalDateTime.now().toString());
+        
+        return Response.ok(pipelineMetrics).build();
+    }
+    
     @GET
     @Path("/summary")
     public Response getMetricsSummary() {
@@ -62,6 +76,7 @@ public class MetricsResource {
             "available_connections", dbStats.getAvailableConnections(),
             "total_connections", dbStats.getTotalConnections()
         ));
+        summary.put("pipeline", csvExportService.getStageLatencies().toMap());
         summary.put("timestamp", LocalDateTime.now().toString());
         
         return Response.ok(summary).build();
@@ -0,0 +1,104 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.example.csvbatch.metrics.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+public class CsvChannelWriter implements Closeable {
+    
+    private final DirectBufferPool bufferPool;
+    private final WritableByteChannel[] targets;
+    private final LatencyHistogram encodeLatency;
+    private final EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(1024);
+    
+    private ByteBuffer buffer;
+    private long bytesWritten;
+    
+    // Each flushed buffer is written to every target, e.g. the local file and an upload stream.
+    public CsvChannelWriter(DirectBufferPool bufferPool, WritableByteChannel... targets) {
+        this(bufferPool, new LatencyHistogram(), targets);
+    }
+    
+    // Every row encoded on its way to the targets is recorded in encodeLatency.
+    public CsvChannelWriter(DirectBufferPool bufferPool, LatencyHistogram encodeLatency,
+                            WritableByteChannel... targets) {
+        if (targets.length == 0) {
+            throw new IllegalArgumentException("At least one target channel is required");
+        }
+        this.bufferPool = bufferPool;
+        this.encodeLatency = encodeLatency;
+        this.targets = targets;
+        this.buffer = bufferPool.acquire();
+    }
+    
+    public void writeHeader() throws IOException {
+        encoder.reset();
+        encoder.encodeHeader();
+        write(encoder);
+    }
+    
+    public void write(EmployeeCsvData row) throws IOException {
+        long start = System.nanoTime();
+        encoder.reset();
+        encoder.encode(row);
+        encodeLatency.record(System.nanoTime() - start);
+        write(encoder);
+    }
+    
+    // Rows are split across buffers byte-wise; the bytes are reassembled in order on the channel.
+    public void write(EmployeeCsvEncoder encoded) throws IOException {
+        ensureOpen();
+        int offset = 0;
+        while (offset < encoded.size()) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            offset = encoded.writeTo(buffer, offset);
+        }
+    }
+    
+    public void flush() throws IOException {
+        ensureOpen();
+        buffer.flip();
+        for (WritableByteChannel target : targets) {
+            ByteBuffer view = buffer.duplicate();
+            while (view.hasRemaining()) {
+                target.write(view);
+            }
+        }
+        bytesWritten += buffer.limit();
+        buffer.clear();
+    }
+    
+    public LatencyHistogram getEncodeLatency() {
+        return encodeLatency;
+    }
+    
+    public long getBytesWritten() {
+        return bytesWritten + (buffer != null ? buffer.position() : 0);
+    }
+    
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("CSV channel writer is closed");
+        }
+    }
+    
+    // Flushes pending rows but leaves the target channels open; their owner closes them.
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            bufferPool.release(buffer);
+            buffer = null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.exception.CsvProcessingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+public enum CsvCompression {
+    NONE("", null),
+    GZIP(".gz", "gzip");
+    
+    private final String extension;
+    private final String contentEncoding;
+    
+    CsvCompression(String extension, String contentEncoding) {
+        this.extension = extension;
+        this.contentEncoding = contentEncoding;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+    
+    public String fileName(String csvFileName) {
+        return csvFileName + extension;
+    }
+    
+    public InputStream decompress(InputStream inputStream) throws IOException {
+        return this == GZIP ? new GZIPInputStream(inputStream, 64 * 1024) : inputStream;
+    }
+    
+    public static CsvCompression fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new CsvProcessingException("UNSUPPORTED_COMPRESSION", "Unsupported CSV compression: " + name);
+        }
+    }
+    
+    public static CsvCompression fromFileName(String fileName) {
+        return fileName.endsWith(".csv" + GZIP.extension) ? GZIP : NONE;
+    }
+}
\ No newline at end of file
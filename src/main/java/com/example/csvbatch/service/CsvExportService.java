@@ -1,23 +1,44 @@
 package com.example.csvbatch.service;
 
+import com.example.csvbatch.client.CacheMode;
 import com.example.csvbatch.client.SoapClient;
 import com.example.csvbatch.dto.EmployeeCsvData;
 import com.example.csvbatch.dto.EmployeeDetails;
+import com.example.csvbatch.dto.ExportManifest;
 import com.example.csvbatch.entity.Employee;
 import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.exception.ExportCancelledException;
+import com.example.csvbatch.metrics.LatencyHistogram;
+import com.example.csvbatch.metrics.PipelineStage;
+import com.example.csvbatch.metrics.StageLatencies;
 import com.example.csvbatch.repository.EmployeeRepository;
+import com.example.csvbatch.repository.ExportLogRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetadataBuilder;
 import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Metric;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -30,9 +51,16 @@ public class CsvExportService {
     
     private static final Logger LOGGER = Logger.getLogger(CsvExportService.class.getName());
     
+    private static final String DELTA_FILE_NAME = "delta.csv";
+    private static final String DELTA_MANIFEST_FILE_NAME = "delta.manifest.json";
+    private static final double[] PUBLISHED_PERCENTILES = {50.0, 99.0, 99.9};
+    
     @Inject
     private EmployeeRepository employeeRepository;
     
+    @Inject
+    private ExportLogRepository exportLogRepository;
+    
     @Inject
     private SoapClient soapClient;
     
@@ -54,16 +82,81 @@ public class CsvExportService {
     @ConfigProperty(name = "csv.batch.size", defaultValue = "1000")
     private int batchSize;
     
+    @Inject
+    @ConfigProperty(name = "soap.max-in-flight", defaultValue = "64")
+    private int soapMaxInFlight;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.streaming.enabled", defaultValue = "false")
+    private boolean streamingEnabled;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.streaming.window", defaultValue = "1000")
+    private int streamingWindow;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.delta.overlap-seconds", defaultValue = "300")
+    private long deltaOverlapSeconds;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.checkpoint.interval", defaultValue = "10000")
+    private long checkpointInterval;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.encoding.workers", defaultValue = "1")
+    private int encodingWorkers;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.encoding.chunk-size", defaultValue = "1000")
+    private int encodingChunkSize;
+    
     @Inject
     @Metric(name = "csv.export.errors")
     private Counter errorCounter;
     
+    @Inject
+    private MetricRegistry metricRegistry;
+    
     private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
     
+    // One gauge per stage and percentile, e.g. pipeline.stage.latency{stage="soap.call",quantile="0.99"}.
+    // Each read copies the stage histogram; recording into it is unaffected.
+    @PostConstruct
+    public void registerStageLatencyGauges() {
+        Metadata metadata = new MetadataBuilder()
+                .withName("pipeline.stage.latency")
+                .withDescription("Export pipeline stage latency percentiles since startup")
+                .withUnit(MetricUnits.MILLISECONDS)
+                .build();
+        
+        getStageHistograms().forEach((stage, histogram) -> {
+            for (double percentile : PUBLISHED_PERCENTILES) {
+                metricRegistry.gauge(metadata,
+                        () -> histogram.snapshot().getValueAtPercentile(percentile) / 1_000_000.0,
+                        new Tag("stage", stage.getMetricName()),
+                        new Tag("quantile", String.valueOf(percentile / 100.0)));
+            }
+        });
+    }
+    
+    // The overloads delegate to the one intercepted entry point below, so an export is counted,
+    // timed and retried once rather than once per overload it passed through.
+    public String exportEmployeesToCsv() {
+        return exportEmployeesToCsv(CacheMode.USE);
+    }
+    
+    public String exportEmployeesToCsv(CacheMode cacheMode) {
+        return exportEmployeesToCsv(cacheMode, ExportMode.FULL);
+    }
+    
+    public String exportEmployeesToCsv(CacheMode cacheMode, ExportMode exportMode) {
+        return exportEmployeesToCsv(cacheMode, exportMode, new ExportProgress());
+    }
+    
     @Counted(name = "csv.export.total")
     @Timed(name = "csv.export.duration")
-    @Retry(maxRetries = 2, delay = 5000)
-    public String exportEmployeesToCsv() {
+    @Retry(maxRetries = 2, delay = 5000, abortOn = ExportCancelledException.class)
+    public String exportEmployeesToCsv(CacheMode cacheMode, ExportMode exportMode, ExportProgress progress) {
         if (!exportEnabled) {
             LOGGER.warning("CSV export is disabled");
             return null;
@@ -72,8 +165,31 @@ public class CsvExportService {
         long startTime = System.currentTimeMillis();
         
         try {
-            LOGGER.info("Starting CSV export process");
+            ExportCheckpoint interrupted = findRetryCheckpoint(progress);
+            if (interrupted != null) {
+                LOGGER.info("Retrying " + interrupted.getExportMode() + " export from its checkpoint after employee "
+                        + interrupted.getLastEmployeeId());
+                return runStreamingExport(startTime, interrupted, progress);
+            }
+            
+            LOGGER.info("Starting " + exportMode + " CSV export process (enrichment cache: " + cacheMode + ")");
             
+            // Taken before reading so rows changed mid-export are picked up by the next delta.
+            LocalDateTime highWaterMark = employeeRepository.findLatestModification();
+            
+            if (exportMode == ExportMode.DELTA) {
+                LocalDateTime since = exportLogRepository.findLastHighWaterMark();
+                if (since != null) {
+                    return exportEmployeesDelta(startTime, cacheMode, since, highWaterMark, progress);
+                }
+                LOGGER.warning("No previous successful export recorded, running a full export instead");
+            }
+            
+            if (streamingEnabled) {
+                return exportEmployeesStreaming(startTime, cacheMode, highWaterMark, progress);
+            }
+            
+            StageLatencies baseline = getStageLatencies();
             List<Employee> employees = employeeRepository.findAll();
             if (employees.isEmpty()) {
                 LOGGER.warning("No employees found in database");
@@ -81,76 +197,500 @@ public class CsvExportService {
             }
             
             LOGGER.info("Retrieved " + employees.size() + " employees from database");
+            progress.rowsRead(employees.size());
             
-            List<EmployeeCsvData> csvDataList = processEmployees(employees);
+            List<EmployeeCsvData> csvDataList = processEmployees(employees, cacheMode, progress);
             
             csvProcessorService.validateCsvData(csvDataList);
             
-            String csvContent = csvProcessorService.writeCsvToString(csvDataList);
+            progress.checkCancelled();
+            // The working file is shared with streaming exports, so an older checkpoint is void now.
+            discardCheckpoint(csvProcessorService.getCheckpointFile());
+            CsvCompression compression = csvProcessorService.getCompression();
+            Path csvFile = csvProcessorService.writeCsvFile(csvDataList, compression);
+            progress.rowsWritten(csvDataList.size());
+            
+            try {
+                String objectName = null;
+                if (storageUploadEnabled) {
+                    long processingTime = System.currentTimeMillis() - startTime;
+                    objectName = objectStorageService.uploadCsvFile(csvFile, csvDataList.size(), processingTime,
+                            "result", compression, progress);
+                    LOGGER.info("CSV uploaded to Object Storage: " + objectName);
+                }
+                
+                String outputLocation = objectName != null ? objectName : "local:" + compression.fileName("result.csv");
+                recordExport(ExportMode.FULL, csvDataList.size(), outputLocation, highWaterMark);
+                
+                long totalTime = System.currentTimeMillis() - startTime;
+                LOGGER.info("CSV export completed successfully in " + totalTime + " ms (stage latencies: "
+                        + finishStageLatencies(baseline, progress) + ")");
+                
+                return outputLocation;
+                
+            } finally {
+                if (!csvProcessorService.isLocalBackupEnabled()) {
+                    Files.deleteIfExists(csvFile);
+                }
+            }
+            
+        } catch (ExportCancelledException e) {
+            LOGGER.info("CSV export cancelled: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            errorCounter.inc();
+            LOGGER.log(Level.SEVERE, "CSV export failed", e);
+            throw new CsvProcessingException("CSV export process failed", e);
+        }
+    }
+    
+    // @Retry calls again with the same progress. An attempt that got past a checkpoint continues
+    // from it; starting over would delete the checkpoint and send every row again.
+    private ExportCheckpoint findRetryCheckpoint(ExportProgress progress) {
+        ExportCheckpoint previous = progress.getCheckpoint();
+        Path checkpointFile = csvProcessorService.getCheckpointFile();
+        if (previous == null || !Files.exists(checkpointFile)) {
+            return null;
+        }
+        
+        ExportCheckpoint checkpoint = ExportCheckpoint.load(checkpointFile);
+        return checkpoint.isResumed() && checkpoint.isSameExport(previous) ? checkpoint : null;
+    }
+    
+    // The upload an interrupted export suspended can no longer be resumed once its checkpoint is gone.
+    private void discardCheckpoint(Path checkpointFile) throws IOException {
+        if (Files.exists(checkpointFile)) {
+            try {
+                ExportCheckpoint previous = ExportCheckpoint.load(checkpointFile);
+                if (previous.hasUpload()) {
+                    objectStorageService.abortMultipartUpload(previous.getUploadObjectName(), previous.getUploadId());
+                }
+            } catch (CsvProcessingException e) {
+                LOGGER.log(Level.WARNING, "Discarding unreadable export checkpoint " + checkpointFile, e);
+            }
+        }
+        Files.deleteIfExists(checkpointFile);
+    }
+    
+    private String exportEmployeesStreaming(long startTime, CacheMode cacheMode, LocalDateTime highWaterMark,
+                                            ExportProgress progress) throws IOException {
+        LOGGER.info("Using streaming export with an in-flight window of " + streamingWindow + " records");
+        
+        ExportCheckpoint checkpoint = new ExportCheckpoint(ExportMode.FULL, cacheMode, null, highWaterMark,
+                csvProcessorService.createStreamingOutputFile(), csvProcessorService.getCompression());
+        return runStreamingExport(startTime, checkpoint, progress);
+    }
+    
+    private String exportEmployeesDelta(long startTime, CacheMode cacheMode, LocalDateTime since,
+                                        LocalDateTime highWaterMark, ExportProgress progress) throws IOException {
+        // Re-read a short window before the previous mark so rows committed late with an
+        // earlier updated_at are not lost. Consumers upsert by employeeId, so repeats are harmless.
+        LocalDateTime from = since.minusSeconds(deltaOverlapSeconds);
+        LOGGER.info("Exporting employees modified since " + from + " (previous high-water mark: " + since + ")");
+        
+        ExportCheckpoint checkpoint = new ExportCheckpoint(ExportMode.DELTA, cacheMode, from,
+                highWaterMark != null ? highWaterMark : since, csvProcessorService.createStreamingOutputFile(),
+                csvProcessorService.getCompression());
+        return runStreamingExport(startTime, checkpoint, progress);
+    }
+    
+    public String resumeExport() {
+        return resumeExport(new ExportProgress());
+    }
+    
+    @Counted(name = "csv.export.resume.total")
+    @Timed(name = "csv.export.resume.duration")
+    public String resumeExport(ExportProgress progress) {
+        if (!exportEnabled) {
+            LOGGER.warning("CSV export is disabled");
+            return null;
+        }
+        
+        Path checkpointFile = csvProcessorService.getCheckpointFile();
+        if (!Files.exists(checkpointFile)) {
+            throw new CsvProcessingException("NO_CHECKPOINT", "No interrupted export to resume");
+        }
+        
+        ExportCheckpoint checkpoint = ExportCheckpoint.load(checkpointFile);
+        LOGGER.info("Resuming " + checkpoint.getExportMode() + " export after employee " + checkpoint.getLastEmployeeId()
+                + " (" + checkpoint.getRecordCount() + " records, " + checkpoint.getByteOffset() + " bytes already written)");
+        
+        try {
+            return runStreamingExport(System.currentTimeMillis(), checkpoint, progress);
+            
+        } catch (ExportCancelledException e) {
+            LOGGER.info("CSV export resume cancelled: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            errorCounter.inc();
+            LOGGER.log(Level.SEVERE, "CSV export resume failed", e);
+            if (e instanceof CsvProcessingException) {
+                throw (CsvProcessingException) e;
+            }
+            throw new CsvProcessingException("CSV export resume failed", e);
+        }
+    }
+    
+    public boolean hasResumableExport() {
+        return Files.exists(csvProcessorService.getCheckpointFile());
+    }
+    
+    private String runStreamingExport(long startTime, ExportCheckpoint checkpoint, ExportProgress progress)
+            throws IOException {
+        ExportMode exportMode = checkpoint.getExportMode();
+        Path checkpointFile = csvProcessorService.getCheckpointFile();
+        Path workingFile = checkpoint.getWorkingFile();
+        CsvCompression compression = checkpoint.getCompression();
+        Long resumeAfter = checkpoint.getLastEmployeeId();
+        progress.setCheckpoint(checkpoint);
+        
+        if (!checkpoint.isResumed()) {
+            // A fresh export supersedes whatever was interrupted before it.
+            discardCheckpoint(checkpointFile);
+        }
+        
+        StageLatencies baseline = getStageLatencies();
+        StreamingExportPipeline.EmployeeSource source = exportMode == ExportMode.DELTA
+                ? consumer -> employeeRepository.streamModifiedSince(checkpoint.getSince(), resumeAfter, consumer)
+                : consumer -> employeeRepository.streamAfter(resumeAfter, consumer);
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                source, createEnrichmentStage(checkpoint.getCacheMode()), executorService, streamingWindow);
+        
+        String fileStem = exportMode == ExportMode.DELTA ? "delta" : "result";
+        Path csvFile = null;
+        MultipartUploadChannel upload = null;
+        
+        try {
+            if (storageUploadEnabled && objectStorageService.isMultipartEnabled()) {
+                // Parts are uploaded while rows are still being produced.
+                upload = checkpoint.isResumed() && checkpoint.hasUpload()
+                        ? objectStorageService.resumeMultipartUpload(checkpoint.getUploadObjectName(),
+                                checkpoint.getUploadId(), checkpoint.getUploadedParts(),
+                                checkpoint.getUploadedBytes(), progress)
+                        : objectStorageService.openMultipartUpload(fileStem, compression, progress);
+            }
+            
+            CheckpointingRowWriter rowWriter;
+            try (FileChannel channel = openWorkingFile(checkpoint, upload);
+                 ParallelGzipChannel compressor = csvProcessorService.createCompressor(compression,
+                         outputTargets(channel, upload));
+                 CsvChannelWriter csvWriter = csvProcessorService.createChannelWriter(compressor,
+                         outputTargets(channel, upload));
+                 ParallelCsvEncoder encoder = new ParallelCsvEncoder(csvWriter, encodingWorkers, encodingChunkSize)) {
+                rowWriter = new CheckpointingRowWriter(encoder, csvWriter, compressor, channel, upload,
+                        checkpoint, checkpointFile);
+                pipeline.run(rowWriter, progress);
+            }
             
-            csvProcessorService.saveToLocalFile(csvContent);
+            long recordCount = rowWriter.getRecordCount();
+            if (recordCount == 0 && exportMode == ExportMode.FULL) {
+                LOGGER.warning("No employees found in database");
+                throw new CsvProcessingException("No employee data to export");
+            }
+            if (recordCount > 0) {
+                csvProcessorService.validateErrorRate(rowWriter.getInvalidCount(), recordCount);
+            }
+            
+            csvFile = exportMode == ExportMode.DELTA
+                    ? csvProcessorService.completeStreamingOutputFile(workingFile, compression.fileName(DELTA_FILE_NAME))
+                    : csvProcessorService.completeStreamingOutputFile(workingFile, compression);
+            // Every row is on disk now; nothing is left to resume.
+            Files.deleteIfExists(checkpointFile);
             
             String objectName = null;
-            if (storageUploadEnabled) {
+            if (upload != null) {
+                objectName = upload.complete();
+                LOGGER.info("CSV uploaded to Object Storage: " + objectName);
+            } else if (storageUploadEnabled) {
                 long processingTime = System.currentTimeMillis() - startTime;
-                objectName = objectStorageService.uploadCsvFile(csvContent, csvDataList.size(), processingTime);
+                objectName = objectStorageService.uploadCsvFile(csvFile, (int) recordCount, processingTime,
+                        fileStem, compression, progress);
                 LOGGER.info("CSV uploaded to Object Storage: " + objectName);
             }
             
+            String outputLocation = objectName != null ? objectName
+                    : "local:" + compression.fileName(exportMode == ExportMode.DELTA ? DELTA_FILE_NAME : "result.csv");
+            
+            if (exportMode == ExportMode.DELTA) {
+                ExportManifest manifest = ExportManifest.builder()
+                        .exportType(ExportMode.DELTA.name())
+                        .since(checkpoint.getSince())
+                        .highWaterMark(checkpoint.getHighWaterMark())
+                        .recordCount(recordCount)
+                        .fileName(outputLocation)
+                        .build();
+                
+                if (objectName != null) {
+                    objectStorageService.uploadManifest(objectName, manifest.toJson());
+                }
+                if (csvProcessorService.isLocalBackupEnabled()) {
+                    csvProcessorService.saveSiblingFile(DELTA_MANIFEST_FILE_NAME, manifest.toJson());
+                }
+            }
+            
+            recordExport(exportMode, recordCount, outputLocation, checkpoint.getHighWaterMark());
+            
             long totalTime = System.currentTimeMillis() - startTime;
-            LOGGER.info("CSV export completed successfully in " + totalTime + " ms");
+            LOGGER.info("Streaming " + exportMode + " CSV export of " + recordCount + " records completed in "
+                    + totalTime + " ms (stage latencies: " + finishStageLatencies(baseline, progress) + ")");
+            
+            return outputLocation;
             
-            return objectName != null ? objectName : "local:result.csv";
+        } finally {
+            if (upload != null && csvFile == null && Files.exists(checkpointFile) && checkpoint.hasUpload()) {
+                // The checkpoint lists the parts uploaded so far; a resume commits them with the rest.
+                upload.suspend();
+            } else if (upload != null) {
+                // No-op once committed; otherwise discards the parts already uploaded.
+                upload.close();
+            }
+            if (csvFile == null) {
+                // Keep the partial file while a checkpoint points at it.
+                if (!Files.exists(checkpointFile)) {
+                    Files.deleteIfExists(workingFile);
+                }
+            } else if (!csvProcessorService.isLocalBackupEnabled()) {
+                Files.deleteIfExists(csvFile);
+            }
+        }
+    }
+    
+    private WritableByteChannel[] outputTargets(FileChannel channel, MultipartUploadChannel upload) {
+        WritableByteChannel localFile = csvProcessorService.recordLocalWrites(channel);
+        return upload != null ? new WritableByteChannel[] {localFile, upload} : new WritableByteChannel[] {localFile};
+    }
+    
+    private FileChannel openWorkingFile(ExportCheckpoint checkpoint, MultipartUploadChannel upload)
+            throws IOException {
+        Path workingFile = checkpoint.getWorkingFile();
+        if (!checkpoint.isResumed()) {
+            return FileChannel.open(workingFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        
+        if (!Files.exists(workingFile) || Files.size(workingFile) < checkpoint.getByteOffset()) {
+            throw new CsvProcessingException("CHECKPOINT_INVALID",
+                    "Partial export file is missing or shorter than its checkpoint: " + workingFile);
+        }
+        
+        // Rows written after the last checkpoint are dropped and produced again.
+        FileChannel channel = FileChannel.open(workingFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(checkpoint.getByteOffset());
+            if (upload != null) {
+                // Kept rows that are not in an uploaded part yet are sent again first; that is all
+                // of them when the interrupted run had no upload to continue.
+                long position = upload.getUploadedBytes();
+                while (position < checkpoint.getByteOffset()) {
+                    position += channel.transferTo(position, checkpoint.getByteOffset() - position, upload);
+                }
+            }
+            channel.position(checkpoint.getByteOffset());
+            return channel;
             
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    // Percentiles of everything each stage has recorded since startup.
+    public StageLatencies getStageLatencies() {
+        return StageLatencies.capture(getStageHistograms());
+    }
+    
+    private Map<PipelineStage, LatencyHistogram> getStageHistograms() {
+        Map<PipelineStage, LatencyHistogram> histograms = new EnumMap<>(PipelineStage.class);
+        histograms.put(PipelineStage.DB_FETCH, employeeRepository.getFetchLatency());
+        histograms.put(PipelineStage.SOAP_CALL, soapClient.getCallLatency());
+        histograms.put(PipelineStage.SOAP_BATCH_CALL, soapClient.getBatchCallLatency());
+        histograms.put(PipelineStage.CSV_ENCODE, csvProcessorService.getEncodeLatency());
+        histograms.put(PipelineStage.LOCAL_WRITE, csvProcessorService.getLocalWriteLatency());
+        histograms.put(PipelineStage.PART_UPLOAD, objectStorageService.getPartUploadLatency());
+        return histograms;
+    }
+    
+    // The histograms are shared by the whole process. Exports go one at a time through
+    // ExportJobService, so only a direct caller of this service could overlap with one.
+    private StageLatencies finishStageLatencies(StageLatencies baseline, ExportProgress progress) {
+        StageLatencies latencies = getStageLatencies().since(baseline);
+        progress.setStageLatencies(latencies);
+        return latencies;
+    }
+    
+    // The export itself already succeeded; a missing log row only widens the next delta.
+    private void recordExport(ExportMode exportMode, long recordCount, String outputLocation,
+                              LocalDateTime highWaterMark) {
+        try {
+            exportLogRepository.recordExport(exportMode.name(), recordCount, outputLocation,
+                    ExportLogRepository.STATUS_SUCCESS, highWaterMark);
         } catch (Exception e) {
-            errorCounter.inc();
-            LOGGER.log(Level.SEVERE, "CSV export failed", e);
-            throw new CsvProcessingException("CSV export process failed", e);
+            LOGGER.log(Level.WARNING, "Failed to record " + exportMode + " export in csv_export_log", e);
         }
     }
     
-    private List<EmployeeCsvData> processEmployees(List<Employee> employees) {
-        LOGGER.info("Processing " + employees.size() + " employees with SOAP API calls");
+    private class CheckpointingRowWriter implements StreamingExportPipeline.RowWriter {
+        private final ParallelCsvEncoder encoder;
+        private final CsvChannelWriter csvWriter;
+        private final ParallelGzipChannel compressor;
+        private final FileChannel channel;
+        private final MultipartUploadChannel upload;
+        private final ExportCheckpoint checkpoint;
+        private final Path checkpointFile;
+        private long recordCount;
+        private long invalidCount;
+        private Long lastEmployeeId;
+        private long rowsSinceCheckpoint;
+        private boolean headerPending;
         
-        List<List<Employee>> batches = createBatches(employees, batchSize);
-        List<EmployeeCsvData> allCsvData = new ArrayList<>();
+        CheckpointingRowWriter(ParallelCsvEncoder encoder, CsvChannelWriter csvWriter,
+                               ParallelGzipChannel compressor, FileChannel channel,
+                               MultipartUploadChannel upload, ExportCheckpoint checkpoint, Path checkpointFile) {
+            this.encoder = encoder;
+            this.csvWriter = csvWriter;
+            this.compressor = compressor;
+            this.channel = channel;
+            this.upload = upload;
+            this.checkpoint = checkpoint;
+            this.checkpointFile = checkpointFile;
+            this.recordCount = checkpoint.getRecordCount();
+            this.invalidCount = checkpoint.getInvalidCount();
+            this.lastEmployeeId = checkpoint.getLastEmployeeId();
+            // Resumed exports append to a file that already starts with the header row.
+            this.headerPending = !checkpoint.isResumed();
+        }
         
-        for (int i = 0; i < batches.size(); i++) {
-            List<Employee> batch = batches.get(i);
-            LOGGER.info("Processing batch " + (i + 1) + "/" + batches.size() + " with " + batch.size() + " records");
+        @Override
+        public void write(EmployeeCsvData row) throws Exception {
+            if (headerPending) {
+                encoder.writeHeader();
+                headerPending = false;
+            }
+            encoder.write(row);
             
-            List<CompletableFuture<EmployeeCsvData>> futures = batch.stream()
-                    .map(employee -> CompletableFuture
-                            .supplyAsync(() -> enrichEmployeeData(employee), executorService))
-                    .collect(Collectors.toList());
+            recordCount++;
+            if (StreamingExportPipeline.isInvalid(row)) {
+                invalidCount++;
+            }
+            if (row.getEmployeeId() != null) {
+                lastEmployeeId = row.getEmployeeId();
+            }
             
-            List<EmployeeCsvData> batchResults = futures.stream()
-                    .map(CompletableFuture::join)
-                    .filter(data -> data != null)
-                    .collect(Collectors.toList());
+            if (checkpointInterval > 0 && ++rowsSinceCheckpoint >= checkpointInterval) {
+                saveCheckpoint();
+            }
+        }
+        
+        private void saveCheckpoint() throws IOException {
+            // Every row up to lastEmployeeId must be on disk before the offset is recorded.
+            encoder.flush();
+            csvWriter.flush();
+            if (compressor != null) {
+                // Ends the gzip member, so the recorded offset is a point the file can be cut at.
+                compressor.flush();
+            }
+            channel.force(false);
             
-            allCsvData.addAll(batchResults);
+            checkpoint.advance(lastEmployeeId, channel.position(), recordCount, invalidCount);
+            if (upload != null) {
+                // Only parts the service has acknowledged can be committed by a resumed run.
+                checkpoint.advanceUpload(upload.getObjectName(), upload.getUploadId(), upload.awaitUploadedParts(),
+                        upload.getUploadedBytes());
+            }
+            checkpoint.save(checkpointFile);
+            rowsSinceCheckpoint = 0;
+            
+            LOGGER.fine("Checkpointed export after employee " + lastEmployeeId + " (" + recordCount + " records)");
+        }
+        
+        long getRecordCount() {
+            return recordCount;
+        }
+        
+        long getInvalidCount() {
+            return invalidCount;
         }
+    }
+    
+    private List<EmployeeCsvData> processEmployees(List<Employee> employees, CacheMode cacheMode,
+                                                   ExportProgress progress) {
+        LOGGER.info("Processing " + employees.size() + " employees with SOAP API calls (max in flight: "
+                + soapMaxInFlight + ")");
+        
+        EnrichmentStage enrichmentStage = createEnrichmentStage(cacheMode);
+        List<CompletableFuture<EmployeeCsvData>> futures = new ArrayList<>(employees.size());
+        
+        try {
+            int soapBatchSize = enrichmentStage.getBatchSize();
+            int nextProgressLog = batchSize;
+            for (int from = 0; from < employees.size(); from += soapBatchSize) {
+                if (progress.isCancelled()) {
+                    futures.forEach(future -> future.cancel(true));
+                    progress.checkCancelled();
+                }
+                
+                for (CompletableFuture<EmployeeCsvData> future : enrichmentStage.submit(
+                        employees.subList(from, Math.min(from + soapBatchSize, employees.size())))) {
+                    future.thenRun(() -> progress.rowsEnriched(1));
+                    futures.add(future);
+                }
+                
+                if (futures.size() >= nextProgressLog) {
+                    LOGGER.info("Submitted " + futures.size() + "/" + employees.size() + " employees for enrichment");
+                    nextProgressLog = (futures.size() / batchSize + 1) * batchSize;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new CsvProcessingException("CSV_PROCESSING_ERROR", "Employee enrichment was interrupted", e);
+        }
+        
+        List<EmployeeCsvData> allCsvData = futures.stream()
+                .map(CompletableFuture::join)
+                .filter(data -> data != null)
+                .collect(Collectors.toList());
         
         LOGGER.info("Processed " + allCsvData.size() + " employees successfully");
         return allCsvData;
     }
     
-    private EmployeeCsvData enrichEmployeeData(Employee employee) {
+    private EnrichmentStage createEnrichmentStage(CacheMode cacheMode) {
+        return new EnrichmentStage(employees -> enrichEmployees(employees, cacheMode),
+                executorService, soapMaxInFlight, soapClient.getBatchSize());
+    }
+    
+    private List<EmployeeCsvData> enrichEmployees(List<Employee> employees, CacheMode cacheMode) {
+        if (employees.size() == 1) {
+            return List.of(enrichEmployeeData(employees.get(0), cacheMode));
+        }
+        
+        Map<Long, EmployeeDetails> detailsById;
         try {
-            EmployeeDetails details = soapClient.getEmployeeDetails(employee.getEmployeeId());
+            detailsById = soapClient.getEmployeeDetailsBatch(employees.stream()
+                    .map(Employee::getEmployeeId)
+                    .collect(Collectors.toList()), cacheMode);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Batch enrichment failed for " + employees.size()
+                    + " employees, enriching individually", e);
+            return employees.stream()
+                    .map(employee -> enrichEmployeeData(employee, cacheMode))
+                    .collect(Collectors.toList());
+        }
+        
+        List<EmployeeCsvData> csvDataList = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            EmployeeDetails details = detailsById.get(employee.getEmployeeId());
+            csvDataList.add(details != null ? toCsvData(employee, details) : enrichEmployeeData(employee, cacheMode));
+        }
+        return csvDataList;
+    }
+    
+    private EmployeeCsvData enrichEmployeeData(Employee employee, CacheMode cacheMode) {
+        try {
+            EmployeeDetails details = soapClient.getEmployeeDetails(employee.getEmployeeId(), cacheMode);
             
-            return EmployeeCsvData.builder()
-                    .employeeId(employee.getEmployeeId())
-                    .employeeName(employee.getEmployeeName())
-                    .department(employee.getDepartment())
-                    .email(employee.getEmail())
-                    .hireDate(employee.getHireDate())
-                    .salary(employee.getSalary())
-                    .level(details.getLevel())
-                    .bonus(details.getBonus())
-                    .status(details.getStatus())
-                    .build();
+            return toCsvData(employee, details);
                     
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, "Failed to enrich data for employee: " + employee.getEmployeeId(), e);
@@ -169,13 +709,18 @@ public class CsvExportService {
         }
     }
     
-    private List<List<Employee>> createBatches(List<Employee> employees, int batchSize) {
-        List<List<Employee>> batches = new ArrayList<>();
-        for (int i = 0; i < employees.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, employees.size());
-            batches.add(employees.subList(i, end));
-        }
-        return batches;
+    private EmployeeCsvData toCsvData(Employee employee, EmployeeDetails details) {
+        return EmployeeCsvData.builder()
+                .employeeId(employee.getEmployeeId())
+                .employeeName(employee.getEmployeeName())
+                .department(employee.getDepartment())
+                .email(employee.getEmail())
+                .hireDate(employee.getHireDate())
+                .salary(employee.getSalary())
+                .level(details.getLevel())
+                .bonus(details.getBonus())
+                .status(details.getStatus())
+                .build();
     }
     
     public void shutdown() {
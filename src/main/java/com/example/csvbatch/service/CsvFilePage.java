@@ -0,0 +1,23 @@
+package com.example.csvbatch.service;
+
+import java.util.List;
+
+public class CsvFilePage {
+    
+    private final List<String> files;
+    private final String nextStart;
+    
+    public CsvFilePage(List<String> files, String nextStart) {
+        this.files = files;
+        this.nextStart = nextStart;
+    }
+    
+    public List<String> getFiles() {
+        return files;
+    }
+    
+    // The cursor for the following page, or null when this is the last one.
+    public String getNextStart() {
+        return nextStart;
+    }
+}
\ No newline at end of file
@@ -2,24 +2,21 @@ package com.example.csvbatch.service;
 
 import com.example.csvbatch.dto.EmployeeCsvData;
 import com.example.csvbatch.exception.CsvProcessingException;
-import com.opencsv.CSVWriter;
-import com.opencsv.bean.StatefulBeanToCsv;
-import com.opencsv.bean.StatefulBeanToCsvBuilder;
-import com.opencsv.exceptions.CsvDataTypeMismatchException;
-import com.opencsv.exceptions.CsvRequiredFieldEmptyException;
+import com.example.csvbatch.metrics.LatencyHistogram;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.logging.Level;
@@ -30,6 +27,9 @@ public class CsvProcessorService {
     
     private static final Logger LOGGER = Logger.getLogger(CsvProcessorService.class.getName());
     
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int OUTPUT_BUFFER_POOL_SIZE = 8;
+    
     @Inject
     @ConfigProperty(name = "csv.output.path", defaultValue = "/app/output/result.csv")
     private String csvOutputPath;
@@ -38,41 +38,120 @@ public class CsvProcessorService {
     @ConfigProperty(name = "csv.export.local-backup", defaultValue = "true")
     private boolean localBackupEnabled;
     
+    @Inject
+    @ConfigProperty(name = "csv.export.compression.codec", defaultValue = "none")
+    private String compressionCodec;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.compression.workers", defaultValue = "1")
+    private int compressionWorkers;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.compression.block-size", defaultValue = "1048576")
+    private int compressionBlockSize;
+    
+    private final DirectBufferPool bufferPool = new DirectBufferPool(OUTPUT_BUFFER_SIZE, OUTPUT_BUFFER_POOL_SIZE);
+    private final LatencyHistogram encodeLatency = new LatencyHistogram();
+    private final LatencyHistogram localWriteLatency = new LatencyHistogram();
+    
     @Counted(name = "csv.export.count", description = "Total CSV exports")
     @Timed(name = "csv.export.duration", description = "CSV export duration")
     public String writeCsvToString(List<EmployeeCsvData> employees) {
         LOGGER.info("Writing CSV data for " + employees.size() + " employees");
         
-        try (StringWriter writer = new StringWriter()) {
-            StatefulBeanToCsv<EmployeeCsvData> beanToCsv = new StatefulBeanToCsvBuilder<EmployeeCsvData>(writer)
-                    .withQuotechar(CSVWriter.DEFAULT_QUOTE_CHARACTER)
-                    .withSeparator(CSVWriter.DEFAULT_SEPARATOR)
-                    .withOrderedResults(true)
-                    .build();
-            
-            beanToCsv.write(employees);
-            String csvContent = writer.toString();
-            
-            LOGGER.info("CSV content generated successfully with " + employees.size() + " records");
-            return csvContent;
+        // Same bytes as opencsv's StatefulBeanToCsv, which writes the header with the first row.
+        EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(256 * (employees.size() + 1));
+        if (!employees.isEmpty()) {
+            encoder.encodeHeader();
+        }
+        
+        for (EmployeeCsvData employee : employees) {
+            encoder.encode(employee);
+        }
+        String csvContent = encoder.toString();
+        
+        LOGGER.info("CSV content generated successfully with " + employees.size() + " records");
+        return csvContent;
+    }
+    
+    public Path writeCsvFile(List<EmployeeCsvData> employees) {
+        return writeCsvFile(employees, getCompression());
+    }
+    
+    // Encodes straight into the output file; the document never exists as a String or byte[].
+    @Counted(name = "csv.export.count", description = "Total CSV exports")
+    @Timed(name = "csv.export.duration", description = "CSV export duration")
+    public Path writeCsvFile(List<EmployeeCsvData> employees, CsvCompression compression) {
+        LOGGER.info("Writing CSV file for " + employees.size() + " employees (compression: " + compression + ")");
+        
+        Path workingFile = createStreamingOutputFile();
+        try (FileChannel channel = FileChannel.open(workingFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             WritableByteChannel output = recordLocalWrites(channel);
+             ParallelGzipChannel compressor = createCompressor(compression, output);
+             CsvChannelWriter writer = createChannelWriter(compressor, output)) {
+            if (!employees.isEmpty()) {
+                writer.writeHeader();
+            }
+            for (EmployeeCsvData employee : employees) {
+                writer.write(employee);
+            }
             
-        } catch (CsvDataTypeMismatchException | CsvRequiredFieldEmptyException e) {
-            LOGGER.log(Level.SEVERE, "Error converting data to CSV", e);
-            throw new CsvProcessingException("Failed to convert employee data to CSV", e);
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "IO error while writing CSV", e);
+            deleteQuietly(workingFile);
             throw new CsvProcessingException("IO error during CSV generation", e);
         }
+        
+        return completeStreamingOutputFile(workingFile, compression);
     }
     
-    @Retry(maxRetries = 3, delay = 1000)
-    public void saveToLocalFile(String csvContent) {
-        if (!localBackupEnabled) {
-            LOGGER.info("Local backup is disabled, skipping file save");
-            return;
+    public CsvChannelWriter createChannelWriter(WritableByteChannel... targets) {
+        return new CsvChannelWriter(bufferPool, encodeLatency, targets);
+    }
+    
+    // Writes through the compressor when there is one, otherwise straight to the targets.
+    public CsvChannelWriter createChannelWriter(ParallelGzipChannel compressor, WritableByteChannel... targets) {
+        return new CsvChannelWriter(bufferPool, encodeLatency,
+                compressor != null ? new WritableByteChannel[] {compressor} : targets);
+    }
+    
+    // Every write to the returned channel is recorded in the local write latency.
+    public WritableByteChannel recordLocalWrites(FileChannel channel) {
+        return new LatencyRecordingChannel(channel, localWriteLatency);
+    }
+    
+    public LatencyHistogram getEncodeLatency() {
+        return encodeLatency;
+    }
+    
+    public LatencyHistogram getLocalWriteLatency() {
+        return localWriteLatency;
+    }
+    
+    // Null when the output is stored uncompressed and should be written to the targets directly.
+    public ParallelGzipChannel createCompressor(CsvCompression compression, WritableByteChannel... targets) {
+        if (compression == CsvCompression.NONE) {
+            return null;
         }
-        
+        return new ParallelGzipChannel(compressionWorkers, compressionBlockSize, targets);
+    }
+    
+    public CsvCompression getCompression() {
+        return CsvCompression.fromName(compressionCodec);
+    }
+    
+    public Path getCheckpointFile() {
+        Path outputPath = Paths.get(csvOutputPath);
+        return outputPath.resolveSibling(outputPath.getFileName() + ".checkpoint");
+    }
+    
+    public Path createStreamingOutputFile() {
         try {
+            if (!localBackupEnabled) {
+                return Files.createTempFile("csv-export-", ".csv");
+            }
+            
             Path outputPath = Paths.get(csvOutputPath);
             Path parentDir = outputPath.getParent();
             
@@ -81,18 +160,63 @@ public class CsvProcessorService {
                 LOGGER.info("Created output directory: " + parentDir);
             }
             
-            Files.write(outputPath, csvContent.getBytes(StandardCharsets.UTF_8),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
+            return outputPath.resolveSibling(outputPath.getFileName() + ".part");
+            
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to prepare streaming output file", e);
+            throw new CsvProcessingException("Failed to prepare streaming output file", e);
+        }
+    }
+    
+    public Path completeStreamingOutputFile(Path workingFile, CsvCompression compression) {
+        return completeStreamingOutputFile(workingFile,
+                compression.fileName(Paths.get(csvOutputPath).getFileName().toString()));
+    }
+    
+    public Path completeStreamingOutputFile(Path workingFile, String fileName) {
+        if (!localBackupEnabled) {
+            return workingFile;
+        }
+        
+        try {
+            Path outputPath = Paths.get(csvOutputPath).resolveSibling(fileName);
+            Files.move(workingFile, outputPath, StandardCopyOption.REPLACE_EXISTING);
             
             LOGGER.info("CSV file saved successfully to: " + outputPath);
+            return outputPath;
             
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Failed to save CSV file locally", e);
+            LOGGER.log(Level.SEVERE, "Failed to move streamed CSV file into place", e);
             throw new CsvProcessingException("Failed to save CSV file to local filesystem", e);
         }
     }
     
+    public Path saveSiblingFile(String fileName, String content) {
+        try {
+            Path outputPath = localBackupEnabled
+                    ? Paths.get(csvOutputPath).resolveSibling(fileName)
+                    : Files.createTempFile("csv-export-", "-" + fileName);
+            Files.write(outputPath, content.getBytes(StandardCharsets.UTF_8));
+            return outputPath;
+            
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Failed to save " + fileName, e);
+            throw new CsvProcessingException("Failed to save " + fileName + " to local filesystem", e);
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to delete " + file, e);
+        }
+    }
+    
+    public boolean isLocalBackupEnabled() {
+        return localBackupEnabled;
+    }
+    
     public void validateCsvData(List<EmployeeCsvData> employees) {
         if (employees == null || employees.isEmpty()) {
             throw new CsvProcessingException("CSV_VALIDATION_ERROR", "No employee data to export");
@@ -102,17 +226,25 @@ public class CsvProcessorService {
                 .filter(emp -> emp.getEmployeeId() == null || emp.getEmployeeName() == null)
                 .count();
         
+        validateErrorRate(invalidRecords, employees.size());
+    }
+    
+    public void validateErrorRate(long invalidRecords, long totalRecords) {
+        if (totalRecords == 0) {
+            throw new CsvProcessingException("CSV_VALIDATION_ERROR", "No employee data to export");
+        }
+        
         if (invalidRecords > 0) {
             LOGGER.warning("Found " + invalidRecords + " invalid records in CSV data");
             
-            double errorRate = (double) invalidRecords / employees.size();
+            double errorRate = (double) invalidRecords / totalRecords;
             if (errorRate > 0.5) {
                 throw new CsvProcessingException("CSV_VALIDATION_ERROR",
                         "Error rate too high: " + (errorRate * 100) + "% records are invalid");
             }
         }
         
-        LOGGER.info("CSV data validation passed for " + employees.size() + " records");
+        LOGGER.info("CSV data validation passed for " + totalRecords + " records");
     }
     
     public String[] getCsvHeaders() {
@@ -0,0 +1,52 @@
+package com.example.csvbatch.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DirectBufferPool {
+    
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> pool;
+    private final AtomicInteger allocated = new AtomicInteger();
+    
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < 1 || maxPooled < 1) {
+            throw new IllegalArgumentException("Invalid buffer pool: " + maxPooled + " x " + bufferSize + " bytes");
+        }
+        this.bufferSize = bufferSize;
+        this.pool = new ArrayBlockingQueue<>(maxPooled);
+    }
+    
+    // Direct buffers are costly to allocate and are only freed by GC, so they are kept
+    // for reuse; when the pool is empty a new one is allocated rather than waiting.
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = pool.poll();
+        if (buffer == null) {
+            allocated.incrementAndGet();
+            buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffer;
+    }
+    
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || buffer.capacity() != bufferSize) {
+            return;
+        }
+        buffer.clear();
+        pool.offer(buffer);
+    }
+    
+    public int getBufferSize() {
+        return bufferSize;
+    }
+    
+    public int getAllocatedCount() {
+        return allocated.get();
+    }
+    
+    public int getPooledCount() {
+        return pool.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+public class EmployeeCsvEncoder {
+    
+    // Byte-for-byte what StatefulBeanToCsv emits for EmployeeCsvData: header names upper-cased
+    // and sorted, every field quoted (null as ""), quotes doubled, "\n" line endings.
+    private static final byte[] HEADER = ("\"BONUS\",\"DEPARTMENT\",\"EMAIL\",\"EMPLOYEEID\",\"EMPLOYEENAME\","
+            + "\"HIREDATE\",\"LEVEL\",\"SALARY\",\"STATUS\"\n")
+            .getBytes(StandardCharsets.US_ASCII);
+    
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    
+    private static final int MAX_COMPACT_PRECISION = 18;
+    private static final long[] POWERS_OF_TEN = new long[MAX_COMPACT_PRECISION + 1];
+    
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+    
+    private byte[] buffer;
+    private int length;
+    
+    public EmployeeCsvEncoder() {
+        this(8192);
+    }
+    
+    public EmployeeCsvEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(64, initialCapacity)];
+    }
+    
+    public void encodeHeader() {
+        ensureCapacity(HEADER.length);
+        System.arraycopy(HEADER, 0, buffer, length, HEADER.length);
+        length += HEADER.length;
+    }
+    
+    public void encode(EmployeeCsvData row) {
+        putDecimal(row.getBonus());
+        putSeparator();
+        putString(row.getDepartment());
+        putSeparator();
+        putString(row.getEmail());
+        putSeparator();
+        putLong(row.getEmployeeId());
+        putSeparator();
+        putString(row.getEmployeeName());
+        putSeparator();
+        putDate(row.getHireDate());
+        putSeparator();
+        putString(row.getLevel());
+        putSeparator();
+        putDecimal(row.getSalary());
+        putSeparator();
+        putString(row.getStatus());
+        ensureCapacity(1);
+        putByte('\n');
+    }
+    
+    public int size() {
+        return length;
+    }
+    
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+    
+    // Copies as much as fits from the given offset; returns the offset to continue from.
+    public int writeTo(ByteBuffer target, int offset) {
+        int count = Math.min(target.remaining(), length - offset);
+        target.put(buffer, offset, count);
+        return offset + count;
+    }
+    
+    // Keeps the grown buffer for the next batch of rows.
+    public void reset() {
+        length = 0;
+    }
+    
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private void putSeparator() {
+        ensureCapacity(1);
+        putByte(',');
+    }
+    
+    private void putString(String value) {
+        if (value == null) {
+            putEmpty();
+            return;
+        }
+        
+        int valueLength = value.length();
+        // Worst case: every char doubled as a quote or 3 UTF-8 bytes, plus the enclosing quotes.
+        ensureCapacity(valueLength * 3 + 2);
+        
+        byte[] target = buffer;
+        int position = length;
+        target[position++] = '"';
+        
+        for (int i = 0; i < valueLength; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '"') {
+                    target[position++] = '"';
+                }
+                target[position++] = (byte) c;
+            } else if (c < 0x800) {
+                target[position++] = (byte) (0xC0 | (c >> 6));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < valueLength
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target[position++] = (byte) (0xF0 | (codePoint >> 18));
+                target[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Same replacement the JDK UTF-8 encoder uses for unpaired surrogates
+                target[position++] = '?';
+            } else {
+                target[position++] = (byte) (0xE0 | (c >> 12));
+                target[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        
+        target[position++] = '"';
+        length = position;
+    }
+    
+    private void putLong(Long value) {
+        if (value == null) {
+            putEmpty();
+            return;
+        }
+        
+        ensureCapacity(22);
+        putByte('"');
+        putDigits(value);
+        putByte('"');
+    }
+    
+    // Matches BigDecimal.toString(): plain notation when the scale is non-negative and the
+    // adjusted exponent is at least -6, scientific notation otherwise.
+    private void putDecimal(BigDecimal value) {
+        if (value == null) {
+            putEmpty();
+            return;
+        }
+        
+        int scale = value.scale();
+        int precision = value.precision();
+        if (scale < 0 || precision > MAX_COMPACT_PRECISION || precision - 1 - scale < -6) {
+            putAscii(value.toString());
+            return;
+        }
+        
+        long unscaled = value.unscaledValue().longValue();
+        
+        ensureCapacity(precision + 10);
+        putByte('"');
+        if (scale == 0) {
+            putDigits(unscaled);
+        } else {
+            if (unscaled < 0) {
+                putByte('-');
+                unscaled = -unscaled;
+            }
+            
+            int integerDigits = precision - scale;
+            if (integerDigits <= 0) {
+                putByte('0');
+                putByte('.');
+                for (int i = integerDigits; i < 0; i++) {
+                    putByte('0');
+                }
+                putPadded(unscaled, precision);
+            } else {
+                long divisor = POWERS_OF_TEN[scale];
+                putDigits(unscaled / divisor);
+                putByte('.');
+                putPadded(unscaled % divisor, scale);
+            }
+        }
+        putByte('"');
+    }
+    
+    private void putDate(LocalDate value) {
+        if (value == null) {
+            putEmpty();
+            return;
+        }
+        
+        int year = value.getYear();
+        if (year < 1 || year > 9999) {
+            putAscii(DATE_FORMATTER.format(value));
+            return;
+        }
+        
+        ensureCapacity(12);
+        putByte('"');
+        putPadded(year, 4);
+        putByte('-');
+        putPadded(value.getMonthValue(), 2);
+        putByte('-');
+        putPadded(value.getDayOfMonth(), 2);
+        putByte('"');
+    }
+    
+    private void putAscii(String value) {
+        ensureCapacity(value.length() + 2);
+        putByte('"');
+        putRaw(value);
+        putByte('"');
+    }
+    
+    private void putRaw(String ascii) {
+        for (int i = 0; i < ascii.length(); i++) {
+            buffer[length++] = (byte) ascii.charAt(i);
+        }
+    }
+    
+    private void putEmpty() {
+        ensureCapacity(2);
+        putByte('"');
+        putByte('"');
+    }
+    
+    private void putDigits(long value) {
+        if (value == Long.MIN_VALUE) {
+            putRaw(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            putByte('-');
+            value = -value;
+        }
+        putPadded(value, digitCount(value));
+    }
+    
+    private void putPadded(long value, int width) {
+        int end = length + width;
+        int index = end;
+        while (index > length) {
+            buffer[--index] = (byte) ('0' + (value % 10));
+            value /= 10;
+        }
+        length = end;
+    }
+    
+    private void putByte(char c) {
+        buffer[length++] = (byte) c;
+    }
+    
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+    
+    private static int digitCount(long value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
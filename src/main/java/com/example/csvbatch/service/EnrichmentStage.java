@@ -0,0 +1,90 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.example.csvbatch.entity.Employee;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+public class EnrichmentStage {
+    
+    private final Function<List<Employee>, List<EmployeeCsvData>> enricher;
+    private final ExecutorService executorService;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final int batchSize;
+    
+    public EnrichmentStage(Function<List<Employee>, List<EmployeeCsvData>> enricher,
+                           ExecutorService executorService,
+                           int maxInFlight,
+                           int batchSize) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in-flight must be positive: " + maxInFlight);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.enricher = enricher;
+        this.executorService = executorService;
+        this.permits = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.batchSize = batchSize;
+    }
+    
+    public CompletableFuture<EmployeeCsvData> submit(Employee employee) throws InterruptedException {
+        return submit(List.of(employee)).get(0);
+    }
+    
+    // Blocks the caller while maxInFlight calls are outstanding, which is how
+    // backpressure reaches the database reader. One permit covers a whole batch.
+    public List<CompletableFuture<EmployeeCsvData>> submit(List<Employee> employees) throws InterruptedException {
+        List<Employee> batch = List.copyOf(employees);
+        List<CompletableFuture<EmployeeCsvData>> futures = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            futures.add(new CompletableFuture<>());
+        }
+        
+        permits.acquire();
+        
+        try {
+            executorService.execute(() -> {
+                try {
+                    List<EmployeeCsvData> results = enricher.apply(batch);
+                    for (int i = 0; i < futures.size(); i++) {
+                        if (i < results.size()) {
+                            futures.get(i).complete(results.get(i));
+                        } else {
+                            futures.get(i).completeExceptionally(new IllegalStateException(
+                                    "No enrichment result for employee: " + batch.get(i).getEmployeeId()));
+                        }
+                    }
+                } catch (Throwable t) {
+                    futures.forEach(future -> future.completeExceptionally(t));
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        
+        return futures;
+    }
+    
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+    
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.client.CacheMode;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadPartDetails;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+
+// Progress of a streaming export, persisted next to the partial output file so a
+// later run can truncate the file to the last durable offset and continue after
+// the last employee written. When the export is uploaded in parts, the multipart upload and
+// its finished parts are recorded too, so the resumed export only sends what follows them.
+public class ExportCheckpoint {
+    
+    private static final String PART_PREFIX = "upload.part.";
+    
+    private final ExportMode exportMode;
+    private final CacheMode cacheMode;
+    private final LocalDateTime since;
+    private final LocalDateTime highWaterMark;
+    private final Path workingFile;
+    private final CsvCompression compression;
+    
+    private Long lastEmployeeId;
+    private long byteOffset;
+    private long recordCount;
+    private long invalidCount;
+    
+    private String uploadObjectName;
+    private String uploadId;
+    private List<CommitMultipartUploadPartDetails> uploadedParts = List.of();
+    private long uploadedBytes;
+    
+    public ExportCheckpoint(ExportMode exportMode, CacheMode cacheMode, LocalDateTime since,
+                            LocalDateTime highWaterMark, Path workingFile) {
+        this(exportMode, cacheMode, since, highWaterMark, workingFile, CsvCompression.NONE);
+    }
+    
+    // A resumed export keeps the compression it started with; the partial file is already encoded that way.
+    public ExportCheckpoint(ExportMode exportMode, CacheMode cacheMode, LocalDateTime since,
+                            LocalDateTime highWaterMark, Path workingFile, CsvCompression compression) {
+        this.exportMode = exportMode;
+        this.cacheMode = cacheMode;
+        this.since = since;
+        this.highWaterMark = highWaterMark;
+        this.workingFile = workingFile;
+        this.compression = compression;
+    }
+    
+    public void advance(Long lastEmployeeId, long byteOffset, long recordCount, long invalidCount) {
+        this.lastEmployeeId = lastEmployeeId;
+        this.byteOffset = byteOffset;
+        this.recordCount = recordCount;
+        this.invalidCount = invalidCount;
+    }
+    
+    // The parts cover the first uploadedBytes bytes of the working file.
+    public void advanceUpload(String uploadObjectName, String uploadId,
+                              List<CommitMultipartUploadPartDetails> uploadedParts, long uploadedBytes) {
+        this.uploadObjectName = uploadObjectName;
+        this.uploadId = uploadId;
+        this.uploadedParts = List.copyOf(uploadedParts);
+        this.uploadedBytes = uploadedBytes;
+    }
+    
+    public boolean isResumed() {
+        return lastEmployeeId != null;
+    }
+    
+    // Same output and same window of rows, whatever progress either of them has made.
+    public boolean isSameExport(ExportCheckpoint other) {
+        return exportMode == other.exportMode
+                && cacheMode == other.cacheMode
+                && Objects.equals(since, other.since)
+                && Objects.equals(highWaterMark, other.highWaterMark)
+                && workingFile.equals(other.workingFile)
+                && compression == other.compression;
+    }
+    
+    public void save(Path checkpointFile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("exportMode", exportMode.name());
+        properties.setProperty("cacheMode", cacheMode.name());
+        properties.setProperty("workingFile", workingFile.toString());
+        properties.setProperty("compression", compression.name());
+        properties.setProperty("byteOffset", String.valueOf(byteOffset));
+        properties.setProperty("recordCount", String.valueOf(recordCount));
+        properties.setProperty("invalidCount", String.valueOf(invalidCount));
+        if (since != null) {
+            properties.setProperty("since", since.toString());
+        }
+        if (highWaterMark != null) {
+            properties.setProperty("highWaterMark", highWaterMark.toString());
+        }
+        if (lastEmployeeId != null) {
+            properties.setProperty("lastEmployeeId", String.valueOf(lastEmployeeId));
+        }
+        if (uploadId != null) {
+            properties.setProperty("upload.objectName", uploadObjectName);
+            properties.setProperty("upload.id", uploadId);
+            properties.setProperty("upload.bytes", String.valueOf(uploadedBytes));
+            for (CommitMultipartUploadPartDetails part : uploadedParts) {
+                properties.setProperty(PART_PREFIX + part.getPartNum(), part.getEtag());
+            }
+        }
+        
+        Path parentDir = checkpointFile.toAbsolutePath().getParent();
+        Files.createDirectories(parentDir);
+        
+        // Write-then-rename so a crash mid-save leaves the previous checkpoint intact.
+        Path tempFile = Files.createTempFile(parentDir, checkpointFile.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, "CSV export checkpoint");
+            }
+            Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+    
+    public static ExportCheckpoint load(Path checkpointFile) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new CsvProcessingException("CHECKPOINT_ERROR", "Failed to read export checkpoint: " + checkpointFile, e);
+        }
+        
+        try {
+            ExportCheckpoint checkpoint = new ExportCheckpoint(
+                    ExportMode.valueOf(properties.getProperty("exportMode")),
+                    CacheMode.valueOf(properties.getProperty("cacheMode")),
+                    parseDateTime(properties.getProperty("since")),
+                    parseDateTime(properties.getProperty("highWaterMark")),
+                    Paths.get(properties.getProperty("workingFile")),
+                    CsvCompression.valueOf(properties.getProperty("compression", CsvCompression.NONE.name())));
+            
+            String lastEmployeeId = properties.getProperty("lastEmployeeId");
+            checkpoint.advance(
+                    lastEmployeeId != null ? Long.valueOf(lastEmployeeId) : null,
+                    Long.parseLong(properties.getProperty("byteOffset", "0")),
+                    Long.parseLong(properties.getProperty("recordCount", "0")),
+                    Long.parseLong(properties.getProperty("invalidCount", "0")));
+            
+            String uploadId = properties.getProperty("upload.id");
+            if (uploadId != null) {
+                List<CommitMultipartUploadPartDetails> parts = new ArrayList<>();
+                for (String name : properties.stringPropertyNames()) {
+                    if (name.startsWith(PART_PREFIX)) {
+                        parts.add(CommitMultipartUploadPartDetails.builder()
+                                .partNum(Integer.parseInt(name.substring(PART_PREFIX.length())))
+                                .etag(properties.getProperty(name))
+                                .build());
+                    }
+                }
+                parts.sort(Comparator.comparing(CommitMultipartUploadPartDetails::getPartNum));
+                checkpoint.advanceUpload(properties.getProperty("upload.objectName"), uploadId, parts,
+                        Long.parseLong(properties.getProperty("upload.bytes")));
+            }
+            return checkpoint;
+            
+        } catch (RuntimeException e) {
+            throw new CsvProcessingException("CHECKPOINT_ERROR", "Corrupt export checkpoint: " + checkpointFile, e);
+        }
+    }
+    
+    private static LocalDateTime parseDateTime(String value) {
+        return value != null ? LocalDateTime.parse(value) : null;
+    }
+    
+    public ExportMode getExportMode() {
+        return exportMode;
+    }
+    
+    public CacheMode getCacheMode() {
+        return cacheMode;
+    }
+    
+    public LocalDateTime getSince() {
+        return since;
+    }
+    
+    public LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+    
+    public Path getWorkingFile() {
+        return workingFile;
+    }
+    
+    public CsvCompression getCompression() {
+        return compression;
+    }
+    
+    public Long getLastEmployeeId() {
+        return lastEmployeeId;
+    }
+    
+    public long getByteOffset() {
+        return byteOffset;
+    }
+    
+    public long getRecordCount() {
+        return recordCount;
+    }
+    
+    public long getInvalidCount() {
+        return invalidCount;
+    }
+    
+    public boolean hasUpload() {
+        return uploadId != null;
+    }
+    
+    public String getUploadObjectName() {
+        return uploadObjectName;
+    }
+    
+    public String getUploadId() {
+        return uploadId;
+    }
+    
+    public List<CommitMultipartUploadPartDetails> getUploadedParts() {
+        return uploadedParts;
+    }
+    
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.example.csvbatch.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+
+public class ExportJob {
+    
+    public enum State {
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED
+    }
+    
+    private final String id;
+    private final String key;
+    private final ExportProgress progress = new ExportProgress();
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    
+    private volatile State state = State.RUNNING;
+    private volatile LocalDateTime finishedAt;
+    private volatile long finishedNanos;
+    private volatile String outputLocation;
+    private volatile String errorMessage;
+    
+    public ExportJob(String id, String key) {
+        this.id = id;
+        this.key = key;
+    }
+    
+    void succeed(String outputLocation) {
+        this.outputLocation = outputLocation;
+        finish(State.SUCCEEDED);
+    }
+    
+    void fail(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finish(State.FAILED);
+    }
+    
+    void cancelled() {
+        finish(State.CANCELLED);
+    }
+    
+    private void finish(State finalState) {
+        this.finishedNanos = System.nanoTime();
+        this.finishedAt = LocalDateTime.now();
+        this.state = finalState;
+        finished.countDown();
+    }
+    
+    public boolean isFinished() {
+        return state != State.RUNNING;
+    }
+    
+    // Lets a synchronous request wait for the job instead of running a second export beside it.
+    public void awaitFinished() throws InterruptedException {
+        finished.await();
+    }
+    
+    public double getRowsPerSecond() {
+        long endNanos = isFinished() ? finishedNanos : System.nanoTime();
+        double elapsedSeconds = (endNanos - startNanos) / 1_000_000_000.0;
+        return elapsedSeconds > 0 ? progress.getRowsWritten() / elapsedSeconds : 0;
+    }
+    
+    // Null while the total is unknown (delta and resumed exports) or nothing has been written yet.
+    public Long getEtaSeconds() {
+        if (isFinished()) {
+            return 0L;
+        }
+        
+        Long totalRows = progress.getTotalRows();
+        double rowsPerSecond = getRowsPerSecond();
+        if (totalRows == null || rowsPerSecond <= 0) {
+            return null;
+        }
+        return (long) Math.ceil(Math.max(0, totalRows - progress.getRowsWritten()) / rowsPerSecond);
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public ExportProgress getProgress() {
+        return progress;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public String getOutputLocation() {
+        return outputLocation;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
\ No newline at end of file
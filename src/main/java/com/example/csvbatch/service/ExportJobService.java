@@ -0,0 +1,153 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.client.CacheMode;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.repository.EmployeeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@ApplicationScoped
+public class ExportJobService {
+    
+    private static final Logger LOGGER = Logger.getLogger(ExportJobService.class.getName());
+    
+    private static final String RESUME_JOB_KEY = "RESUME";
+    
+    @Inject
+    private CsvExportService csvExportService;
+    
+    @Inject
+    private EmployeeRepository employeeRepository;
+    
+    @Inject
+    @ConfigProperty(name = "csv.export.jobs.max-retained", defaultValue = "100")
+    private int maxRetainedJobs;
+    
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, ExportJob> jobs = new LinkedHashMap<>();
+    
+    public ExportJob submitExport(CacheMode cacheMode, ExportMode exportMode) {
+        return submit(exportMode + ":" + cacheMode, progress -> {
+            if (exportMode == ExportMode.FULL) {
+                estimateTotalRows(progress);
+            }
+            return csvExportService.exportEmployeesToCsv(cacheMode, exportMode, progress);
+        });
+    }
+    
+    public ExportJob submitResume() {
+        if (!csvExportService.hasResumableExport()) {
+            throw new CsvProcessingException("NO_CHECKPOINT", "No interrupted export to resume");
+        }
+        return submit(RESUME_JOB_KEY, progress -> csvExportService.resumeExport(progress));
+    }
+    
+    public ExportJob getJob(String jobId) {
+        lock.lock();
+        try {
+            return jobs.get(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Cooperative: each pipeline stage stops at its next row or batch boundary.
+    public ExportJob cancelJob(String jobId) {
+        ExportJob job = getJob(jobId);
+        if (job != null && !job.isFinished()) {
+            LOGGER.info("Cancelling export job " + jobId);
+            job.getProgress().cancel();
+        }
+        return job;
+    }
+    
+    private ExportJob submit(String key, Function<ExportProgress, String> task) {
+        lock.lock();
+        try {
+            // All exports share one working file, so only one may run at a time. An identical
+            // request attaches to the running job; a different one is rejected.
+            for (ExportJob job : jobs.values()) {
+                if (!job.isFinished()) {
+                    if (job.getKey().equals(key)) {
+                        LOGGER.info("Attaching " + key + " export request to running job " + job.getId());
+                        return job;
+                    }
+                    throw new CsvProcessingException("EXPORT_IN_PROGRESS",
+                            "Export job " + job.getId() + " (" + job.getKey() + ") is already running");
+                }
+            }
+            
+            evictFinishedJobs();
+            
+            ExportJob job = new ExportJob(UUID.randomUUID().toString(), key);
+            jobs.put(job.getId(), job);
+            executorService.submit(() -> run(job, task));
+            
+            LOGGER.info("Started " + key + " export job " + job.getId());
+            return job;
+            
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void run(ExportJob job, Function<ExportProgress, String> task) {
+        try {
+            job.succeed(task.apply(job.getProgress()));
+            LOGGER.info("Export job " + job.getId() + " completed: " + job.getOutputLocation());
+            
+        } catch (Exception e) {
+            if (job.getProgress().isCancelled()) {
+                job.cancelled();
+                LOGGER.info("Export job " + job.getId() + " cancelled after "
+                        + job.getProgress().getRowsWritten() + " rows");
+            } else {
+                job.fail(e.getMessage());
+                LOGGER.log(Level.SEVERE, "Export job " + job.getId() + " failed", e);
+            }
+        }
+    }
+    
+    private void estimateTotalRows(ExportProgress progress) {
+        try {
+            progress.setTotalRows((long) employeeRepository.countEmployees());
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Could not count employees, export ETA will be unavailable", e);
+        }
+    }
+    
+    private void evictFinishedJobs() {
+        Iterator<ExportJob> iterator = jobs.values().iterator();
+        while (jobs.size() >= maxRetainedJobs && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            jobs.values().forEach(job -> job.getProgress().cancel());
+        } finally {
+            lock.unlock();
+        }
+        executorService.shutdown();
+    }
+}
\ No newline at end of file
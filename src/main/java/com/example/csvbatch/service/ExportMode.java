@@ -0,0 +1,6 @@
+package com.example.csvbatch.service;
+
+public enum ExportMode {
+    FULL,
+    DELTA
+}
\ No newline at end of file
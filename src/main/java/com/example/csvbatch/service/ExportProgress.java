@@ -0,0 +1,97 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.exception.ExportCancelledException;
+import com.example.csvbatch.metrics.StageLatencies;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ExportProgress {
+    
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsEnriched = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong bytesUploaded = new AtomicLong();
+    
+    private volatile Long totalRows;
+    private volatile boolean cancelled;
+    private volatile StageLatencies stageLatencies;
+    private volatile ExportCheckpoint checkpoint;
+    
+    public void rowsRead(long count) {
+        rowsRead.addAndGet(count);
+    }
+    
+    public void rowsEnriched(long count) {
+        rowsEnriched.addAndGet(count);
+    }
+    
+    public void rowsWritten(long count) {
+        rowsWritten.addAndGet(count);
+    }
+    
+    public void bytesUploaded(long count) {
+        bytesUploaded.addAndGet(count);
+    }
+    
+    // A retried upload starts over from the first byte.
+    public void resetBytesUploaded() {
+        bytesUploaded.set(0);
+    }
+    
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    // Called between units of work by each pipeline stage.
+    public void checkCancelled() {
+        if (cancelled) {
+            throw new ExportCancelledException("Export was cancelled");
+        }
+    }
+    
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+    
+    public long getRowsEnriched() {
+        return rowsEnriched.get();
+    }
+    
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+    
+    public long getBytesUploaded() {
+        return bytesUploaded.get();
+    }
+    
+    public Long getTotalRows() {
+        return totalRows;
+    }
+    
+    public void setTotalRows(Long totalRows) {
+        this.totalRows = totalRows;
+    }
+    
+    // Stage latency percentiles of this export; null until it has completed.
+    public StageLatencies getStageLatencies() {
+        return stageLatencies;
+    }
+    
+    public void setStageLatencies(StageLatencies stageLatencies) {
+        this.stageLatencies = stageLatencies;
+    }
+    
+    // The streaming export this progress belongs to; a retry with the same progress resumes it.
+    ExportCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+    
+    void setCheckpoint(ExportCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// Records how long each write to the wrapped channel takes. Closing it does not close the
+// wrapped channel; its owner does.
+public class LatencyRecordingChannel implements WritableByteChannel {
+    
+    private final WritableByteChannel target;
+    private final LatencyHistogram latency;
+    
+    public LatencyRecordingChannel(WritableByteChannel target, LatencyHistogram latency) {
+        this.target = target;
+        this.latency = latency;
+    }
+    
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return target.write(src);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+    
+    @Override
+    public boolean isOpen() {
+        return target.isOpen();
+    }
+    
+    @Override
+    public void close() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.example.csvbatch.service;
+
+import com.oracle.bmc.monitoring.model.Datapoint;
+import com.oracle.bmc.monitoring.model.MetricDataDetails;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Aggregates datapoints per metric without locks, so recording one is a few atomic updates and
+// never a network call. drain() turns everything recorded since the last drain into one
+// datapoint per metric for a batched PostMetricData request.
+public class MetricBuffer {
+    
+    public enum Kind {
+        // Posted as the sum over the interval
+        COUNTER,
+        // Posted as the last recorded value
+        GAUGE,
+        // Posted as the mean with the sample count, plus <name>_min and <name>_max
+        DISTRIBUTION
+    }
+    
+    private static final long POSITIVE_INFINITY_BITS = Double.doubleToLongBits(Double.POSITIVE_INFINITY);
+    private static final long NEGATIVE_INFINITY_BITS = Double.doubleToLongBits(Double.NEGATIVE_INFINITY);
+    
+    private final String namespace;
+    private final Map<String, String> dimensions;
+    private final int maxSeries;
+    
+    private final ConcurrentHashMap<String, Accumulator> accumulators = new ConcurrentHashMap<>();
+    private final LongAdder shedDatapoints = new LongAdder();
+    
+    private MetricBuffer(Builder builder) {
+        if (builder.maxSeries < 1) {
+            throw new IllegalArgumentException("Max series must be positive: " + builder.maxSeries);
+        }
+        this.namespace = builder.namespace;
+        this.dimensions = new HashMap<>(builder.dimensions);
+        this.maxSeries = builder.maxSeries;
+    }
+    
+    public static class Builder {
+        private String namespace;
+        private Map<String, String> dimensions = new HashMap<>();
+        private int maxSeries = 1000;
+        
+        public Builder namespace(String namespace) {
+            this.namespace = namespace;
+            return this;
+        }
+        
+        public Builder dimensions(Map<String, String> dimensions) {
+            this.dimensions = dimensions;
+            return this;
+        }
+        
+        public Builder maxSeries(int maxSeries) {
+            this.maxSeries = maxSeries;
+            return this;
+        }
+        
+        public MetricBuffer build() {
+            return new MetricBuffer(this);
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    // Returns false when the datapoint was shed because the buffer already holds maxSeries metrics.
+    public boolean record(String name, Kind kind, double value) {
+        Accumulator accumulator = accumulators.get(name);
+        if (accumulator == null) {
+            if (accumulators.size() >= maxSeries) {
+                shedDatapoints.increment();
+                return false;
+            }
+            accumulator = accumulators.computeIfAbsent(name, key -> new Accumulator(kind));
+        }
+        accumulator.add(value);
+        return true;
+    }
+    
+    // A datapoint recorded while this runs may have its count and sum land in different
+    // intervals; nothing is lost, it only shifts by one flush.
+    public List<MetricDataDetails> drain(Date timestamp) {
+        List<MetricDataDetails> metricData = new ArrayList<>();
+        accumulators.forEach((name, accumulator) -> {
+            long count = accumulator.count.sumThenReset();
+            if (count == 0) {
+                return;
+            }
+            double sum = accumulator.sum.sumThenReset();
+            double min = Double.longBitsToDouble(accumulator.min.getAndSet(POSITIVE_INFINITY_BITS));
+            double max = Double.longBitsToDouble(accumulator.max.getAndSet(NEGATIVE_INFINITY_BITS));
+            
+            switch (accumulator.kind) {
+                case COUNTER -> metricData.add(metric(name, timestamp, sum, 1));
+                case GAUGE -> metricData.add(metric(name, timestamp, accumulator.last, 1));
+                case DISTRIBUTION -> {
+                    metricData.add(metric(name, timestamp, sum / count, (int) Math.min(count, Integer.MAX_VALUE)));
+                    // Infinite only if a racing record() reset the interval before its first value landed.
+                    if (!Double.isInfinite(min) && !Double.isInfinite(max)) {
+                        metricData.add(metric(name + "_min", timestamp, min, 1));
+                        metricData.add(metric(name + "_max", timestamp, max, 1));
+                    }
+                }
+            }
+        });
+        return metricData;
+    }
+    
+    public int getSeriesCount() {
+        return accumulators.size();
+    }
+    
+    public long getShedDatapoints() {
+        return shedDatapoints.sum();
+    }
+    
+    private MetricDataDetails metric(String name, Date timestamp, double value, int count) {
+        return MetricDataDetails.builder()
+                .namespace(namespace)
+                .name(name)
+                .dimensions(dimensions)
+                .datapoints(List.of(Datapoint.builder()
+                        .timestamp(timestamp)
+                        .value(value)
+                        .count(count)
+                        .build()))
+                .build();
+    }
+    
+    private static class Accumulator {
+        final Kind kind;
+        final LongAdder count = new LongAdder();
+        final DoubleAdder sum = new DoubleAdder();
+        final AtomicLong min = new AtomicLong(POSITIVE_INFINITY_BITS);
+        final AtomicLong max = new AtomicLong(NEGATIVE_INFINITY_BITS);
+        volatile double last;
+        
+        Accumulator(Kind kind) {
+            this.kind = kind;
+        }
+        
+        void add(double value) {
+            long bits = Double.doubleToLongBits(value);
+            min.accumulateAndGet(bits, (current, update) ->
+                    Double.longBitsToDouble(update) < Double.longBitsToDouble(current) ? update : current);
+            max.accumulateAndGet(bits, (current, update) ->
+                    Double.longBitsToDouble(update) > Double.longBitsToDouble(current) ? update : current);
+            sum.add(value);
+            last = value;
+            count.increment();
+        }
+    }
+}
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.example.csvbatch.service;
 
-import com.oracle.bmc.monitoring.MonitoringClient;
-import com.oracle.bmc.monitoring.model.Datapoint;
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.monitoring.Monitoring;
 import com.oracle.bmc.monitoring.model.MetricDataDetails;
 import com.oracle.bmc.monitoring.model.PostMetricDataDetails;
 import com.oracle.bmc.monitoring.requests.PostMetricDataRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -13,9 +15,14 @@ import org.eclipse.microprofile.metrics.Gauge;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.annotation.Metric;
 
-import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,9 +30,12 @@ import java.util.logging.Logger;
 public class MonitoringService {
     
     private static final Logger LOGGER = Logger.getLogger(MonitoringService.class.getName());
+    private static final String METRIC_NAMESPACE = "csv_batch_processor";
+    // PostMetricData accepts at most this many metric objects per request
+    private static final int MAX_METRIC_DATA_PER_REQUEST = 50;
     
     @Inject
-    private MonitoringClient monitoringClient;
+    private Monitoring monitoringClient;
     
     @Inject
     @ConfigProperty(name = "oci.region")
@@ -39,79 +49,163 @@ public class MonitoringService {
     @Metric(name = "app.processing.errors")
     private Counter processingErrorsCounter;
     
+    @Inject
+    @ConfigProperty(name = "metrics.export.enabled", defaultValue = "true")
+    private boolean exportEnabled;
+    
+    @Inject
+    @ConfigProperty(name = "metrics.export.interval", defaultValue = "60000")
+    private long exportIntervalMs;
+    
+    @Inject
+    @ConfigProperty(name = "metrics.export.max-series", defaultValue = "1000")
+    private int maxSeries;
+    
+    @Inject
+    @ConfigProperty(name = "metrics.export.max-backlog", defaultValue = "5000")
+    private int maxBacklog;
+    
+    // Striped so concurrent export threads do not contend on a single counter
+    private final LongAdder recordsProcessed = new LongAdder();
+    private final LongAdder processingErrors = new LongAdder();
     private final AtomicInteger currentActiveJobs = new AtomicInteger(0);
-    private final Map<String, Long> performanceMetrics = new HashMap<>();
+    // Last value per key; the AtomicLong is created once, later updates never lock the map
+    private final ConcurrentHashMap<String, AtomicLong> performanceMetrics = new ConcurrentHashMap<>();
+    
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private final LongAdder shedMetricData = new LongAdder();
+    // Metric data that is drained but not yet accepted by Monitoring; only touched inside flush()
+    private final Deque<MetricDataDetails> backlog = new ArrayDeque<>();
+    private MetricBuffer metricBuffer;
+    
+    @PostConstruct
+    public void start() {
+        Map<String, String> dimensions = new HashMap<>();
+        dimensions.put("service", "csv-batch-processor");
+        dimensions.put("region", region);
+        dimensions.put("environment", System.getProperty("app.environment", "development"));
+        
+        metricBuffer = MetricBuffer.builder()
+                .namespace(METRIC_NAMESPACE)
+                .dimensions(dimensions)
+                .maxSeries(maxSeries)
+                .build();
+        
+        if (exportEnabled) {
+            scheduler.scheduleAtFixedRate(this::flushQuietly, exportIntervalMs, exportIntervalMs, TimeUnit.MILLISECONDS);
+            LOGGER.info("Custom metrics are posted to Monitoring every " + exportIntervalMs + " ms");
+        }
+    }
     
-    public void recordProcessedRecords(int count) {
-        for (int i = 0; i < count; i++) {
-            recordsProcessedCounter.inc();
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        if (exportEnabled) {
+            flushQuietly();
         }
-        
-        sendCustomMetric("csv_batch_processor", "records_processed", (double) count);
+    }
+    
+    public void recordProcessedRecords(int count) {
+        recordsProcessed.add(count);
+        recordsProcessedCounter.inc(count);
+        record("records_processed", MetricBuffer.Kind.COUNTER, count);
     }
     
     public void recordProcessingError() {
-        processingErrorsCounter.inc();
-        sendCustomMetric("csv_batch_processor", "processing_errors", 1.0);
+        recordProcessingErrors(1);
+    }
+    
+    public void recordProcessingErrors(int count) {
+        processingErrors.add(count);
+        processingErrorsCounter.inc(count);
+        record("processing_errors", MetricBuffer.Kind.COUNTER, count);
     }
     
     public void recordJobStart() {
-        currentActiveJobs.incrementAndGet();
-        sendCustomMetric("csv_batch_processor", "active_jobs", currentActiveJobs.get());
+        record("active_jobs", MetricBuffer.Kind.GAUGE, currentActiveJobs.incrementAndGet());
     }
     
     public void recordJobCompletion(long durationMs) {
-        currentActiveJobs.decrementAndGet();
-        performanceMetrics.put("last_job_duration_ms", durationMs);
+        setPerformanceMetric("last_job_duration_ms", durationMs);
         
-        sendCustomMetric("csv_batch_processor", "active_jobs", currentActiveJobs.get());
-        sendCustomMetric("csv_batch_processor", "job_duration_ms", (double) durationMs);
+        record("active_jobs", MetricBuffer.Kind.GAUGE, currentActiveJobs.decrementAndGet());
+        record("job_duration_ms", MetricBuffer.Kind.DISTRIBUTION, durationMs);
     }
     
     public void recordDatabaseOperationTime(String operation, long durationMs) {
-        performanceMetrics.put("db_" + operation + "_ms", durationMs);
-        sendCustomMetric("csv_batch_processor", "db_operation_duration", (double) durationMs);
+        setPerformanceMetric("db_" + operation + "_ms", durationMs);
+        record("db_operation_duration", MetricBuffer.Kind.DISTRIBUTION, durationMs);
     }
     
     public void recordObjectStorageOperationTime(String operation, long durationMs) {
-        performanceMetrics.put("storage_" + operation + "_ms", durationMs);
-        sendCustomMetric("csv_batch_processor", "storage_operation_duration", (double) durationMs);
+        setPerformanceMetric("storage_" + operation + "_ms", durationMs);
+        record("storage_operation_duration", MetricBuffer.Kind.DISTRIBUTION, durationMs);
     }
     
-    private void sendCustomMetric(String namespace, String metricName, double value) {
-        try {
-            Map<String, String> dimensions = new HashMap<>();
-            dimensions.put("service", "csv-batch-processor");
-            dimensions.put("region", region);
-            dimensions.put("environment", System.getProperty("app.environment", "development"));
-            
-            Datapoint datapoint = Datapoint.builder()
-                    .timestamp(Date.from(Instant.now()))
-                    .value(value)
-                    .count(1)
-                    .build();
-            
-            MetricDataDetails metricData = MetricDataDetails.builder()
-                    .namespace(namespace)
-                    .name(metricName)
-                    .dimensions(dimensions)
-                    .datapoints(Arrays.asList(datapoint))
-                    .build();
-            
-            PostMetricDataDetails postMetricDataDetails = PostMetricDataDetails.builder()
-                    .metricData(Arrays.asList(metricData))
-                    .build();
-            
-            PostMetricDataRequest request = PostMetricDataRequest.builder()
-                    .postMetricDataDetails(postMetricDataDetails)
-                    .build();
-            
-            monitoringClient.postMetricData(request);
+    private void setPerformanceMetric(String key, long value) {
+        AtomicLong metric = performanceMetrics.get(key);
+        if (metric == null) {
+            metric = performanceMetrics.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        metric.set(value);
+    }
+    
+    // Only updates the in-memory aggregate; the scheduler posts it with the next batch.
+    private void record(String metricName, MetricBuffer.Kind kind, double value) {
+        if (exportEnabled) {
+            metricBuffer.record(metricName, kind, value);
+        }
+    }
+    
+    // Posts everything aggregated since the last flush, in as few requests as the API allows.
+    // Metric data that could not be posted is retried next time, up to maxBacklog entries.
+    synchronized void flush() {
+        backlog.addAll(metricBuffer.drain(new Date()));
+        while (backlog.size() > maxBacklog) {
+            backlog.removeFirst();
+            shedMetricData.increment();
+        }
+        
+        while (!backlog.isEmpty()) {
+            List<MetricDataDetails> batch = new ArrayList<>(MAX_METRIC_DATA_PER_REQUEST);
+            Iterator<MetricDataDetails> iterator = backlog.iterator();
+            while (iterator.hasNext() && batch.size() < MAX_METRIC_DATA_PER_REQUEST) {
+                batch.add(iterator.next());
+            }
             
-            LOGGER.fine("Sent custom metric: " + metricName + " = " + value);
+            try {
+                monitoringClient.postMetricData(PostMetricDataRequest.builder()
+                        .postMetricDataDetails(PostMetricDataDetails.builder()
+                                .metricData(batch)
+                                .build())
+                        .build());
+                LOGGER.fine("Sent " + batch.size() + " custom metrics");
+                
+            } catch (BmcException e) {
+                if (e.getStatusCode() < 400 || e.getStatusCode() >= 500 || e.getStatusCode() == 429) {
+                    LOGGER.log(Level.WARNING, "Failed to send " + batch.size() + " custom metrics, will retry", e);
+                    return;
+                }
+                // Rejected as invalid (e.g. too old); sending it again would fail the same way.
+                LOGGER.log(Level.WARNING, "Dropped " + batch.size() + " custom metrics rejected by Monitoring", e);
+                shedMetricData.add(batch.size());
+                
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Failed to send " + batch.size() + " custom metrics, will retry", e);
+                return;
+            }
             
+            for (int i = 0; i < batch.size(); i++) {
+                backlog.removeFirst();
+            }
+        }
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
         } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Failed to send custom metric: " + metricName, e);
+            LOGGER.log(Level.WARNING, "Failed to flush custom metrics", e);
         }
     }
     
@@ -120,19 +214,25 @@ public class MonitoringService {
     }
     
     public Gauge<Long> createLastJobDurationGauge() {
-        return () -> performanceMetrics.getOrDefault("last_job_duration_ms", 0L);
+        return () -> {
+            AtomicLong duration = performanceMetrics.get("last_job_duration_ms");
+            return duration != null ? duration.get() : 0L;
+        };
     }
     
+    // A detached copy: every accumulator is read exactly once, so the values cannot change
+    // while the response is built and callers may add their own entries.
     public Map<String, Object> getApplicationMetrics() {
         Map<String, Object> metrics = new HashMap<>();
-        metrics.put("records_processed", recordsProcessedCounter.getCount());
-        metrics.put("processing_errors", processingErrorsCounter.getCount());
+        metrics.put("records_processed", recordsProcessed.sum());
+        metrics.put("processing_errors", processingErrors.sum());
         metrics.put("active_jobs", currentActiveJobs.get());
-        metrics.putAll(performanceMetrics);
+        metrics.put("metrics_shed", metricBuffer.getShedDatapoints() + shedMetricData.sum());
+        performanceMetrics.forEach((key, value) -> metrics.put(key, value.get()));
         return metrics;
     }
     
     public void sendHealthCheckMetric(String component, boolean isHealthy) {
-        sendCustomMetric("csv_batch_processor", "health_check_" + component, isHealthy ? 1.0 : 0.0);
+        record("health_check_" + component, MetricBuffer.Kind.GAUGE, isHealthy ? 1.0 : 0.0);
     }
 }
\ No newline at end of file
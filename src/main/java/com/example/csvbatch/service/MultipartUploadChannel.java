@@ -0,0 +1,384 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.exception.ObjectStorageException;
+import com.example.csvbatch.metrics.LatencyHistogram;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadDetails;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadPartDetails;
+import com.oracle.bmc.objectstorage.requests.AbortMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.CommitMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Uploads whatever is written to it as the parts of one multipart upload, so an object can be
+// sent while it is still being produced. Nothing is visible in the bucket until complete();
+// closing without completing aborts the upload and discards the parts already sent, while
+// suspend() keeps them so a later channel for the same upload can continue after them.
+public class MultipartUploadChannel implements WritableByteChannel {
+    
+    private static final Logger LOGGER = Logger.getLogger(MultipartUploadChannel.class.getName());
+    
+    private final ObjectStorage client;
+    private final String namespace;
+    private final String bucketName;
+    private final String objectName;
+    private final String uploadId;
+    private final int partSize;
+    private final int parallelism;
+    private final int partRetries;
+    private final long retryDelayMs;
+    private final ExecutorService executor;
+    private final ExportProgress progress;
+    private final Runnable onComplete;
+    private final LatencyHistogram partLatency;
+    
+    private final Deque<CompletableFuture<CommitMultipartUploadPartDetails>> pending = new ArrayDeque<>();
+    private final List<CommitMultipartUploadPartDetails> uploadedParts = new ArrayList<>();
+    private final ConcurrentLinkedQueue<byte[]> spareParts = new ConcurrentLinkedQueue<>();
+    
+    private byte[] part;
+    private int partLength;
+    private int nextPartNum;
+    private long submittedBytes;
+    private boolean open = true;
+    private boolean committed;
+    
+    private MultipartUploadChannel(Builder builder) {
+        if (builder.partSize < 1 || builder.parallelism < 1) {
+            throw new IllegalArgumentException("Invalid multipart settings: part size " + builder.partSize
+                    + ", parallelism " + builder.parallelism);
+        }
+        this.client = builder.client;
+        this.namespace = builder.namespace;
+        this.bucketName = builder.bucketName;
+        this.objectName = builder.objectName;
+        this.uploadId = builder.uploadId;
+        this.partSize = builder.partSize;
+        this.parallelism = builder.parallelism;
+        this.partRetries = builder.partRetries;
+        this.retryDelayMs = builder.retryDelayMs;
+        this.executor = builder.executor;
+        this.progress = builder.progress;
+        this.onComplete = builder.onComplete;
+        this.partLatency = builder.partLatency;
+        this.part = new byte[partSize];
+        this.uploadedParts.addAll(builder.uploadedParts);
+        this.nextPartNum = builder.uploadedParts.stream()
+                .mapToInt(CommitMultipartUploadPartDetails::getPartNum)
+                .max()
+                .orElse(0) + 1;
+        this.submittedBytes = builder.uploadedBytes;
+    }
+    
+    public static class Builder {
+        private ObjectStorage client;
+        private String namespace;
+        private String bucketName;
+        private String objectName;
+        private String uploadId;
+        private int partSize = 16 * 1024 * 1024;
+        private int parallelism = 4;
+        private int partRetries = 3;
+        private long retryDelayMs = 1000;
+        private ExecutorService executor;
+        private ExportProgress progress = new ExportProgress();
+        private Runnable onComplete = () -> { };
+        private LatencyHistogram partLatency = new LatencyHistogram();
+        private List<CommitMultipartUploadPartDetails> uploadedParts = List.of();
+        private long uploadedBytes;
+        
+        public Builder client(ObjectStorage client) {
+            this.client = client;
+            return this;
+        }
+        
+        public Builder namespace(String namespace) {
+            this.namespace = namespace;
+            return this;
+        }
+        
+        public Builder bucketName(String bucketName) {
+            this.bucketName = bucketName;
+            return this;
+        }
+        
+        public Builder objectName(String objectName) {
+            this.objectName = objectName;
+            return this;
+        }
+        
+        public Builder uploadId(String uploadId) {
+            this.uploadId = uploadId;
+            return this;
+        }
+        
+        public Builder partSize(int partSize) {
+            this.partSize = partSize;
+            return this;
+        }
+        
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+        
+        public Builder partRetries(int partRetries) {
+            this.partRetries = partRetries;
+            return this;
+        }
+        
+        public Builder retryDelayMs(long retryDelayMs) {
+            this.retryDelayMs = retryDelayMs;
+            return this;
+        }
+        
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+        
+        public Builder progress(ExportProgress progress) {
+            this.progress = progress;
+            return this;
+        }
+        
+        // Runs once the object is committed and visible in the bucket.
+        public Builder onComplete(Runnable onComplete) {
+            this.onComplete = onComplete;
+            return this;
+        }
+        
+        // Each part upload, retries included, is recorded here.
+        public Builder partLatency(LatencyHistogram partLatency) {
+            this.partLatency = partLatency;
+            return this;
+        }
+        
+        // Continues an upload whose first uploadedBytes bytes were already sent as these parts.
+        public Builder uploadedParts(List<CommitMultipartUploadPartDetails> uploadedParts, long uploadedBytes) {
+            this.uploadedParts = uploadedParts;
+            this.uploadedBytes = uploadedBytes;
+            return this;
+        }
+        
+        public MultipartUploadChannel build() {
+            return new MultipartUploadChannel(this);
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        
+        int written = src.remaining();
+        while (src.hasRemaining()) {
+            int count = Math.min(src.remaining(), partSize - partLength);
+            src.get(part, partLength, count);
+            partLength += count;
+            if (partLength == partSize) {
+                submitPart();
+            }
+        }
+        return written;
+    }
+    
+    // Uploads the last part, waits for every part and commits them as one object.
+    public String complete() throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        
+        try {
+            // An upload needs at least one part, even for an empty object.
+            if (partLength > 0 || nextPartNum == 1) {
+                submitPart();
+            }
+            while (!pending.isEmpty()) {
+                completeOldestPart();
+            }
+            
+            CommitMultipartUploadDetails details = CommitMultipartUploadDetails.builder()
+                    .partsToCommit(uploadedParts)
+                    .build();
+            withRetries("commit", () -> client.commitMultipartUpload(CommitMultipartUploadRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .uploadId(uploadId)
+                    .commitMultipartUploadDetails(details)
+                    .build()).getETag());
+            committed = true;
+            onComplete.run();
+            
+            LOGGER.info("Committed multipart upload of " + objectName + " (" + uploadedParts.size() + " parts)");
+            return objectName;
+            
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+    
+    public String getObjectName() {
+        return objectName;
+    }
+    
+    public String getUploadId() {
+        return uploadId;
+    }
+    
+    // Waits for the parts in flight and returns every part uploaded so far. The bytes written
+    // after getUploadedBytes() are still buffered and have to be written again after a resume.
+    public List<CommitMultipartUploadPartDetails> awaitUploadedParts() throws IOException {
+        while (!pending.isEmpty()) {
+            completeOldestPart();
+        }
+        return List.copyOf(uploadedParts);
+    }
+    
+    public long getUploadedBytes() {
+        return submittedBytes;
+    }
+    
+    private void submitPart() throws IOException {
+        // Bounds memory to one part per upload in flight and keeps parts in order for the commit.
+        while (pending.size() >= parallelism) {
+            completeOldestPart();
+        }
+        
+        byte[] data = part;
+        int length = partLength;
+        int partNum = nextPartNum++;
+        submittedBytes += length;
+        
+        byte[] spare = spareParts.poll();
+        part = spare != null ? spare : new byte[partSize];
+        partLength = 0;
+        pending.addLast(CompletableFuture.supplyAsync(() -> uploadPart(partNum, data, length), executor));
+    }
+    
+    private CommitMultipartUploadPartDetails uploadPart(int partNum, byte[] data, int length) {
+        long start = System.nanoTime();
+        try {
+            String eTag = withRetries("part " + partNum, () -> client.uploadPart(UploadPartRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .uploadId(uploadId)
+                    .uploadPartNum(partNum)
+                    .uploadPartBody(new ByteArrayInputStream(data, 0, length))
+                    .contentLength((long) length)
+                    .build()).getETag());
+            
+            progress.bytesUploaded(length);
+            return CommitMultipartUploadPartDetails.builder()
+                    .partNum(partNum)
+                    .etag(eTag)
+                    .build();
+                    
+        } finally {
+            partLatency.record(System.nanoTime() - start);
+            spareParts.offer(data);
+        }
+    }
+    
+    // Each part is retried on its own, so one failed request does not restart the whole upload.
+    private String withRetries(String operation, Supplier<String> request) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return request.get();
+                
+            } catch (RuntimeException e) {
+                if (attempt > partRetries) {
+                    throw new ObjectStorageException("Multipart upload " + operation + " failed for "
+                            + objectName + " after " + attempt + " attempts", e);
+                }
+                LOGGER.log(Level.WARNING, "Multipart upload " + operation + " failed for " + objectName
+                        + ", retrying (attempt " + attempt + ")", e);
+                
+                try {
+                    Thread.sleep(retryDelayMs * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new ObjectStorageException("Multipart upload " + operation + " interrupted", e);
+                }
+            }
+        }
+    }
+    
+    private void completeOldestPart() throws IOException {
+        try {
+            uploadedParts.add(pending.removeFirst().join());
+        } catch (CompletionException e) {
+            throw new IOException("Failed to upload part of " + objectName, e.getCause());
+        }
+    }
+    
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+    
+    // Stops without aborting, so the parts already uploaded stay available to a resumed export.
+    public void suspend() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        
+        // A part still in flight could otherwise land after a resumed run has sent that part number again.
+        pending.forEach(future -> future.handle((part, e) -> part).join());
+        pending.clear();
+        LOGGER.info("Suspended multipart upload " + uploadId + " of " + objectName);
+    }
+    
+    // Aborts the upload unless it was completed, so a failed export leaves no parts behind.
+    @Override
+    public void close() {
+        if (!open) {
+            return;
+        }
+        open = false;
+        
+        pending.forEach(future -> future.cancel(true));
+        pending.clear();
+        if (committed) {
+            return;
+        }
+        
+        try {
+            client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .uploadId(uploadId)
+                    .build());
+            LOGGER.info("Aborted multipart upload of " + objectName);
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to abort multipart upload " + uploadId + " of " + objectName, e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.csvbatch.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Holds one complete listing for a short time. Only one caller reloads it at a time, and a
+// listing loaded while an invalidation happened is handed out once but never cached.
+public class ObjectListingCache {
+    
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    
+    private ObjectListingCache(Builder builder) {
+        this.ttlNanos = builder.ttl.toNanos();
+        this.clock = builder.clock;
+    }
+    
+    public static class Builder {
+        private Duration ttl = Duration.ofSeconds(30);
+        private LongSupplier clock = System::nanoTime;
+        
+        public Builder ttl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+        
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+        
+        public ObjectListingCache build() {
+            return new ObjectListingCache(this);
+        }
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    public List<String> get(Supplier<List<String>> loader) {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            hits.incrementAndGet();
+            return current.names;
+        }
+        
+        loadLock.lock();
+        try {
+            // Another caller may have reloaded it while this one was waiting.
+            current = snapshot;
+            if (isFresh(current)) {
+                hits.incrementAndGet();
+                return current.names;
+            }
+            
+            long loadGeneration = generation.get();
+            long loadedAt = clock.getAsLong();
+            List<String> names = List.copyOf(loader.get());
+            loads.incrementAndGet();
+            
+            if (generation.get() == loadGeneration) {
+                snapshot = new Snapshot(names, loadedAt, loadGeneration);
+            }
+            return names;
+            
+        } finally {
+            loadLock.unlock();
+        }
+    }
+    
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getLoads() {
+        return loads.get();
+    }
+    
+    private boolean isFresh(Snapshot current) {
+        return current != null
+                && current.generation == generation.get()
+                && clock.getAsLong() - current.loadedAt < ttlNanos;
+    }
+    
+    private static class Snapshot {
+        final List<String> names;
+        final long loadedAt;
+        final long generation;
+        
+        Snapshot(List<String> names, long loadedAt, long generation) {
+            this.names = names;
+            this.loadedAt = loadedAt;
+            this.generation = generation;
+        }
+    }
+}
\ No newline at end of file
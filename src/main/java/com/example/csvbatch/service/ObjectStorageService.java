@@ -1,11 +1,14 @@
 package com.example.csvbatch.service;
 
 import com.example.csvbatch.exception.ObjectStorageException;
+import com.example.csvbatch.metrics.LatencyHistogram;
+import com.oracle.bmc.model.Range;
 import com.oracle.bmc.objectstorage.ObjectStorage;
 import com.oracle.bmc.objectstorage.model.*;
 import com.oracle.bmc.objectstorage.requests.*;
 import com.oracle.bmc.objectstorage.responses.*;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
@@ -14,11 +17,20 @@ import org.eclipse.microprofile.metrics.annotation.Counted;
 import org.eclipse.microprofile.metrics.annotation.Timed;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -45,8 +57,45 @@ public class ObjectStorageService {
     @ConfigProperty(name = "oci.objectstorage.prefix", defaultValue = "exports/")
     private String objectPrefix;
     
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.multipart.enabled", defaultValue = "false")
+    private boolean multipartEnabled;
+    
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.multipart.part-size", defaultValue = "16777216")
+    private int multipartPartSize;
+    
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.multipart.parallelism", defaultValue = "4")
+    private int multipartParallelism;
+    
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.multipart.part-retries", defaultValue = "3")
+    private int multipartPartRetries;
+    
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.multipart.retry-delay-ms", defaultValue = "1000")
+    private long multipartRetryDelayMs;
+    
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.list.page-size", defaultValue = "1000")
+    private int listPageSize;
+    
+    @Inject
+    @ConfigProperty(name = "oci.objectstorage.list.cache-ttl-seconds", defaultValue = "30")
+    private long listCacheTtlSeconds;
+    
+    private final ExecutorService uploadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private ObjectListingCache listingCache = ObjectListingCache.builder().build();
+    // A file small enough for a single PutObject counts as one part
+    private final LatencyHistogram partUploadLatency = new LatencyHistogram();
+    
     @PostConstruct
     public void initializeBucket() {
+        listingCache = ObjectListingCache.builder()
+                .ttl(Duration.ofSeconds(listCacheTtlSeconds))
+                .build();
+        
         try {
             if (!bucketExists()) {
                 createBucket();
@@ -105,14 +154,8 @@ public class ObjectStorageService {
     @Timed(name = "objectstorage.upload.time")
     public String uploadCsvFile(String csvContent, int recordCount, long processingTimeMs) {
         LocalDateTime now = LocalDateTime.now();
-        String dateFolder = now.format(DATE_FORMATTER);
-        String timestamp = now.format(TIMESTAMP_FORMATTER);
-        String objectName = objectPrefix + dateFolder + "/result-" + timestamp + ".csv";
-        
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("record-count", String.valueOf(recordCount));
-        metadata.put("processing-time-ms", String.valueOf(processingTimeMs));
-        metadata.put("upload-timestamp", now.toString());
+        String objectName = generateObjectName(now);
+        Map<String, String> metadata = buildMetadata(now, recordCount, processingTimeMs);
         
         try {
             byte[] contentBytes = csvContent.getBytes(StandardCharsets.UTF_8);
@@ -129,6 +172,7 @@ public class ObjectStorageService {
                     .build();
             
             PutObjectResponse response = objectStorageClient.putObject(request);
+            listingCache.invalidate();
             
             LOGGER.info("CSV file uploaded successfully to Object Storage");
             LOGGER.info("Object: " + objectName);
@@ -143,6 +187,228 @@ public class ObjectStorageService {
         }
     }
     
+    // The file is uploaded as written; a compressed file keeps its gzip bytes and is labelled
+    // with Content-Encoding so HTTP clients can decode it on the fly.
+    @Retry(maxRetries = 3, delay = 2000)
+    @Counted(name = "objectstorage.upload.file.count")
+    @Timed(name = "objectstorage.upload.file.time")
+    public String uploadCsvFile(Path csvFile, int recordCount, long processingTimeMs, String fileStem,
+                                CsvCompression compression, ExportProgress progress) {
+        LocalDateTime now = LocalDateTime.now();
+        String objectName = generateObjectName(now, fileStem) + compression.getExtension();
+        Map<String, String> metadata = buildMetadata(now, recordCount, processingTimeMs);
+        metadata.put("compression", compression.name().toLowerCase());
+        
+        try {
+            if (multipartEnabled && Files.size(csvFile) > multipartPartSize) {
+                return uploadCsvFileMultipart(csvFile, objectName, metadata, compression, progress);
+            }
+        } catch (IOException e) {
+            throw new ObjectStorageException("Failed to read CSV file: " + csvFile, e);
+        }
+        
+        progress.resetBytesUploaded();
+        try (InputStream inputStream = new ProgressInputStream(Files.newInputStream(csvFile), progress)) {
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .putObjectBody(inputStream)
+                    .contentLength(Files.size(csvFile))
+                    .contentType("text/csv")
+                    .contentEncoding(compression.getContentEncoding())
+                    .opcMeta(metadata)
+                    .build();
+            
+            long start = System.nanoTime();
+            PutObjectResponse response;
+            try {
+                response = objectStorageClient.putObject(request);
+            } finally {
+                partUploadLatency.record(System.nanoTime() - start);
+            }
+            listingCache.invalidate();
+            
+            LOGGER.info("CSV file streamed to Object Storage from: " + csvFile);
+            LOGGER.info("Object: " + objectName);
+            LOGGER.info("ETag: " + response.getETag());
+            LOGGER.info("Records: " + recordCount);
+            
+            return objectName;
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to upload CSV file to Object Storage: " + csvFile, e);
+            throw new ObjectStorageException("Failed to upload CSV file", e);
+        }
+    }
+    
+    private String uploadCsvFileMultipart(Path csvFile, String objectName, Map<String, String> metadata,
+                                          CsvCompression compression, ExportProgress progress) {
+        try (MultipartUploadChannel upload = openMultipartUpload(objectName, metadata, compression, progress);
+             FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, upload);
+            }
+            upload.complete();
+            
+            LOGGER.info("CSV file uploaded to Object Storage in parts from: " + csvFile);
+            LOGGER.info("Object: " + objectName);
+            return objectName;
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to upload CSV file to Object Storage: " + csvFile, e);
+            throw new ObjectStorageException("Failed to upload CSV file", e);
+        }
+    }
+    
+    public boolean isMultipartEnabled() {
+        return multipartEnabled;
+    }
+    
+    public LatencyHistogram getPartUploadLatency() {
+        return partUploadLatency;
+    }
+    
+    // For output that is still being written: the record count is not known yet, so it is
+    // left out of the object metadata and recorded in the export log and manifest instead.
+    @Retry(maxRetries = 3, delay = 2000)
+    @Counted(name = "objectstorage.upload.multipart.count")
+    public MultipartUploadChannel openMultipartUpload(String fileStem, CsvCompression compression,
+                                                      ExportProgress progress) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("upload-timestamp", now.toString());
+        metadata.put("compression", compression.name().toLowerCase());
+        
+        return openMultipartUpload(generateObjectName(now, fileStem) + compression.getExtension(), metadata,
+                compression, progress);
+    }
+    
+    private MultipartUploadChannel openMultipartUpload(String objectName, Map<String, String> metadata,
+                                                       CsvCompression compression, ExportProgress progress) {
+        try {
+            CreateMultipartUploadDetails details = CreateMultipartUploadDetails.builder()
+                    .object(objectName)
+                    .contentType("text/csv")
+                    .contentEncoding(compression.getContentEncoding())
+                    .metadata(metadata)
+                    .build();
+            
+            CreateMultipartUploadResponse response = objectStorageClient.createMultipartUpload(
+                    CreateMultipartUploadRequest.builder()
+                            .namespaceName(namespace)
+                            .bucketName(bucketName)
+                            .createMultipartUploadDetails(details)
+                            .build());
+            
+            String uploadId = response.getMultipartUpload().getUploadId();
+            LOGGER.info("Started multipart upload " + uploadId + " of " + objectName);
+            
+            progress.resetBytesUploaded();
+            return multipartUploadChannel(objectName, uploadId, progress).build();
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to start multipart upload of " + objectName, e);
+            throw new ObjectStorageException("Failed to start multipart upload", e);
+        }
+    }
+    
+    // Continues an upload suspended by an interrupted export, after the parts it had finished.
+    public MultipartUploadChannel resumeMultipartUpload(String objectName, String uploadId,
+                                                        List<CommitMultipartUploadPartDetails> uploadedParts,
+                                                        long uploadedBytes, ExportProgress progress) {
+        LOGGER.info("Resuming multipart upload " + uploadId + " of " + objectName + " after "
+                + uploadedParts.size() + " parts");
+        
+        progress.resetBytesUploaded();
+        progress.bytesUploaded(uploadedBytes);
+        return multipartUploadChannel(objectName, uploadId, progress)
+                .uploadedParts(uploadedParts, uploadedBytes)
+                .build();
+    }
+    
+    // Releases the parts of a suspended upload that will not be resumed any more.
+    public void abortMultipartUpload(String objectName, String uploadId) {
+        try {
+            objectStorageClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .uploadId(uploadId)
+                    .build());
+            LOGGER.info("Aborted multipart upload " + uploadId + " of " + objectName);
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Failed to abort multipart upload " + uploadId + " of " + objectName, e);
+        }
+    }
+    
+    private MultipartUploadChannel.Builder multipartUploadChannel(String objectName, String uploadId,
+                                                                  ExportProgress progress) {
+        return MultipartUploadChannel.builder()
+                .client(objectStorageClient)
+                .namespace(namespace)
+                .bucketName(bucketName)
+                .objectName(objectName)
+                .uploadId(uploadId)
+                .partSize(multipartPartSize)
+                .parallelism(multipartParallelism)
+                .partRetries(multipartPartRetries)
+                .retryDelayMs(multipartRetryDelayMs)
+                .executor(uploadExecutor)
+                .progress(progress)
+                .onComplete(listingCache::invalidate)
+                .partLatency(partUploadLatency);
+    }
+    
+    // Stored next to the CSV it describes: exports/.../delta-<ts>.csv[.gz] -> delta-<ts>.manifest.json
+    @Retry(maxRetries = 3, delay = 2000)
+    public String uploadManifest(String csvObjectName, String manifestJson) {
+        String objectName = csvObjectName.replaceFirst("\\.csv(\\.gz)?$", "") + ".manifest.json";
+        
+        try {
+            byte[] contentBytes = manifestJson.getBytes(StandardCharsets.UTF_8);
+            
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .putObjectBody(new ByteArrayInputStream(contentBytes))
+                    .contentLength((long) contentBytes.length)
+                    .contentType("application/json")
+                    .build();
+            
+            objectStorageClient.putObject(request);
+            
+            LOGGER.info("Export manifest uploaded: " + objectName);
+            return objectName;
+            
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Failed to upload export manifest to Object Storage", e);
+            throw new ObjectStorageException("Failed to upload export manifest", e);
+        }
+    }
+    
+    private String generateObjectName(LocalDateTime now) {
+        return generateObjectName(now, "result");
+    }
+    
+    private String generateObjectName(LocalDateTime now, String fileStem) {
+        String dateFolder = now.format(DATE_FORMATTER);
+        String timestamp = now.format(TIMESTAMP_FORMATTER);
+        return objectPrefix + dateFolder + "/" + fileStem + "-" + timestamp + ".csv";
+    }
+    
+    private Map<String, String> buildMetadata(LocalDateTime now, int recordCount, long processingTimeMs) {
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("record-count", String.valueOf(recordCount));
+        metadata.put("processing-time-ms", String.valueOf(processingTimeMs));
+        metadata.put("upload-timestamp", now.toString());
+        return metadata;
+    }
+    
     @Retry(maxRetries = 3, delay = 1000)
     public InputStream downloadObject(String objectName) {
         try {
@@ -163,30 +429,54 @@ public class ObjectStorageService {
         }
     }
     
-    public String downloadCsvFile(String objectName) {
-        try (InputStream inputStream = downloadObject(objectName)) {
-            Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8).useDelimiter("\\A");
-            return scanner.hasNext() ? scanner.next() : "";
+    // Opens the object for streaming. The range, if any, is served by Object Storage; a
+    // matching ifNoneMatch comes back as a response with isNotModified() and no body.
+    @Retry(maxRetries = 3, delay = 1000)
+    @Counted(name = "objectstorage.download.stream.count")
+    public GetObjectResponse getObject(String objectName, Range range, String ifNoneMatch) {
+        try {
+            GetObjectRequest request = GetObjectRequest.builder()
+                    .namespaceName(namespace)
+                    .bucketName(bucketName)
+                    .objectName(objectName)
+                    .range(range)
+                    .ifNoneMatch(ifNoneMatch)
+                    .build();
+            
+            GetObjectResponse response = objectStorageClient.getObject(request);
+            
+            LOGGER.info("Opened object: " + objectName + (range != null ? " (" + range + ")" : ""));
+            return response;
             
         } catch (Exception e) {
-            LOGGER.log(Level.SEVERE, "Failed to read CSV file: " + objectName, e);
-            throw new ObjectStorageException("Failed to read CSV file", e);
+            LOGGER.log(Level.SEVERE, "Failed to open object: " + objectName, e);
+            throw new ObjectStorageException("Failed to download object", e);
         }
     }
     
+    // Follows nextStartWith until the last page, so large buckets are listed completely.
     public List<ObjectSummary> listObjects(String prefix) {
+        String listPrefix = prefix != null ? prefix : objectPrefix;
         try {
-            ListObjectsRequest request = ListObjectsRequest.builder()
-                    .namespaceName(namespace)
-                    .bucketName(bucketName)
-                    .prefix(prefix != null ? prefix : objectPrefix)
-                    .limit(1000)
-                    .build();
-            
-            ListObjectsResponse response = objectStorageClient.listObjects(request);
+            List<ObjectSummary> objects = new ArrayList<>();
+            String start = null;
+            int pages = 0;
+            do {
+                ListObjectsRequest request = ListObjectsRequest.builder()
+                        .namespaceName(namespace)
+                        .bucketName(bucketName)
+                        .prefix(listPrefix)
+                        .start(start)
+                        .limit(1000)
+                        .build();
+                
+                ListObjects page = objectStorageClient.listObjects(request).getListObjects();
+                objects.addAll(page.getObjects());
+                start = page.getNextStartWith();
+                pages++;
+            } while (start != null);
             
-            List<ObjectSummary> objects = response.getListObjects().getObjects();
-            LOGGER.info("Listed " + objects.size() + " objects with prefix: " + prefix);
+            LOGGER.info("Listed " + objects.size() + " objects in " + pages + " pages with prefix: " + listPrefix);
             
             return objects;
             
@@ -196,12 +486,33 @@ public class ObjectStorageService {
         }
     }
     
+    // Newest first. Served from the listing cache, which our own uploads and deletes invalidate.
     public List<String> listCsvFiles() {
-        return listObjects(objectPrefix).stream()
+        return listingCache.get(() -> listObjects(objectPrefix).stream()
                 .map(ObjectSummary::getName)
-                .filter(name -> name.endsWith(".csv"))
+                .filter(ObjectStorageService::isCsvObject)
                 .sorted(Comparator.reverseOrder())
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+    
+    // The cursor is the last file of the previous page, so a page stays correct when files
+    // before it are added or deleted in between.
+    public CsvFilePage listCsvFiles(String start, Integer limit) {
+        int pageSize = limit != null ? Math.min(limit, listPageSize) : listPageSize;
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        
+        List<String> files = listCsvFiles();
+        int from = 0;
+        if (start != null && !start.isEmpty()) {
+            int index = Collections.binarySearch(files, start, Comparator.reverseOrder());
+            from = index >= 0 ? index + 1 : -index - 1;
+        }
+        
+        int to = Math.min(files.size(), from + pageSize);
+        String nextStart = to < files.size() ? files.get(to - 1) : null;
+        return new CsvFilePage(files.subList(from, to), nextStart);
     }
     
     public void deleteObject(String objectName) {
@@ -213,6 +524,7 @@ public class ObjectStorageService {
                     .build();
             
             objectStorageClient.deleteObject(request);
+            listingCache.invalidate();
             LOGGER.info("Deleted object: " + objectName);
             
         } catch (Exception e) {
@@ -222,16 +534,25 @@ public class ObjectStorageService {
     }
     
     public void deleteCsvFile(String objectName) {
-        if (!objectName.endsWith(".csv")) {
+        if (!isCsvObject(objectName)) {
             throw new IllegalArgumentException("Not a CSV file: " + objectName);
         }
         deleteObject(objectName);
     }
     
+    public static boolean isCsvObject(String objectName) {
+        return objectName.endsWith(".csv") || objectName.endsWith(CsvCompression.GZIP.fileName(".csv"));
+    }
+    
     private String getCompartmentId() {
         return System.getenv("OCI_COMPARTMENT_ID");
     }
     
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+    
     public String getObjectUrl(String objectName) {
         return String.format("https://objectstorage.%s.oraclecloud.com/n/%s/b/%s/o/%s",
                 System.getProperty("oci.region", "us-ashburn-1"),
@@ -239,4 +560,31 @@ public class ObjectStorageService {
                 bucketName,
                 objectName);
     }
+    
+    private static class ProgressInputStream extends FilterInputStream {
+        private final ExportProgress progress;
+        
+        ProgressInputStream(InputStream in, ExportProgress progress) {
+            super(in);
+            this.progress = progress;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                progress.bytesUploaded(1);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                progress.bytesUploaded(n);
+            }
+            return n;
+        }
+    }
 }
\ No newline at end of file
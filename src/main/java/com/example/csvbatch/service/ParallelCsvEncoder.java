@@ -0,0 +1,118 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.example.csvbatch.metrics.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelCsvEncoder implements Closeable {
+    
+    private final CsvChannelWriter sink;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final ForkJoinPool pool;
+    
+    private final Deque<CompletableFuture<EmployeeCsvEncoder>> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<EmployeeCsvEncoder> spareEncoders = new ConcurrentLinkedQueue<>();
+    
+    private List<EmployeeCsvData> chunk;
+    
+    // With a single worker rows are encoded inline on the calling thread.
+    public ParallelCsvEncoder(CsvChannelWriter sink, int workers, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.sink = sink;
+        this.chunkSize = chunkSize;
+        this.maxPendingChunks = Math.max(1, workers) * 2;
+        this.pool = workers > 1 ? new ForkJoinPool(workers) : null;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+    
+    public void writeHeader() throws IOException {
+        flush();
+        sink.writeHeader();
+    }
+    
+    public void write(EmployeeCsvData row) throws IOException {
+        if (pool == null) {
+            sink.write(row);
+            return;
+        }
+        
+        chunk.add(row);
+        if (chunk.size() >= chunkSize) {
+            submitChunk();
+        }
+    }
+    
+    // Hands every row received so far to the sink, in order.
+    public void flush() throws IOException {
+        if (!chunk.isEmpty()) {
+            submitChunk();
+        }
+        while (!pending.isEmpty()) {
+            writeOldestChunk();
+        }
+    }
+    
+    private void submitChunk() throws IOException {
+        // Bounds memory to a few chunks ahead of the sink and keeps chunks in submission order.
+        while (pending.size() >= maxPendingChunks) {
+            writeOldestChunk();
+        }
+        
+        List<EmployeeCsvData> rows = chunk;
+        chunk = new ArrayList<>(chunkSize);
+        pending.addLast(CompletableFuture.supplyAsync(() -> encode(rows), pool));
+    }
+    
+    private EmployeeCsvEncoder encode(List<EmployeeCsvData> rows) {
+        EmployeeCsvEncoder encoder = spareEncoders.poll();
+        if (encoder == null) {
+            encoder = new EmployeeCsvEncoder(rows.size() * 256);
+        }
+        encoder.reset();
+        LatencyHistogram encodeLatency = sink.getEncodeLatency();
+        for (EmployeeCsvData row : rows) {
+            long start = System.nanoTime();
+            encoder.encode(row);
+            encodeLatency.record(System.nanoTime() - start);
+        }
+        return encoder;
+    }
+    
+    private void writeOldestChunk() throws IOException {
+        EmployeeCsvEncoder encoded;
+        try {
+            encoded = pending.removeFirst().join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to encode CSV chunk", e.getCause());
+        }
+        
+        sink.write(encoded);
+        spareEncoders.offer(encoded);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            pending.clear();
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+}
\ No newline at end of file
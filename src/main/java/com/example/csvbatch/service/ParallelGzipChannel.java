@@ -0,0 +1,164 @@
+package com.example.csvbatch.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+// Compresses fixed-size blocks independently and writes each one as a complete gzip
+// member. Concatenated members are a valid gzip file, so blocks can be compressed on
+// several threads and the output can be truncated and appended to at any member boundary.
+public class ParallelGzipChannel implements WritableByteChannel, Flushable {
+    
+    private final WritableByteChannel[] targets;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final ForkJoinPool pool;
+    
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<byte[]> spareBlocks = new ConcurrentLinkedQueue<>();
+    
+    private byte[] block;
+    private int blockLength;
+    private long membersWritten;
+    private boolean open = true;
+    
+    // With a single worker blocks are compressed inline on the calling thread. Each
+    // compressed block is written to every target, e.g. the local file and an upload.
+    public ParallelGzipChannel(int workers, int blockSize, WritableByteChannel... targets) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        if (targets.length == 0) {
+            throw new IllegalArgumentException("At least one target channel is required");
+        }
+        this.targets = targets;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = Math.max(1, workers) * 2;
+        this.pool = workers > 1 ? new ForkJoinPool(workers) : null;
+        this.block = new byte[blockSize];
+    }
+    
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+        
+        int written = src.remaining();
+        while (src.hasRemaining()) {
+            int count = Math.min(src.remaining(), blockSize - blockLength);
+            src.get(block, blockLength, count);
+            blockLength += count;
+            if (blockLength == blockSize) {
+                submitBlock();
+            }
+        }
+        return written;
+    }
+    
+    // Ends the current member and writes every compressed block to the target, so the
+    // target position afterwards is a member boundary that a resumed export can append to.
+    @Override
+    public void flush() throws IOException {
+        if (blockLength > 0) {
+            submitBlock();
+        }
+        while (!pending.isEmpty()) {
+            writeOldestBlock();
+        }
+    }
+    
+    private void submitBlock() throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        
+        if (pool == null) {
+            blockLength = 0;
+            writeFully(compress(data, length));
+            return;
+        }
+        
+        // Bounds memory to a few blocks ahead of the target and keeps blocks in submission order.
+        while (pending.size() >= maxPendingBlocks) {
+            writeOldestBlock();
+        }
+        
+        byte[] spare = spareBlocks.poll();
+        block = spare != null ? spare : new byte[blockSize];
+        blockLength = 0;
+        pending.addLast(CompletableFuture.supplyAsync(() -> {
+            byte[] compressed = compress(data, length);
+            spareBlocks.offer(data);
+            return compressed;
+        }, pool));
+    }
+    
+    private void writeOldestBlock() throws IOException {
+        byte[] compressed;
+        try {
+            compressed = pending.removeFirst().join();
+        } catch (CompletionException e) {
+            throw new IOException("Failed to compress CSV block", e.getCause());
+        }
+        writeFully(compressed);
+    }
+    
+    private void writeFully(byte[] compressed) throws IOException {
+        for (WritableByteChannel target : targets) {
+            ByteBuffer buffer = ByteBuffer.wrap(compressed);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        }
+        membersWritten++;
+    }
+    
+    private static byte[] compress(byte[] data, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(data, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+    
+    // Finishes the gzip stream but leaves the targets open; their owner closes them.
+    @Override
+    public void close() throws IOException {
+        if (!open) {
+            return;
+        }
+        
+        try {
+            flush();
+            if (membersWritten == 0) {
+                // An empty member, so even an export without rows decompresses cleanly.
+                writeFully(compress(block, 0));
+            }
+        } finally {
+            open = false;
+            pending.forEach(future -> future.cancel(true));
+            pending.clear();
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+}
\ No newline at end of file
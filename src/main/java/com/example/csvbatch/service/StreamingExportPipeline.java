@@ -0,0 +1,225 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.example.csvbatch.entity.Employee;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.exception.ExportCancelledException;
+import com.example.csvbatch.repository.EmployeeRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+public class StreamingExportPipeline {
+    
+    private static final Logger LOGGER = Logger.getLogger(StreamingExportPipeline.class.getName());
+    
+    private static final CompletableFuture<EmployeeCsvData> END_OF_STREAM = CompletableFuture.completedFuture(null);
+    
+    private static final long ENQUEUE_POLL_MS = 100;
+    
+    private final EmployeeSource employeeSource;
+    private final EnrichmentStage enrichmentStage;
+    private final ExecutorService executorService;
+    private final int windowSize;
+    
+    public StreamingExportPipeline(EmployeeRepository employeeRepository,
+                                   EnrichmentStage enrichmentStage,
+                                   ExecutorService executorService,
+                                   int windowSize) {
+        this(employeeRepository::streamAll, enrichmentStage, executorService, windowSize);
+    }
+    
+    public StreamingExportPipeline(EmployeeSource employeeSource,
+                                   EnrichmentStage enrichmentStage,
+                                   ExecutorService executorService,
+                                   int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.employeeSource = employeeSource;
+        this.enrichmentStage = enrichmentStage;
+        this.executorService = executorService;
+        this.windowSize = windowSize;
+    }
+    
+    public Result run(RowWriter rowWriter) {
+        return run(rowWriter, new ExportProgress());
+    }
+    
+    public Result run(RowWriter rowWriter, ExportProgress progress) {
+        BlockingQueue<CompletableFuture<EmployeeCsvData>> window = new ArrayBlockingQueue<>(windowSize);
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        AtomicReference<Throwable> readerFailure = new AtomicReference<>();
+        
+        Future<?> reader = executorService.submit(() -> {
+            List<Employee> pending = new ArrayList<>(enrichmentStage.getBatchSize());
+            try {
+                employeeSource.stream(employee -> {
+                    progress.checkCancelled();
+                    progress.rowsRead(1);
+                    pending.add(employee);
+                    if (pending.size() >= enrichmentStage.getBatchSize()) {
+                        flush(window, pending, aborted, progress);
+                    }
+                });
+                flush(window, pending, aborted, progress);
+            } catch (Throwable t) {
+                readerFailure.set(t);
+            } finally {
+                if (!aborted.get()) {
+                    enqueue(window, END_OF_STREAM, aborted);
+                }
+            }
+        });
+        
+        long recordCount = 0;
+        long invalidCount = 0;
+        
+        try {
+            while (true) {
+                CompletableFuture<EmployeeCsvData> next = window.take();
+                if (next == END_OF_STREAM) {
+                    break;
+                }
+                
+                if (progress.isCancelled()) {
+                    abort(window, aborted, reader);
+                    next.cancel(true);
+                    throw new ExportCancelledException("Streaming export was cancelled after "
+                            + recordCount + " records");
+                }
+                
+                EmployeeCsvData row = next.join();
+                if (row == null) {
+                    continue;
+                }
+                
+                if (isInvalid(row)) {
+                    invalidCount++;
+                }
+                
+                rowWriter.write(row);
+                recordCount++;
+                progress.rowsWritten(1);
+            }
+            
+        } catch (ExportCancelledException e) {
+            // The writer may cancel too; the reader must not stay blocked on a full window holding the cursor.
+            abort(window, aborted, reader);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(window, aborted, reader);
+            throw new CsvProcessingException("STREAMING_EXPORT_ERROR", "Streaming export was interrupted", e);
+        } catch (Exception e) {
+            abort(window, aborted, reader);
+            throw new CsvProcessingException("STREAMING_EXPORT_ERROR", "Failed to write streamed CSV rows", e);
+        }
+        
+        Throwable failure = readerFailure.get();
+        if (failure instanceof ExportCancelledException) {
+            throw (ExportCancelledException) failure;
+        }
+        if (failure != null) {
+            throw new CsvProcessingException("STREAMING_EXPORT_ERROR", "Failed to read employees for streaming export", failure);
+        }
+        
+        LOGGER.info("Streamed " + recordCount + " records through export pipeline");
+        return new Result(recordCount, invalidCount);
+    }
+    
+    static boolean isInvalid(EmployeeCsvData row) {
+        return row.getEmployeeId() == null || row.getEmployeeName() == null;
+    }
+    
+    private void flush(BlockingQueue<CompletableFuture<EmployeeCsvData>> window,
+                       List<Employee> pending,
+                       AtomicBoolean aborted,
+                       ExportProgress progress) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<CompletableFuture<EmployeeCsvData>> futures;
+        try {
+            futures = enrichmentStage.submit(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Streaming export interrupted");
+        }
+        pending.clear();
+        
+        for (CompletableFuture<EmployeeCsvData> future : futures) {
+            future.thenRun(() -> progress.rowsEnriched(1));
+            enqueue(window, future, aborted);
+        }
+    }
+    
+    private void enqueue(BlockingQueue<CompletableFuture<EmployeeCsvData>> window,
+                         CompletableFuture<EmployeeCsvData> future,
+                         AtomicBoolean aborted) {
+        try {
+            while (!window.offer(future, ENQUEUE_POLL_MS, TimeUnit.MILLISECONDS)) {
+                if (aborted.get()) {
+                    future.cancel(true);
+                    throw new CancellationException("Streaming export aborted");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new CancellationException("Streaming export interrupted");
+        }
+    }
+    
+    private void abort(BlockingQueue<CompletableFuture<EmployeeCsvData>> window,
+                       AtomicBoolean aborted,
+                       Future<?> reader) {
+        aborted.set(true);
+        reader.cancel(true);
+        
+        CompletableFuture<EmployeeCsvData> pending;
+        while ((pending = window.poll()) != null) {
+            pending.cancel(true);
+        }
+    }
+    
+    @FunctionalInterface
+    public interface EmployeeSource {
+        long stream(Consumer<Employee> consumer);
+    }
+    
+    @FunctionalInterface
+    public interface RowWriter {
+        void write(EmployeeCsvData row) throws Exception;
+    }
+    
+    public static class Result {
+        private final long recordCount;
+        private final long invalidCount;
+        
+        public Result(long recordCount, long invalidCount) {
+            this.recordCount = recordCount;
+            this.invalidCount = invalidCount;
+        }
+        
+        public long getRecordCount() {
+            return recordCount;
+        }
+        
+        public long getInvalidCount() {
+            return invalidCount;
+        }
+    }
+}
\ No newline at end of file
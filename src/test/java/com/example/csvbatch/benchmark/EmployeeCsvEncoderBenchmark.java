@@ -0,0 +1,86 @@
+package com.example.csvbatch.benchmark;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.example.csvbatch.service.BeanToCsvFactory;
+import com.example.csvbatch.service.EmployeeCsvEncoder;
+import com.opencsv.bean.StatefulBeanToCsv;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Run with -prof gc to compare allocation per operation as well as time.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class EmployeeCsvEncoderBenchmark {
+    
+    @Param({"1", "1000"})
+    private int recordCount;
+    
+    private final EmployeeCsvEncoder encoder = new EmployeeCsvEncoder();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    
+    private List<EmployeeCsvData> rows;
+    
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            rows.add(EmployeeCsvData.builder()
+                    .employeeId(1000L + i)
+                    .employeeName("田中 太郎 " + i)
+                    .department(i % 2 == 0 ? "開発部" : "Sales, \"East\"")
+                    .email("employee" + i + "@example.com")
+                    .hireDate(LocalDate.of(2020, 4, 1).plusDays(i))
+                    .salary(new BigDecimal("500000.00").add(BigDecimal.valueOf(i)))
+                    .level("Senior")
+                    .bonus(new BigDecimal("150000.00"))
+                    .status("Active")
+                    .build());
+        }
+    }
+    
+    @Benchmark
+    public int encoder() throws Exception {
+        out.reset();
+        encoder.reset();
+        encoder.encodeHeader();
+        for (EmployeeCsvData row : rows) {
+            encoder.encode(row);
+        }
+        encoder.writeTo(out);
+        return out.size();
+    }
+    
+    // The StatefulBeanToCsv path the export used before the encoder
+    @Benchmark
+    public int openCsv() throws Exception {
+        out.reset();
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        StatefulBeanToCsv<EmployeeCsvData> beanToCsv = BeanToCsvFactory.createBeanToCsv(writer);
+        beanToCsv.write(rows);
+        writer.flush();
+        return out.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.csvbatch.benchmark;
+
+import com.example.csvbatch.client.SoapResponseParser;
+import com.example.csvbatch.dto.EmployeeDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class SoapResponseParserBenchmark {
+    
+    private static final String EMPLOYEES_NAMESPACE = "http://example.com/employees";
+    
+    @Param({"1", "50"})
+    private int recordCount;
+    
+    private String soapResponse;
+    private SoapResponseParser parser;
+    
+    @Setup
+    public void setUp() {
+        parser = new SoapResponseParser();
+        
+        StringBuilder builder = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" ")
+                .append("xmlns:emp=\"").append(EMPLOYEES_NAMESPACE).append("\">")
+                .append("<soap:Header/><soap:Body><emp:getEmployeeDetailsResponse>");
+        for (int i = 0; i < recordCount; i++) {
+            builder.append("<emp:employeeDetails>")
+                    .append("<emp:employeeId>").append(1001 + i).append("</emp:employeeId>")
+                    .append("<emp:employeeName>田中太郎</emp:employeeName>")
+                    .append("<emp:department>開発部</emp:department>")
+                    .append("<emp:level>Senior</emp:level>")
+                    .append("<emp:bonus>150000.00</emp:bonus>")
+                    .append("<emp:status>Active</emp:status>")
+                    .append("</emp:employeeDetails>");
+        }
+        soapResponse = builder.append("</emp:getEmployeeDetailsResponse></soap:Body></soap:Envelope>").toString();
+    }
+    
+    @Benchmark
+    public List<EmployeeDetails> stax() {
+        return parser.parseBatch(soapResponse);
+    }
+    
+    // The per-call DOM path SoapClient used before the StAX parser
+    @Benchmark
+    public List<EmployeeDetails> dom() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document doc = builder.parse(new InputSource(new StringReader(soapResponse)));
+        
+        doc.getDocumentElement().normalize();
+        
+        NodeList items = doc.getElementsByTagNameNS(EMPLOYEES_NAMESPACE, "employeeDetails");
+        List<EmployeeDetails> detailsList = new ArrayList<>(items.getLength());
+        for (int i = 0; i < items.getLength(); i++) {
+            Element employeeDetails = (Element) items.item(i);
+            detailsList.add(EmployeeDetails.builder()
+                    .employeeId(Long.parseLong(getElementValue(employeeDetails, "employeeId")))
+                    .level(getElementValue(employeeDetails, "level"))
+                    .bonus(new BigDecimal(getElementValue(employeeDetails, "bonus")))
+                    .status(getElementValue(employeeDetails, "status"))
+                    .build());
+        }
+        return detailsList;
+    }
+    
+    private String getElementValue(Element parent, String tagName) {
+        Element element = (Element) parent.getElementsByTagNameNS(EMPLOYEES_NAMESPACE, tagName).item(0);
+        return element != null ? element.getTextContent() : "";
+    }
+}
\ No newline at end of file
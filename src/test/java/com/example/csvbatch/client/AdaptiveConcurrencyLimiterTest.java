@@ -0,0 +1,117 @@
+package com.example.csvbatch.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    
+    private static final long RTT_10_MS = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    @Test
+    void testLimitGrowsWhileLatencyIsFlat() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(10)
+                .maxLimit(100)
+                .build();
+        
+        saturateAndComplete(limiter, 50, RTT_10_MS);
+        
+        assertTrue(limiter.getLimit() > 10, "Limit should grow, was " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 100);
+    }
+    
+    @Test
+    void testLimitShrinksWhenLatencyRises() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(50)
+                .maxLimit(100)
+                .build();
+        
+        saturateAndComplete(limiter, 20, RTT_10_MS);
+        int limitAtBaseline = limiter.getLimit();
+        
+        saturateAndComplete(limiter, 2, RTT_10_MS * 10);
+        
+        assertTrue(limiter.getLimit() < limitAtBaseline,
+                "Limit should shrink from " + limitAtBaseline + ", was " + limiter.getLimit());
+        assertTrue(limiter.getShortRttMillis() > limiter.getLongRttMillis());
+    }
+    
+    @Test
+    void testDroppedCallsBackOff() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(40)
+                .minLimit(2)
+                .build();
+        
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+            limiter.release(RTT_10_MS, true);
+        }
+        
+        assertEquals(2, limiter.getLimit());
+    }
+    
+    @Test
+    void testOverloadHalvesLimit() {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(40)
+                .build();
+        
+        limiter.onOverload();
+        
+        assertEquals(20, limiter.getLimit());
+    }
+    
+    @Test
+    void testAcquireWaitsForPermitAndReportsQueueDepth() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = AdaptiveConcurrencyLimiter.builder()
+                .initialLimit(1)
+                .maxLimit(1)
+                .build();
+        
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertFalse(limiter.tryAcquire(10, TimeUnit.MILLISECONDS));
+        
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                if (limiter.tryAcquire(5, TimeUnit.SECONDS)) {
+                    acquired.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getQueueDepth() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, limiter.getQueueDepth());
+        
+        limiter.release(RTT_10_MS, false);
+        
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(0, limiter.getQueueDepth());
+        assertEquals(1, limiter.getInFlight());
+    }
+    
+    private void saturateAndComplete(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos)
+            throws InterruptedException {
+        for (int round = 0; round < rounds; round++) {
+            int permits = 0;
+            while (limiter.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                permits++;
+            }
+            for (int i = 0; i < permits; i++) {
+                limiter.release(rttNanos, false);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.example.csvbatch.client;
+
+import com.example.csvbatch.dto.EmployeeDetails;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeDetailsCacheTest {
+    
+    private final AtomicLong now = new AtomicLong();
+    
+    @Test
+    void testGetAfterPutHits() {
+        EmployeeDetailsCache cache = cache(Duration.ofMinutes(10), 100);
+        
+        assertNull(cache.get(1L));
+        cache.put(1L, details(1L));
+        
+        assertEquals("Senior", cache.get(1L).getLevel());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+    
+    @Test
+    void testEntriesExpireAfterTtl() {
+        EmployeeDetailsCache cache = cache(Duration.ofMinutes(10), 100);
+        cache.put(1L, details(1L));
+        
+        now.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertNotNull(cache.get(1L));
+        
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    void testSizeStaysWithinBoundAndCountsEvictions() {
+        EmployeeDetailsCache cache = cache(Duration.ofMinutes(10), 50);
+        
+        for (long id = 0; id < 500; id++) {
+            cache.put(id, details(id));
+        }
+        
+        assertEquals(50, cache.size());
+        assertEquals(450, cache.getEvictionCount());
+    }
+    
+    @Test
+    void testFrequentlyReadEntriesSurviveEviction() {
+        EmployeeDetailsCache cache = cache(Duration.ofMinutes(10), 100);
+        
+        for (long id = 0; id < 20; id++) {
+            cache.put(id, details(id));
+            for (int i = 0; i < 5; i++) {
+                cache.get(id);
+            }
+        }
+        for (long id = 1000; id < 3000; id++) {
+            cache.put(id, details(id));
+        }
+        
+        int survivors = 0;
+        for (long id = 0; id < 20; id++) {
+            if (cache.get(id) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 18, "Hot entries should survive one-off inserts, survivors: " + survivors);
+    }
+    
+    @Test
+    void testExpiredEntriesAreEvictedFirst() {
+        EmployeeDetailsCache cache = cache(Duration.ofMinutes(10), 2);
+        cache.put(1L, details(1L));
+        
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        cache.put(2L, details(2L));
+        cache.get(2L);
+        
+        now.addAndGet(Duration.ofMinutes(6).toNanos());
+        cache.put(3L, details(3L));
+        
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+    }
+    
+    @Test
+    void testInvalidateRemovesEntry() {
+        EmployeeDetailsCache cache = cache(Duration.ofMinutes(10), 10);
+        cache.put(1L, details(1L));
+        cache.put(2L, details(2L));
+        
+        cache.invalidate(1L);
+        
+        assertNull(cache.get(1L));
+        assertNotNull(cache.get(2L));
+        assertEquals(1, cache.size());
+    }
+    
+    private EmployeeDetailsCache cache(Duration ttl, int maxEntries) {
+        return EmployeeDetailsCache.builder()
+                .ttl(ttl)
+                .maxEntries(maxEntries)
+                .clock(now::get)
+                .build();
+    }
+    
+    private EmployeeDetails details(Long employeeId) {
+        return EmployeeDetails.builder()
+                .employeeId(employeeId)
+                .level("Senior")
+                .bonus(new BigDecimal("1000"))
+                .status("Active")
+                .build();
+    }
+}
\ No newline at end of file
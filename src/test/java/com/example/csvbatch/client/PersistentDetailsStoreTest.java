@@ -0,0 +1,308 @@
+package com.example.csvbatch.client;
+
+import com.example.csvbatch.dto.EmployeeDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentDetailsStoreTest {
+    
+    private static final long REGION_SIZE = 256;
+    
+    @TempDir
+    Path tempDir;
+    
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    
+    @Test
+    void testRecordsSurviveReopen() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        
+        try (PersistentDetailsStore store = open(file)) {
+            for (long id = 1; id <= 40; id++) {
+                store.put(id, details(id, "Senior", new BigDecimal("1500.25")));
+            }
+            store.put(7L, details(7L, "主任", null));
+            store.delete(8L);
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            assertEquals(39, store.size());
+            
+            EmployeeDetails details = store.get(40L).getDetails();
+            assertEquals(40L, details.getEmployeeId());
+            assertEquals("Senior", details.getLevel());
+            assertEquals(new BigDecimal("1500.25"), details.getBonus());
+            assertEquals("Active", details.getStatus());
+            
+            assertEquals("主任", store.get(7L).getDetails().getLevel());
+            assertNull(store.get(7L).getDetails().getBonus());
+            assertNull(store.get(8L));
+        }
+    }
+    
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        
+        try (PersistentDetailsStore store = open(file)) {
+            store.put(1L, details(1L, "Senior", BigDecimal.TEN));
+            store.put(2L, details(2L, "Junior", BigDecimal.ONE));
+        }
+        
+        // Simulate a crash in the middle of the last record
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            assertNotNull(store.get(1L));
+            assertNull(store.get(2L));
+            
+            store.put(3L, details(3L, "Mid", BigDecimal.ONE));
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            assertNotNull(store.get(1L));
+            assertNotNull(store.get(3L));
+        }
+    }
+    
+    @Test
+    void testExpiredRecordsAreNotReturned() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        
+        try (PersistentDetailsStore store = open(file)) {
+            store.put(1L, details(1L, "Senior", BigDecimal.TEN));
+            
+            now.addAndGet(Duration.ofMinutes(30).toMillis());
+            assertEquals(Duration.ofMinutes(30), store.get(1L).getRemainingTtl());
+            
+            now.addAndGet(Duration.ofMinutes(31).toMillis());
+            assertNull(store.get(1L));
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            assertEquals(0, store.size());
+        }
+    }
+    
+    @Test
+    void testCompactionDropsSupersededRecords() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        
+        try (PersistentDetailsStore store = open(file)) {
+            for (int round = 0; round < 10; round++) {
+                for (long id = 1; id <= 20; id++) {
+                    store.put(id, details(id, "Level" + round, BigDecimal.valueOf(round)));
+                }
+            }
+            long before = store.getFileBytes();
+            
+            store.compact();
+            
+            assertTrue(store.getFileBytes() * 5 < before,
+                    "Expected compaction to shrink " + before + " bytes, got " + store.getFileBytes());
+            assertEquals("Level9", store.get(20L).getDetails().getLevel());
+            
+            store.put(21L, details(21L, "New", BigDecimal.ONE));
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            assertEquals(21, store.size());
+            assertEquals("Level9", store.get(1L).getDetails().getLevel());
+            assertEquals("New", store.get(21L).getDetails().getLevel());
+        }
+    }
+    
+    @Test
+    void testCorruptRecordIsAMiss() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        
+        try (PersistentDetailsStore store = open(file)) {
+            store.put(1L, details(1L, "Senior", BigDecimal.TEN));
+            store.put(2L, details(2L, "Junior", BigDecimal.ONE));
+            
+            // Flip a byte of the first record's level behind the store's back
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {'X'}), 27);
+            }
+            
+            assertNull(store.get(1L));
+            assertEquals("Junior", store.get(2L).getDetails().getLevel());
+        }
+    }
+    
+    @Test
+    void testWritesDuringCompactionSurvive() throws Exception {
+        Path file = tempDir.resolve("details.cache");
+        int writers = 4;
+        List<Map<Long, String>> expected = new ArrayList<>();
+        
+        try (PersistentDetailsStore store = open(file)) {
+            AtomicBoolean done = new AtomicBoolean(false);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            
+            // Writers keep going until the last compaction has finished, so every one races them
+            Thread compactor = Thread.ofPlatform().start(() -> {
+                try {
+                    for (int round = 0; round < 50; round++) {
+                        store.compact();
+                        store.get(1L);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.set(true);
+                }
+            });
+            
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < writers; t++) {
+                Map<Long, String> state = new HashMap<>();
+                expected.add(state);
+                long firstId = t * 100L;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    Random random = new Random(firstId);
+                    for (int op = 0; !done.get(); op++) {
+                        long id = firstId + random.nextInt(50);
+                        if (random.nextInt(4) == 0) {
+                            store.delete(id);
+                            state.remove(id);
+                        } else {
+                            String level = "L" + op;
+                            store.put(id, details(id, level, BigDecimal.ONE));
+                            state.put(id, level);
+                        }
+                    }
+                }));
+            }
+            compactor.join();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            
+            assertNull(failure.get());
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            int total = 0;
+            for (Map<Long, String> state : expected) {
+                total += state.size();
+                for (Map.Entry<Long, String> entry : state.entrySet()) {
+                    assertEquals(entry.getValue(), store.get(entry.getKey()).getDetails().getLevel());
+                }
+            }
+            assertEquals(total, store.size());
+        }
+    }
+    
+    @Test
+    void testWritesBetweenSnapshotAndSwapAreKept() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        AtomicReference<Runnable> onClockRead = new AtomicReference<>();
+        // compact() reads the clock once it has snapshotted the offsets and released the lock
+        LongSupplier clock = () -> {
+            Runnable action = onClockRead.getAndSet(null);
+            if (action != null) {
+                action.run();
+            }
+            return now.get();
+        };
+        
+        try (PersistentDetailsStore store = new PersistentDetailsStore(file, Duration.ofHours(1), REGION_SIZE, clock)) {
+            store.load();
+            for (long id = 1; id <= 10; id++) {
+                store.put(id, details(id, "Before", BigDecimal.ONE));
+            }
+            
+            onClockRead.set(() -> {
+                store.delete(3L);
+                store.put(4L, details(4L, "During", BigDecimal.TEN));
+                store.put(11L, details(11L, "During", BigDecimal.TEN));
+            });
+            store.compact();
+            
+            assertNull(store.get(3L));
+            assertEquals("During", store.get(4L).getDetails().getLevel());
+            assertEquals(10, store.size());
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            assertEquals(10, store.size());
+            assertNull(store.get(3L));
+            assertEquals("During", store.get(4L).getDetails().getLevel());
+            assertEquals("During", store.get(11L).getDetails().getLevel());
+            assertEquals("Before", store.get(5L).getDetails().getLevel());
+        }
+    }
+    
+    @Test
+    void testReadsMissUntilLoaded() throws IOException {
+        PersistentDetailsStore store = new PersistentDetailsStore(
+                tempDir.resolve("details.cache"), Duration.ofHours(1), REGION_SIZE, now::get);
+        
+        store.put(1L, details(1L, "Senior", BigDecimal.TEN));
+        assertNull(store.get(1L));
+        
+        store.load();
+        assertEquals(0, store.size());
+        store.close();
+    }
+    
+    @Test
+    void testCacheReadsThroughToStore() throws IOException {
+        Path file = tempDir.resolve("details.cache");
+        try (PersistentDetailsStore store = open(file)) {
+            EmployeeDetailsCache.builder().backingStore(store).build()
+                    .put(1L, details(1L, "Senior", BigDecimal.TEN));
+        }
+        
+        try (PersistentDetailsStore store = open(file)) {
+            EmployeeDetailsCache cache = EmployeeDetailsCache.builder().backingStore(store).build();
+            
+            assertEquals("Senior", cache.get(1L).getLevel());
+            assertEquals("Senior", cache.get(1L).getLevel());
+            assertNull(cache.get(2L));
+            
+            assertEquals(1, cache.getDiskHitCount());
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+        }
+    }
+    
+    private PersistentDetailsStore open(Path file) throws IOException {
+        PersistentDetailsStore store = new PersistentDetailsStore(file, Duration.ofHours(1), REGION_SIZE, now::get);
+        store.load();
+        return store;
+    }
+    
+    private EmployeeDetails details(Long employeeId, String level, BigDecimal bonus) {
+        return EmployeeDetails.builder()
+                .employeeId(employeeId)
+                .level(level)
+                .bonus(bonus)
+                .status("Active")
+                .build();
+    }
+}
\ No newline at end of file
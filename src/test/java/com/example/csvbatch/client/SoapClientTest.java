@@ -7,6 +7,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,6 +38,35 @@ class SoapClientTest {
         assertEquals(-1L, details.getEmployeeId());
     }
     
+    @Test
+    void testGetEmployeeDetailsBatch_FallsBackForMissingItems() {
+        Map<Long, EmployeeDetails> detailsById = soapClient.getEmployeeDetailsBatch(List.of(1001L, 1002L, 1003L));
+        
+        assertEquals(List.of(1001L, 1002L, 1003L), List.copyOf(detailsById.keySet()));
+        assertEquals("Senior", detailsById.get(1001L).getLevel());
+        assertEquals("Mid", detailsById.get(1002L).getLevel());
+        assertNotNull(detailsById.get(1003L));
+        assertNotNull(detailsById.get(1003L).getStatus());
+    }
+    
+    @Test
+    void testGetEmployeeDetailsBatch_FailedBatchFallsBackPerId() {
+        Map<Long, EmployeeDetails> detailsById = soapClient.getEmployeeDetailsBatch(List.of(9901L, 9902L));
+        
+        assertEquals(2, detailsById.size());
+        assertNotNull(detailsById.get(9901L));
+        assertNotNull(detailsById.get(9902L));
+    }
+    
+    @Test
+    void testGetEmployeeDetailsBatch_RecordsBatchCallLatencySeparately() {
+        long batchCalls = soapClient.getBatchCallLatency().snapshot().getCount();
+        
+        soapClient.getEmployeeDetailsBatch(List.of(1001L, 1002L), CacheMode.BYPASS);
+        
+        assertEquals(batchCalls + 1, soapClient.getBatchCallLatency().snapshot().getCount());
+    }
+    
     @Test
     void testFallbackMethod() {
         EmployeeDetails fallback = soapClient.getEmployeeDetailsFallback(9999L);
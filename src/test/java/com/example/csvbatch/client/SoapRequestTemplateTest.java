@@ -0,0 +1,69 @@
+package com.example.csvbatch.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoapRequestTemplateTest {
+    
+    private final SoapRequestTemplate template = new SoapRequestTemplate();
+    
+    @Test
+    void testEncode_MatchesDomOutputForSingleIds() throws Exception {
+        for (long employeeId : new long[] {0L, 7L, 10L, 1001L, 99999L, -1L, -10L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(buildWithDom(List.of(employeeId)),
+                    new String(template.encode(employeeId), StandardCharsets.UTF_8),
+                    "Mismatch for employee ID " + employeeId);
+        }
+    }
+    
+    @Test
+    void testEncode_MatchesDomOutputForBatch() throws Exception {
+        List<Long> employeeIds = List.of(1001L, 1002L, 1003L, 42L);
+        
+        assertEquals(buildWithDom(employeeIds), new String(template.encode(employeeIds), StandardCharsets.UTF_8));
+    }
+    
+    // The DOM + Transformer path SoapClient used before the template
+    private String buildWithDom(List<Long> employeeIds) throws Exception {
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        
+        Element envelope = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Envelope");
+        doc.appendChild(envelope);
+        envelope.appendChild(doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Header"));
+        
+        Element body = doc.createElementNS("http://schemas.xmlsoap.org/soap/envelope/", "soap:Body");
+        envelope.appendChild(body);
+        
+        Element request = doc.createElementNS("http://example.com/employees", "emp:getEmployeeDetailsRequest");
+        body.appendChild(request);
+        
+        for (Long employeeId : employeeIds) {
+            Element empId = doc.createElementNS("http://example.com/employees", "emp:employeeId");
+            empId.setTextContent(employeeId.toString());
+            request.appendChild(empId);
+        }
+        
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+        transformer.setOutputProperty(OutputKeys.INDENT, "no");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        
+        StringWriter writer = new StringWriter();
+        transformer.transform(new DOMSource(doc), new StreamResult(writer));
+        return writer.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.example.csvbatch.client;
+
+import com.example.csvbatch.dto.EmployeeDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoapResponseParserTest {
+    
+    private SoapResponseParser parser;
+    
+    @BeforeEach
+    void setUp() {
+        parser = new SoapResponseParser();
+    }
+    
+    @Test
+    void testParse_SingleRecord() {
+        EmployeeDetails details = parser.parse(envelope(item("1001", "Senior", "150000", "Active")));
+        
+        assertEquals(1001L, details.getEmployeeId());
+        assertEquals("Senior", details.getLevel());
+        assertEquals(new BigDecimal("150000"), details.getBonus());
+        assertEquals("Active", details.getStatus());
+    }
+    
+    @Test
+    void testParse_InputStreamWithMultibyteContent() {
+        String response = envelope("<emp:employeeDetails><emp:employeeName>田中太郎</emp:employeeName>"
+                + "<emp:employeeId>1002</emp:employeeId><emp:level>中堅</emp:level>"
+                + "<emp:bonus>80000.50</emp:bonus><emp:status>Active</emp:status></emp:employeeDetails>");
+        
+        EmployeeDetails details = parser.parse(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+        
+        assertEquals(1002L, details.getEmployeeId());
+        assertEquals("中堅", details.getLevel());
+        assertEquals(new BigDecimal("80000.50"), details.getBonus());
+    }
+    
+    @Test
+    void testParse_IgnoresOtherNamespaces() {
+        String response = envelope("<emp:employeeDetails xmlns:x=\"http://example.com/other\">"
+                + "<x:level>Wrong</x:level><emp:employeeId>1003</emp:employeeId>"
+                + "<emp:level>Junior</emp:level><emp:bonus>0</emp:bonus><emp:status>Active</emp:status>"
+                + "</emp:employeeDetails>");
+        
+        assertEquals("Junior", parser.parse(response).getLevel());
+    }
+    
+    @Test
+    void testParse_NoDetailsThrows() {
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> parser.parse(envelope("")));
+        
+        assertEquals("No employee details found in SOAP response", exception.getMessage());
+    }
+    
+    @Test
+    void testParse_MalformedRecordThrows() {
+        assertThrows(RuntimeException.class,
+                () -> parser.parse(envelope(item("not-a-number", "Senior", "1", "Active"))));
+    }
+    
+    @Test
+    void testParseBatch_SkipsMalformedItems() {
+        List<EmployeeDetails> detailsList = parser.parseBatch(envelope(
+                item("1001", "Senior", "150000", "Active")
+                + item("1002", "Mid", "", "Active")
+                + item("1003", "Junior", "50000", "Leave")));
+        
+        assertEquals(2, detailsList.size());
+        assertEquals(1001L, detailsList.get(0).getEmployeeId());
+        assertEquals(1003L, detailsList.get(1).getEmployeeId());
+        assertEquals("Leave", detailsList.get(1).getStatus());
+    }
+    
+    @Test
+    void testParseBatch_InvalidXmlThrows() {
+        assertThrows(RuntimeException.class, () -> parser.parseBatch("<soap:Envelope>"));
+    }
+    
+    private String envelope(String items) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" "
+                + "xmlns:emp=\"http://example.com/employees\">"
+                + "<soap:Body><emp:getEmployeeDetailsResponse>" + items
+                + "</emp:getEmployeeDetailsResponse></soap:Body></soap:Envelope>";
+    }
+    
+    private String item(String employeeId, String level, String bonus, String status) {
+        return "<emp:employeeDetails><emp:employeeId>" + employeeId + "</emp:employeeId>"
+                + "<emp:level>" + level + "</emp:level>"
+                + "<emp:bonus>" + bonus + "</emp:bonus>"
+                + "<emp:status>" + status + "</emp:status></emp:employeeDetails>";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.example.csvbatch.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    
+    @Test
+    void testPercentiles_WithinBucketPrecision() {
+        // 1..10000 microseconds, one sample each
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(5_000), snapshot.getValueAtPercentile(50.0));
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(9_900), snapshot.getValueAtPercentile(99.0));
+        assertWithinPrecision(TimeUnit.MICROSECONDS.toNanos(9_990), snapshot.getValueAtPercentile(99.9));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(10_000), snapshot.getMaxNanos());
+        assertEquals(snapshot.getMaxNanos(), snapshot.getValueAtPercentile(100.0));
+    }
+    
+    @Test
+    void testBuckets_CoverEveryValueOnce() {
+        long previousUpperBound = -1;
+        for (int index = 0; index < LatencyHistogram.bucketIndex(TimeUnit.MINUTES.toNanos(2)); index++) {
+            long upperBound = LatencyHistogram.bucketUpperBound(index);
+            assertTrue(upperBound > previousUpperBound, "bucket " + index);
+            assertEquals(index, LatencyHistogram.bucketIndex(previousUpperBound + 1));
+            assertEquals(index, LatencyHistogram.bucketIndex(upperBound));
+            previousUpperBound = upperBound;
+        }
+    }
+    
+    @Test
+    void testSince_OnlyCountsNewSamples() {
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        LatencyHistogram.Snapshot baseline = histogram.snapshot();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        
+        LatencyHistogram.Snapshot delta = histogram.snapshot().since(baseline);
+        assertEquals(10, delta.getCount());
+        assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(1), delta.getValueAtPercentile(99.9));
+        assertWithinPrecision(TimeUnit.MILLISECONDS.toNanos(1), delta.getMaxNanos());
+    }
+    
+    @Test
+    void testRecord_ClampsOutOfRangeValues() {
+        histogram.record(-5);
+        histogram.record(TimeUnit.HOURS.toNanos(1));
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(50.0));
+        assertEquals(TimeUnit.HOURS.toNanos(1), snapshot.getMaxNanos());
+    }
+    
+    @Test
+    void testConcurrentRecording_LosesNoSamples() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i * 1_000L);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(80_000, histogram.snapshot().getCount());
+    }
+    
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 32, "expected ~" + expected + " but was " + actual);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,292 @@
+package com.example.csvbatch.repository;
+
+import com.example.csvbatch.entity.Employee;
+import com.example.csvbatch.exception.DataProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeRepositoryStreamingTest {
+    
+    private final List<String> calls = new ArrayList<>();
+    private EmployeeRepository repository;
+    private int rowCount;
+    private int failAtRow = -1;
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        repository = new EmployeeRepository();
+        setField("dataSource", fakeDataSource());
+        setField("fetchSize", 500);
+        setField("scanPartitions", 1);
+        setField("maxPoolSize", 10);
+        rowCount = 3;
+    }
+    
+    @Test
+    void testStreamEmployees_UsesCursorSettings() {
+        List<Long> ids;
+        try (Stream<Employee> employees = repository.streamEmployees()) {
+            ids = employees.map(Employee::getEmployeeId).collect(Collectors.toList());
+        }
+        
+        assertEquals(List.of(1L, 2L, 3L), ids);
+        assertTrue(calls.contains("setAutoCommit:false"));
+        assertTrue(calls.contains("prepareStatement:forwardOnly:readOnly"));
+        assertTrue(calls.contains("setFetchSize:500"));
+    }
+    
+    @Test
+    void testStreamEmployees_CloseReleasesConnection() {
+        rowCount = 1000;
+        
+        try (Stream<Employee> employees = repository.streamEmployees()) {
+            assertEquals(10, employees.limit(10).count());
+            assertFalse(calls.contains("connection.close"));
+        }
+        
+        assertTrue(calls.contains("resultSet.close"));
+        assertTrue(calls.contains("statement.close"));
+        assertTrue(calls.contains("setAutoCommit:true"));
+        assertEquals("connection.close", calls.get(calls.size() - 1));
+    }
+    
+    @Test
+    void testStreamAll_WrapsCursorFailure() {
+        failAtRow = 2;
+        List<Long> ids = new ArrayList<>();
+        
+        DataProcessingException exception = assertThrows(DataProcessingException.class,
+                () -> repository.streamAll(employee -> ids.add(employee.getEmployeeId())));
+        
+        assertEquals("DB_CONNECTION_ERROR", exception.getErrorCode());
+        assertEquals(List.of(1L), ids);
+        assertEquals("connection.close", calls.get(calls.size() - 1));
+    }
+    
+    @Test
+    void testPartitionKeyRange_CoversIdsWithoutGaps() {
+        rowCount = 10;
+        
+        List<EmployeeRepository.KeyRange> ranges = repository.partitionKeyRange(3);
+        
+        assertEquals(3, ranges.size());
+        assertEquals(1, ranges.get(0).getFromId());
+        assertEquals(10, ranges.get(2).getToId());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).getToId() + 1, ranges.get(i).getFromId());
+        }
+    }
+    
+    @Test
+    void testStreamAll_PartitionedScanKeepsGlobalOrder() throws Exception {
+        rowCount = 5000;
+        setField("scanPartitions", 4);
+        
+        List<Long> ids = new ArrayList<>();
+        long streamed = repository.streamAll(employee -> {
+            // Hold the first row so later partitions have to read ahead concurrently.
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ids.isEmpty() && peakConnections.get() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            ids.add(employee.getEmployeeId());
+        });
+        
+        assertEquals(5000, streamed);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals((long) (i + 1), ids.get(i));
+        }
+        assertTrue(peakConnections.get() > 1, "Partitions should read on separate connections");
+        assertEquals(0, openConnections.get());
+    }
+    
+    @Test
+    void testStreamAll_PartitionFailurePropagates() throws Exception {
+        rowCount = 5000;
+        failAtRow = 4000;
+        setField("scanPartitions", 4);
+        
+        DataProcessingException exception = assertThrows(DataProcessingException.class,
+                () -> repository.streamAll(employee -> { }));
+        
+        assertEquals("DB_CONNECTION_ERROR", exception.getErrorCode());
+        assertEquals(0, openConnections.get());
+    }
+    
+    @Test
+    void testStreamModifiedSince_BindsTimestampAndReleasesConnection() {
+        LocalDateTime since = LocalDateTime.of(2025, 8, 7, 10, 30);
+        
+        long streamed = repository.streamModifiedSince(since, employee -> { });
+        
+        assertEquals(3, streamed);
+        assertTrue(calls.contains("setObject:" + Timestamp.valueOf(since)));
+        assertEquals("connection.close", calls.get(calls.size() - 1));
+    }
+    
+    @Test
+    void testStreamAfter_ResumesAfterKey() {
+        rowCount = 10;
+        List<Long> ids = new ArrayList<>();
+        
+        long streamed = repository.streamAfter(7L, employee -> ids.add(employee.getEmployeeId()));
+        
+        assertEquals(3, streamed);
+        assertEquals(List.of(8L, 9L, 10L), ids);
+    }
+    
+    @Test
+    void testGetScanPartitions_CappedByPoolSize() throws Exception {
+        setField("scanPartitions", 32);
+        setField("maxPoolSize", 6);
+        
+        assertEquals(5, repository.getScanPartitions());
+    }
+    
+    private void setField(String name, Object value) throws Exception {
+        Field field = EmployeeRepository.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(repository, value);
+    }
+    
+    private DataSource fakeDataSource() {
+        return proxy(DataSource.class, (method, args) -> {
+            if (method.equals("getConnection")) {
+                return fakeConnection();
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    private Connection fakeConnection() {
+        boolean[] autoCommit = {true};
+        peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "getAutoCommit" -> autoCommit[0];
+            case "setAutoCommit" -> {
+                autoCommit[0] = (Boolean) args[0];
+                calls.add("setAutoCommit:" + args[0]);
+                yield null;
+            }
+            case "prepareStatement" -> {
+                if (args.length == 3 && (Integer) args[1] == ResultSet.TYPE_FORWARD_ONLY
+                        && (Integer) args[2] == ResultSet.CONCUR_READ_ONLY) {
+                    calls.add("prepareStatement:forwardOnly:readOnly");
+                }
+                yield fakeStatement((String) args[0]);
+            }
+            case "rollback" -> {
+                calls.add("connection.rollback");
+                yield null;
+            }
+            case "close" -> {
+                openConnections.decrementAndGet();
+                calls.add("connection.close");
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    private PreparedStatement fakeStatement(String sql) {
+        List<Long> keys = new ArrayList<>();
+        return proxy(PreparedStatement.class, (method, args) -> switch (method) {
+            case "setFetchSize" -> {
+                calls.add("setFetchSize:" + args[0]);
+                yield null;
+            }
+            case "setObject" -> {
+                if (args[1] instanceof Long) {
+                    keys.add((Long) args[1]);
+                } else {
+                    calls.add("setObject:" + args[1]);
+                }
+                yield null;
+            }
+            case "executeQuery" -> {
+                if (sql.contains("MIN(")) {
+                    yield fakeIdRangeResultSet();
+                } else if (sql.contains("BETWEEN")) {
+                    yield fakeResultSet(keys.get(0), Math.min(keys.get(1), rowCount));
+                } else if (sql.contains("employee_id > ?")) {
+                    yield fakeResultSet(Math.max(1, keys.get(0) + 1), rowCount);
+                }
+                yield fakeResultSet(1, rowCount);
+            }
+            case "close" -> {
+                calls.add("statement.close");
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    private ResultSet fakeIdRangeResultSet() {
+        boolean[] consumed = {false};
+        return proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> {
+                boolean hasRow = !consumed[0];
+                consumed[0] = true;
+                yield hasRow;
+            }
+            case "getLong" -> (Integer) args[0] == 1 ? 1L : (long) rowCount;
+            case "wasNull" -> false;
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    private ResultSet fakeResultSet(long fromId, long toId) {
+        long[] row = {fromId - 1};
+        return proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> {
+                row[0]++;
+                if (row[0] == failAtRow) {
+                    throw new SQLException("Connection reset");
+                }
+                yield row[0] <= toId;
+            }
+            case "getLong" -> row[0];
+            case "getString" -> args[0] + "-" + row[0];
+            case "getDate" -> Date.valueOf("2020-04-01");
+            case "getBigDecimal" -> new BigDecimal("400000.00");
+            case "close" -> {
+                calls.add("resultSet.close");
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, FakeMethod handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args != null ? args : new Object[0]));
+    }
+    
+    @FunctionalInterface
+    private interface FakeMethod {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+}
\ No newline at end of file
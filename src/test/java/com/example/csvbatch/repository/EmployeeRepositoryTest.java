@@ -6,7 +6,10 @@ import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -44,6 +47,18 @@ class EmployeeRepositoryTest {
         assertNull(employee);
     }
     
+    @Test
+    void testStreamEmployees_MatchesFindAll() {
+        List<Employee> expected = employeeRepository.findAll();
+        
+        List<Long> streamedIds;
+        try (Stream<Employee> employees = employeeRepository.streamEmployees()) {
+            streamedIds = employees.map(Employee::getEmployeeId).collect(Collectors.toList());
+        }
+        
+        assertEquals(expected.stream().map(Employee::getEmployeeId).collect(Collectors.toList()), streamedIds);
+    }
+    
     @Test
     void testCountEmployees() {
         int count = employeeRepository.countEmployees();
@@ -59,6 +74,35 @@ class EmployeeRepositoryTest {
         assertTrue(employees.size() <= 5);
     }
     
+    @Test
+    void testFindPageAfter_WalksAllEmployeesInOrder() {
+        List<Long> expectedIds = employeeRepository.findAll().stream()
+                .map(Employee::getEmployeeId)
+                .collect(Collectors.toList());
+        
+        List<Long> pagedIds = new ArrayList<>();
+        Long nextKey = null;
+        do {
+            EmployeeRepository.Page page = employeeRepository.findPageAfter(nextKey, 3);
+            assertTrue(page.getEmployees().size() <= 3);
+            page.getEmployees().forEach(employee -> pagedIds.add(employee.getEmployeeId()));
+            nextKey = page.getNextKey();
+        } while (nextKey != null);
+        
+        assertEquals(expectedIds, pagedIds);
+    }
+    
+    @Test
+    void testFindPageAfter_LastKeyReturnsEmptyPage() {
+        List<Employee> employees = employeeRepository.findAll();
+        Long lastId = employees.get(employees.size() - 1).getEmployeeId();
+        
+        EmployeeRepository.Page page = employeeRepository.findPageAfter(lastId, 5);
+        
+        assertTrue(page.getEmployees().isEmpty());
+        assertFalse(page.hasNext());
+    }
+    
     @Test
     void testConnection() {
         boolean isConnected = employeeRepository.testConnection();
@@ -0,0 +1,188 @@
+package com.example.csvbatch.resource;
+
+import com.example.csvbatch.service.ObjectStorageService;
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.model.Range;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
+import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvExportResourceDownloadTest {
+    
+    private static final String CSV = "\"EMPLOYEEID\",\"EMPLOYEENAME\"\n\"1\",\"Taro\"\n\"2\",\"Hanako\"\n";
+    private static final Date LAST_MODIFIED = new Date(1760000000000L);
+    
+    private final Map<String, byte[]> objects = new HashMap<>();
+    private final List<GetObjectRequest> requests = new CopyOnWriteArrayList<>();
+    private CsvExportResource resource;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        objects.put("exports/data.csv", CSV.getBytes(StandardCharsets.UTF_8));
+        
+        ObjectStorageService objectStorageService = new ObjectStorageService();
+        setField(objectStorageService, "objectStorageClient", fakeClient());
+        setField(objectStorageService, "namespace", "test-namespace");
+        setField(objectStorageService, "bucketName", "test-bucket");
+        
+        resource = new CsvExportResource();
+        setField(resource, "objectStorageService", objectStorageService);
+    }
+    
+    @Test
+    void testDownload_StreamsWholeFileWithValidators() throws Exception {
+        Response response = resource.downloadCsvFile("exports/data.csv", false, null, null, null);
+        
+        assertEquals(200, response.getStatus());
+        assertEquals(CSV, body(response));
+        assertEquals("bytes", response.getHeaderString("Accept-Ranges"));
+        assertEquals(String.valueOf(CSV.length()), response.getHeaderString("Content-Length"));
+        assertEquals(new EntityTag("etag-exports/data.csv"), response.getEntityTag());
+        assertEquals(LAST_MODIFIED, response.getLastModified());
+        assertNull(requests.get(0).getRange());
+    }
+    
+    @Test
+    void testDownload_RangeIsPassedThroughAsPartialContent() throws Exception {
+        Response response = resource.downloadCsvFile("exports/data.csv", false, "bytes=29-", null, null);
+        
+        assertEquals(206, response.getStatus());
+        assertEquals(CSV.substring(29), body(response));
+        assertEquals("bytes 29-" + (CSV.length() - 1) + "/" + CSV.length(), response.getHeaderString("Content-Range"));
+        assertEquals(29L, requests.get(0).getRange().getStartByte());
+        assertNull(requests.get(0).getRange().getEndByte());
+    }
+    
+    @Test
+    void testDownload_UnsatisfiableRangeReturns416() {
+        Response response = resource.downloadCsvFile("exports/data.csv", false, "bytes=1000-2000", null, null);
+        
+        assertEquals(416, response.getStatus());
+    }
+    
+    @Test
+    void testDownload_MatchingETagReturnsNotModified() {
+        Response response = resource.downloadCsvFile("exports/data.csv", false, null,
+                "\"etag-exports/data.csv\"", null);
+        
+        assertEquals(304, response.getStatus());
+        assertNull(response.getEntity());
+        assertEquals("etag-exports/data.csv", requests.get(0).getIfNoneMatch());
+        
+        response = resource.downloadCsvFile("exports/data.csv", false, null, null, "Thu, 09 Oct 2025 08:53:20 GMT");
+        assertEquals(304, response.getStatus());
+        
+        response = resource.downloadCsvFile("exports/data.csv", false, null, null, "Wed, 08 Oct 2025 00:00:00 GMT");
+        assertEquals(200, response.getStatus());
+    }
+    
+    @Test
+    void testDownload_DecompressIgnoresRange() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        objects.put("exports/data.csv.gz", compressed.toByteArray());
+        
+        Response response = resource.downloadCsvFile("exports/data.csv.gz", true, "bytes=0-9", null, null);
+        
+        assertEquals(200, response.getStatus());
+        assertEquals(CSV, body(response));
+        assertTrue(response.getEntityTag().isWeak());
+        assertNull(response.getHeaderString("Content-Encoding"));
+        assertNull(requests.get(0).getRange());
+    }
+    
+    @Test
+    void testParseRange() {
+        assertEquals("bytes=0-99", CsvExportResource.parseRange("bytes=0-99").toString());
+        assertEquals("bytes=100-", CsvExportResource.parseRange("bytes=100-").toString());
+        assertEquals("bytes=-50", CsvExportResource.parseRange("bytes=-50").toString());
+        assertNull(CsvExportResource.parseRange(null));
+        assertNull(CsvExportResource.parseRange("bytes=0-1,5-9"));
+        assertNull(CsvExportResource.parseRange("bytes=9-1"));
+        assertNull(CsvExportResource.parseRange("bytes=-"));
+        assertNull(CsvExportResource.parseRange("items=0-1"));
+    }
+    
+    private static String body(Response response) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+    
+    private ObjectStorage fakeClient() {
+        return (ObjectStorage) Proxy.newProxyInstance(ObjectStorage.class.getClassLoader(),
+                new Class<?>[] {ObjectStorage.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("getObject")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return getObject((GetObjectRequest) args[0]);
+                });
+    }
+    
+    private GetObjectResponse getObject(GetObjectRequest request) {
+        requests.add(request);
+        byte[] content = objects.get(request.getObjectName());
+        if (content == null) {
+            throw new BmcException(404, "ObjectNotFound", "Not found", "request-id");
+        }
+        
+        String eTag = "etag-" + request.getObjectName();
+        if (eTag.equals(request.getIfNoneMatch())) {
+            return GetObjectResponse.builder()
+                    .eTag(eTag)
+                    .lastModified(LAST_MODIFIED)
+                    .isNotModified(true)
+                    .build();
+        }
+        
+        int start = 0;
+        int end = content.length - 1;
+        Range range = request.getRange();
+        if (range != null) {
+            if (range.getStartByte() == null) {
+                start = (int) Math.max(0, content.length - range.getEndByte());
+            } else {
+                start = range.getStartByte().intValue();
+                end = range.getEndByte() != null ? (int) Math.min(end, range.getEndByte()) : end;
+            }
+            if (start >= content.length) {
+                throw new BmcException(416, "InvalidRange", "Range not satisfiable", "request-id");
+            }
+        }
+        
+        return GetObjectResponse.builder()
+                .eTag(eTag)
+                .lastModified(LAST_MODIFIED)
+                .contentLength((long) (end - start + 1))
+                .contentRange(range != null ? Range.parse("bytes " + start + "-" + end + "/" + content.length) : null)
+                .inputStream(new ByteArrayInputStream(content, start, end - start + 1))
+                .build();
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
\ No newline at end of file
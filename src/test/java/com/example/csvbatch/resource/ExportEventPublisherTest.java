@@ -0,0 +1,240 @@
+package com.example.csvbatch.resource;
+
+import com.example.csvbatch.client.CacheMode;
+import com.example.csvbatch.client.SoapClient;
+import com.example.csvbatch.repository.EmployeeRepository;
+import com.example.csvbatch.service.CsvExportService;
+import com.example.csvbatch.service.ExportJob;
+import com.example.csvbatch.service.ExportJobService;
+import com.example.csvbatch.service.ExportMode;
+import com.example.csvbatch.service.ExportProgress;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportEventPublisherTest {
+    
+    private BlockingExportService exportService;
+    private ExportJobService jobService;
+    private ExportEventPublisher publisher;
+    private Sse sse;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        exportService = new BlockingExportService();
+        jobService = new ExportJobService();
+        setField(jobService, "csvExportService", exportService);
+        setField(jobService, "employeeRepository", new FakeEmployeeRepository());
+        setField(jobService, "maxRetainedJobs", 10);
+        
+        publisher = new ExportEventPublisher();
+        setField(publisher, "exportJobService", jobService);
+        setField(publisher, "soapClient", new FakeSoapClient());
+        setField(publisher, "intervalMs", 20L);
+        
+        sse = fakeSse();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        exportService.release.countDown();
+        publisher.shutdown();
+        jobService.shutdown();
+    }
+    
+    @Test
+    void testSubscribersShareOneFeedAndReceiveResult() throws Exception {
+        ExportJob job = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        RecordingSink first = new RecordingSink(null);
+        RecordingSink second = new RecordingSink(null);
+        
+        assertTrue(publisher.subscribe(job.getId(), first, sse));
+        assertTrue(publisher.subscribe(job.getId(), second, sse));
+        assertEquals(1, publisher.getActiveFeedCount());
+        
+        await(() -> first.events.size() >= 3 && second.events.size() >= 3);
+        exportService.release.countDown();
+        await(() -> first.isClosed() && second.isClosed());
+        
+        for (RecordingSink sink : List.of(first, second)) {
+            FakeEvent last = sink.events.get(sink.events.size() - 1);
+            assertEquals(ExportEventPublisher.RESULT_EVENT, last.name);
+            assertEquals("SUCCEEDED", last.data.get("state"));
+            assertEquals("local:result.csv", last.data.get("outputLocation"));
+            assertEquals(ExportEventPublisher.PROGRESS_EVENT, sink.events.get(0).name);
+            assertEquals(3, sink.events.get(0).data.get("soapInFlight"));
+            assertEquals(42L, sink.events.get(0).data.get("totalRows"));
+        }
+        await(() -> publisher.getActiveFeedCount() == 0);
+    }
+    
+    @Test
+    void testSlowSubscriberDoesNotHoldUpOthers() throws Exception {
+        ExportJob job = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(unblock);
+        RecordingSink fast = new RecordingSink(null);
+        
+        publisher.subscribe(job.getId(), slow, sse);
+        publisher.subscribe(job.getId(), fast, sse);
+        
+        await(() -> fast.events.size() >= 10);
+        exportService.release.countDown();
+        await(fast::isClosed);
+        assertTrue(job.isFinished());
+        
+        unblock.countDown();
+        await(slow::isClosed);
+        
+        // The blocked first send, then only the newest snapshot - never the backlog.
+        assertTrue(slow.events.size() <= 3, "Slow client received " + slow.events.size() + " events");
+        assertEquals(ExportEventPublisher.RESULT_EVENT, slow.events.get(slow.events.size() - 1).name);
+    }
+    
+    @Test
+    void testSubscribeToFinishedJobSendsResultOnly() throws Exception {
+        exportService.release.countDown();
+        ExportJob job = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        await(job::isFinished);
+        
+        RecordingSink sink = new RecordingSink(null);
+        assertTrue(publisher.subscribe(job.getId(), sink, sse));
+        await(sink::isClosed);
+        
+        assertEquals(1, sink.events.size());
+        assertEquals(ExportEventPublisher.RESULT_EVENT, sink.events.get(0).name);
+        assertEquals(0, publisher.getActiveFeedCount());
+    }
+    
+    @Test
+    void testSubscribeToUnknownJob() {
+        assertFalse(publisher.subscribe("unknown", new RecordingSink(null), sse));
+    }
+    
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean(), "Condition not met within timeout");
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Sse fakeSse() {
+        return (Sse) Proxy.newProxyInstance(Sse.class.getClassLoader(), new Class<?>[] {Sse.class},
+                (proxy, method, args) -> {
+                    FakeEvent event = new FakeEvent();
+                    return Proxy.newProxyInstance(Sse.class.getClassLoader(),
+                            new Class<?>[] {OutboundSseEvent.Builder.class},
+                            (builder, builderMethod, builderArgs) -> {
+                                switch (builderMethod.getName()) {
+                                    case "name" -> event.name = (String) builderArgs[0];
+                                    case "data" -> event.data = new HashMap<>((Map<String, Object>) builderArgs[1]);
+                                    case "build" -> {
+                                        return event.toOutbound();
+                                    }
+                                    default -> { }
+                                }
+                                return builder;
+                            });
+                });
+    }
+    
+    private static class FakeEvent {
+        private String name;
+        private Map<String, Object> data;
+        
+        OutboundSseEvent toOutbound() {
+            return (OutboundSseEvent) Proxy.newProxyInstance(OutboundSseEvent.class.getClassLoader(),
+                    new Class<?>[] {OutboundSseEvent.class},
+                    (proxy, method, args) -> "getName".equals(method.getName()) ? name : this);
+        }
+    }
+    
+    private static class RecordingSink implements SseEventSink {
+        private final CountDownLatch blockUntil;
+        private final List<FakeEvent> events = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        
+        RecordingSink(CountDownLatch blockUntil) {
+            this.blockUntil = blockUntil;
+        }
+        
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+        
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add((FakeEvent) event.getData());
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+    
+    private static class BlockingExportService extends CsvExportService {
+        private final CountDownLatch release = new CountDownLatch(1);
+        
+        @Override
+        public String exportEmployeesToCsv(CacheMode cacheMode, ExportMode exportMode, ExportProgress progress) {
+            try {
+                while (!release.await(5, TimeUnit.MILLISECONDS)) {
+                    progress.checkCancelled();
+                    progress.rowsWritten(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "local:result.csv";
+        }
+    }
+    
+    private static class FakeEmployeeRepository extends EmployeeRepository {
+        @Override
+        public int countEmployees() {
+            return 42;
+        }
+    }
+    
+    private static class FakeSoapClient extends SoapClient {
+        @Override
+        public int getLimiterInFlight() {
+            return 3;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.opencsv.CSVWriter;
+import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import com.opencsv.bean.StatefulBeanToCsv;
+import com.opencsv.bean.StatefulBeanToCsvBuilder;
+import com.opencsv.exceptions.CsvRequiredFieldEmptyException;
+
+import java.io.Writer;
+
+// The opencsv writer the export used before EmployeeCsvEncoder, kept as the reference its
+// output is compared against.
+public final class BeanToCsvFactory {
+    
+    private BeanToCsvFactory() {
+    }
+    
+    public static StatefulBeanToCsv<EmployeeCsvData> createBeanToCsv(Writer writer) {
+        return createBeanToCsv(writer, true);
+    }
+    
+    // Resumed exports append to a file that already starts with the header row.
+    public static StatefulBeanToCsv<EmployeeCsvData> createBeanToCsv(Writer writer, boolean writeHeader) {
+        StatefulBeanToCsvBuilder<EmployeeCsvData> builder = new StatefulBeanToCsvBuilder<EmployeeCsvData>(writer)
+                .withQuotechar(CSVWriter.DEFAULT_QUOTE_CHARACTER)
+                .withSeparator(CSVWriter.DEFAULT_SEPARATOR)
+                .withOrderedResults(true);
+        
+        if (!writeHeader) {
+            builder.withMappingStrategy(new HeaderlessMappingStrategy());
+        }
+        return builder.build();
+    }
+    
+    private static class HeaderlessMappingStrategy extends HeaderColumnNameMappingStrategy<EmployeeCsvData> {
+        
+        HeaderlessMappingStrategy() {
+            setType(EmployeeCsvData.class);
+        }
+        
+        @Override
+        public String[] generateHeader(EmployeeCsvData bean) throws CsvRequiredFieldEmptyException {
+            // Still resolves the column order used for the data rows.
+            super.generateHeader(bean);
+            return new String[0];
+        }
+    }
+}
\ No newline at end of file
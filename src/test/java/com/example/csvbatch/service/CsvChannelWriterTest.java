@@ -0,0 +1,118 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvChannelWriterTest {
+    
+    private final CsvProcessorService csvProcessorService = new CsvProcessorService();
+    
+    @Test
+    void testWrite_JapaneseRowsSplitAcrossSmallBuffers() throws Exception {
+        List<EmployeeCsvData> rows = japaneseRows(200);
+        DirectBufferPool pool = new DirectBufferPool(7, 2);
+        
+        ByteArrayOutputStream fileTarget = new ByteArrayOutputStream();
+        ByteArrayOutputStream uploadTarget = new ByteArrayOutputStream();
+        try (CsvChannelWriter writer = new CsvChannelWriter(pool,
+                Channels.newChannel(fileTarget), Channels.newChannel(uploadTarget))) {
+            writer.writeHeader();
+            for (EmployeeCsvData row : rows) {
+                writer.write(row);
+            }
+        }
+        
+        String expected = csvProcessorService.writeCsvToString(rows);
+        assertEquals(expected, fileTarget.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(fileTarget.toByteArray(), uploadTarget.toByteArray());
+        assertTrue(expected.contains("山田 花子 199"));
+    }
+    
+    @Test
+    void testFlush_WritesBufferedBytesAndCountsThem() throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(1024, 2);
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        
+        try (CsvChannelWriter writer = new CsvChannelWriter(pool, Channels.newChannel(target))) {
+            writer.write(japaneseRows(1).get(0));
+            assertEquals(0, target.size());
+            
+            writer.flush();
+            assertEquals(target.size(), writer.getBytesWritten());
+            assertTrue(target.size() > 0);
+        }
+    }
+    
+    @Test
+    void testClose_ReturnsBufferToPool() throws Exception {
+        DirectBufferPool pool = new DirectBufferPool(64, 2);
+        
+        for (int i = 0; i < 5; i++) {
+            try (CsvChannelWriter writer = new CsvChannelWriter(pool, Channels.newChannel(new ByteArrayOutputStream()))) {
+                writer.write(japaneseRows(1).get(0));
+            }
+        }
+        
+        assertEquals(1, pool.getAllocatedCount());
+        assertEquals(1, pool.getPooledCount());
+    }
+    
+    @Test
+    void testClose_ReleasesBufferWhenFlushFails() {
+        DirectBufferPool pool = new DirectBufferPool(64, 2);
+        WritableByteChannel failing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("disk full");
+            }
+            
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+            
+            @Override
+            public void close() {
+            }
+        };
+        
+        assertThrows(IOException.class, () -> {
+            try (CsvChannelWriter writer = new CsvChannelWriter(pool, failing)) {
+                writer.write(japaneseRows(1).get(0));
+            }
+        });
+        
+        assertEquals(1, pool.getPooledCount());
+    }
+    
+    private List<EmployeeCsvData> japaneseRows(int count) {
+        List<EmployeeCsvData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(EmployeeCsvData.builder()
+                    .employeeId(1000L + i)
+                    .employeeName("山田 花子 " + i)
+                    .department("経理部・𠮷野支店")
+                    .email("yamada" + i + "@example.com")
+                    .hireDate(LocalDate.of(2021, 4, 1))
+                    .salary(new BigDecimal("380000.00"))
+                    .level("Junior")
+                    .bonus(new BigDecimal("50000.50"))
+                    .status("在籍")
+                    .build());
+        }
+        return rows;
+    }
+}
\ No newline at end of file
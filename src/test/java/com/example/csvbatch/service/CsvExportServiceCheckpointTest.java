@@ -0,0 +1,355 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.client.CacheMode;
+import com.example.csvbatch.client.SoapClient;
+import com.example.csvbatch.dto.EmployeeDetails;
+import com.example.csvbatch.entity.Employee;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.exception.DataProcessingException;
+import com.example.csvbatch.metrics.PipelineStage;
+import com.example.csvbatch.metrics.StageLatencies;
+import com.example.csvbatch.repository.EmployeeRepository;
+import com.example.csvbatch.repository.ExportLogRepository;
+import org.eclipse.microprofile.metrics.Counter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvExportServiceCheckpointTest {
+    
+    private static final int EMPLOYEE_COUNT = 5000;
+    
+    @TempDir
+    Path tempDir;
+    
+    private final List<CsvExportService> services = new ArrayList<>();
+    
+    @AfterEach
+    void tearDown() {
+        services.forEach(CsvExportService::shutdown);
+    }
+    
+    @Test
+    void testResumeExport_ContinuesFromLastCheckpoint() throws Exception {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository();
+        FakeSoapClient soapClient = new FakeSoapClient();
+        CsvExportService service = createService(tempDir.resolve("resumed"), repository, soapClient);
+        
+        repository.failAtId = 2500;
+        assertThrows(CsvProcessingException.class, () -> service.exportEmployeesToCsv(CacheMode.USE));
+        
+        Path checkpointFile = tempDir.resolve("resumed").resolve("result.csv.checkpoint");
+        assertTrue(Files.exists(checkpointFile));
+        ExportCheckpoint checkpoint = ExportCheckpoint.load(checkpointFile);
+        assertEquals(2000L, checkpoint.getLastEmployeeId());
+        assertTrue(Files.exists(checkpoint.getWorkingFile()));
+        
+        repository.failAtId = -1;
+        soapClient.enrichedIds.clear();
+        
+        assertEquals("local:result.csv", service.resumeExport());
+        
+        assertEquals(List.of(2000L), repository.resumedAfter);
+        assertEquals(2001L, soapClient.enrichedIds.get(0));
+        assertEquals(EMPLOYEE_COUNT - 2000, soapClient.enrichedIds.size());
+        assertFalse(Files.exists(checkpointFile));
+        assertFalse(Files.exists(checkpoint.getWorkingFile()));
+        
+        CsvExportService cleanService = createService(tempDir.resolve("clean"),
+                new FakeEmployeeRepository(), new FakeSoapClient());
+        cleanService.exportEmployeesToCsv(CacheMode.USE);
+        
+        assertEquals(Files.readString(tempDir.resolve("clean").resolve("result.csv")),
+                Files.readString(tempDir.resolve("resumed").resolve("result.csv")));
+    }
+    
+    @Test
+    void testExport_RetryContinuesFromCheckpoint() throws Exception {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository();
+        FakeSoapClient soapClient = new FakeSoapClient();
+        CsvExportService service = createService(tempDir.resolve("retried"), repository, soapClient);
+        
+        // @Retry invokes the method again with the same arguments
+        ExportProgress progress = new ExportProgress();
+        repository.failAtId = 2500;
+        assertThrows(CsvProcessingException.class,
+                () -> service.exportEmployeesToCsv(CacheMode.USE, ExportMode.FULL, progress));
+        
+        repository.failAtId = -1;
+        soapClient.enrichedIds.clear();
+        
+        assertEquals("local:result.csv", service.exportEmployeesToCsv(CacheMode.USE, ExportMode.FULL, progress));
+        
+        assertEquals(List.of(2000L), repository.resumedAfter);
+        assertEquals(2001L, soapClient.enrichedIds.get(0));
+        assertEquals(EMPLOYEE_COUNT - 2000, soapClient.enrichedIds.size());
+        assertFalse(Files.exists(tempDir.resolve("retried").resolve("result.csv.checkpoint")));
+        
+        CsvExportService cleanService = createService(tempDir.resolve("clean"),
+                new FakeEmployeeRepository(), new FakeSoapClient());
+        cleanService.exportEmployeesToCsv(CacheMode.USE);
+        
+        assertEquals(Files.readString(tempDir.resolve("clean").resolve("result.csv")),
+                Files.readString(tempDir.resolve("retried").resolve("result.csv")));
+    }
+    
+    @Test
+    void testResumeExport_WithoutCheckpointFails() throws Exception {
+        CsvExportService service = createService(tempDir, new FakeEmployeeRepository(), new FakeSoapClient());
+        
+        CsvProcessingException exception = assertThrows(CsvProcessingException.class, service::resumeExport);
+        
+        assertEquals("NO_CHECKPOINT", exception.getErrorCode());
+    }
+    
+    @Test
+    void testExport_FreshRunDiscardsStaleCheckpoint() throws Exception {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository();
+        CsvExportService service = createService(tempDir, repository, new FakeSoapClient());
+        
+        repository.failAtId = 1500;
+        assertThrows(CsvProcessingException.class, () -> service.exportEmployeesToCsv(CacheMode.USE));
+        assertTrue(Files.exists(tempDir.resolve("result.csv.checkpoint")));
+        
+        repository.failAtId = -1;
+        service.exportEmployeesToCsv(CacheMode.USE);
+        
+        assertFalse(Files.exists(tempDir.resolve("result.csv.checkpoint")));
+        assertEquals(EMPLOYEE_COUNT + 1, Files.readAllLines(tempDir.resolve("result.csv")).size());
+    }
+    
+    @Test
+    void testResumeExport_GzipOutputMatchesUninterruptedExport() throws Exception {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository();
+        CsvExportService service = createService(tempDir.resolve("resumed"), repository, new FakeSoapClient(), "gzip");
+        
+        repository.failAtId = 3300;
+        assertThrows(CsvProcessingException.class, () -> service.exportEmployeesToCsv(CacheMode.USE));
+        
+        // Switching the codec afterwards must not change how the partial file is finished.
+        setField(csvProcessorServiceOf(service), "compressionCodec", "none");
+        repository.failAtId = -1;
+        
+        assertEquals("local:result.csv.gz", service.resumeExport());
+        
+        CsvExportService cleanService = createService(tempDir.resolve("clean"),
+                new FakeEmployeeRepository(), new FakeSoapClient());
+        cleanService.exportEmployeesToCsv(CacheMode.USE);
+        
+        try (InputStream inputStream = new GZIPInputStream(
+                Files.newInputStream(tempDir.resolve("resumed").resolve("result.csv.gz")))) {
+            assertEquals(Files.readString(tempDir.resolve("clean").resolve("result.csv")),
+                    new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+    
+    @Test
+    void testResumeExport_MultipartUploadContinuesAfterCheckpointedParts() throws Exception {
+        InMemoryObjectStorage storage = new InMemoryObjectStorage();
+        FakeEmployeeRepository repository = new FakeEmployeeRepository();
+        CsvExportService service = createService(tempDir, repository, new FakeSoapClient());
+        enableMultipartUpload(service, storage);
+        
+        repository.failAtId = 2500;
+        assertThrows(CsvProcessingException.class, () -> service.exportEmployeesToCsv(CacheMode.USE));
+        
+        assertTrue(storage.abortedUploads.isEmpty());
+        assertTrue(storage.objects.isEmpty());
+        ExportCheckpoint checkpoint = ExportCheckpoint.load(tempDir.resolve("result.csv.checkpoint"));
+        assertTrue(storage.openUploads.containsKey(checkpoint.getUploadId()));
+        int checkpointedParts = checkpoint.getUploadedParts().size();
+        assertTrue(checkpointedParts > 1, "Rows before the checkpoint should fill several parts");
+        assertEquals(checkpointedParts * 64L * 1024, checkpoint.getUploadedBytes());
+        
+        repository.failAtId = -1;
+        storage.partRequests.set(0);
+        String objectName = service.resumeExport();
+        
+        assertEquals(checkpoint.getUploadObjectName(), objectName);
+        assertTrue(objectName.matches("exports/\\d{4}/\\d{2}/\\d{2}/result-\\d{8}-\\d{6}\\.csv"), objectName);
+        byte[] expected = Files.readAllBytes(tempDir.resolve("result.csv"));
+        assertArrayEquals(expected, storage.objects.get(objectName));
+        // Only the parts after the checkpointed ones are sent again
+        assertEquals((expected.length + 64 * 1024 - 1) / (64 * 1024) - checkpointedParts, storage.partRequests.get());
+        assertTrue(storage.openUploads.isEmpty());
+    }
+    
+    @Test
+    void testExport_FreshRunAbortsSuspendedMultipartUpload() throws Exception {
+        InMemoryObjectStorage storage = new InMemoryObjectStorage();
+        FakeEmployeeRepository repository = new FakeEmployeeRepository();
+        CsvExportService service = createService(tempDir, repository, new FakeSoapClient());
+        enableMultipartUpload(service, storage);
+        
+        repository.failAtId = 2500;
+        assertThrows(CsvProcessingException.class, () -> service.exportEmployeesToCsv(CacheMode.USE));
+        String suspendedUploadId = ExportCheckpoint.load(tempDir.resolve("result.csv.checkpoint")).getUploadId();
+        assertTrue(storage.openUploads.containsKey(suspendedUploadId));
+        
+        repository.failAtId = -1;
+        String objectName = service.exportEmployeesToCsv(CacheMode.USE, ExportMode.FULL, new ExportProgress());
+        
+        assertEquals(Set.of(suspendedUploadId), storage.abortedUploads);
+        assertTrue(storage.openUploads.isEmpty());
+        assertArrayEquals(Files.readAllBytes(tempDir.resolve("result.csv")), storage.objects.get(objectName));
+    }
+    
+    @Test
+    void testExport_SummarizesStageLatenciesOfTheExport() throws Exception {
+        CsvExportService service = createService(tempDir, new FakeEmployeeRepository(), new FakeSoapClient());
+        service.exportEmployeesToCsv(CacheMode.USE);
+        
+        ExportProgress progress = new ExportProgress();
+        service.exportEmployeesToCsv(CacheMode.USE, ExportMode.FULL, progress);
+        
+        StageLatencies latencies = progress.getStageLatencies();
+        assertEquals(EMPLOYEE_COUNT, latencies.get(PipelineStage.CSV_ENCODE).getCount());
+        assertTrue(latencies.get(PipelineStage.LOCAL_WRITE).getCount() > 0);
+        assertEquals(0, latencies.get(PipelineStage.PART_UPLOAD).getCount());
+        assertEquals(2L * EMPLOYEE_COUNT, service.getStageLatencies().get(PipelineStage.CSV_ENCODE).getCount());
+    }
+    
+    private void enableMultipartUpload(CsvExportService service, InMemoryObjectStorage storage) throws Exception {
+        ObjectStorageService objectStorageService = new ObjectStorageService();
+        setField(objectStorageService, "objectStorageClient", storage.client());
+        setField(objectStorageService, "namespace", "test-namespace");
+        setField(objectStorageService, "bucketName", "test-bucket");
+        setField(objectStorageService, "objectPrefix", "exports/");
+        setField(objectStorageService, "multipartEnabled", true);
+        setField(objectStorageService, "multipartPartSize", 64 * 1024);
+        setField(objectStorageService, "multipartParallelism", 3);
+        setField(objectStorageService, "multipartPartRetries", 1);
+        setField(objectStorageService, "multipartRetryDelayMs", 1L);
+        
+        setField(service, "objectStorageService", objectStorageService);
+        setField(service, "storageUploadEnabled", true);
+    }
+    
+    private CsvExportService createService(Path outputDir, EmployeeRepository repository, SoapClient soapClient)
+            throws Exception {
+        return createService(outputDir, repository, soapClient, "none");
+    }
+    
+    private CsvExportService createService(Path outputDir, EmployeeRepository repository, SoapClient soapClient,
+                                           String compressionCodec) throws Exception {
+        CsvProcessorService csvProcessorService = new CsvProcessorService();
+        setField(csvProcessorService, "csvOutputPath", outputDir.resolve("result.csv").toString());
+        setField(csvProcessorService, "localBackupEnabled", true);
+        setField(csvProcessorService, "compressionCodec", compressionCodec);
+        setField(csvProcessorService, "compressionWorkers", 2);
+        setField(csvProcessorService, "compressionBlockSize", 16 * 1024);
+        
+        CsvExportService service = new CsvExportService();
+        setField(service, "employeeRepository", repository);
+        setField(service, "exportLogRepository", new FakeExportLogRepository());
+        setField(service, "soapClient", soapClient);
+        setField(service, "csvProcessorService", csvProcessorService);
+        setField(service, "objectStorageService", new ObjectStorageService());
+        setField(service, "exportEnabled", true);
+        setField(service, "storageUploadEnabled", false);
+        setField(service, "streamingEnabled", true);
+        setField(service, "streamingWindow", 64);
+        setField(service, "soapMaxInFlight", 4);
+        setField(service, "batchSize", 1000);
+        setField(service, "checkpointInterval", 1000L);
+        setField(service, "encodingWorkers", 3);
+        setField(service, "encodingChunkSize", 64);
+        setField(service, "errorCounter", Proxy.newProxyInstance(Counter.class.getClassLoader(),
+                new Class<?>[] {Counter.class}, (proxy, method, args) -> 0L));
+        services.add(service);
+        return service;
+    }
+    
+    private static CsvProcessorService csvProcessorServiceOf(CsvExportService service) throws Exception {
+        Field field = CsvExportService.class.getDeclaredField("csvProcessorService");
+        field.setAccessible(true);
+        return (CsvProcessorService) field.get(service);
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+    
+    private static class FakeEmployeeRepository extends EmployeeRepository {
+        private final List<Long> resumedAfter = new ArrayList<>();
+        private volatile long failAtId = -1;
+        
+        @Override
+        public LocalDateTime findLatestModification() {
+            return LocalDateTime.of(2025, 8, 7, 10, 30);
+        }
+        
+        @Override
+        public long streamAfter(Long afterEmployeeId, Consumer<Employee> consumer) {
+            long first = afterEmployeeId != null ? afterEmployeeId + 1 : 1;
+            if (afterEmployeeId != null) {
+                resumedAfter.add(afterEmployeeId);
+            }
+            
+            for (long id = first; id <= EMPLOYEE_COUNT; id++) {
+                if (id == failAtId) {
+                    throw new DataProcessingException("DB_CONNECTION_ERROR", "Connection reset");
+                }
+                consumer.accept(new Employee(id, "Employee " + id, "Dept", "emp" + id + "@example.com",
+                        LocalDate.of(2020, 1, 1), new BigDecimal("400000.00")));
+            }
+            return EMPLOYEE_COUNT - first + 1;
+        }
+    }
+    
+    private static class FakeSoapClient extends SoapClient {
+        private final List<Long> enrichedIds = new CopyOnWriteArrayList<>();
+        
+        @Override
+        public int getBatchSize() {
+            return 1;
+        }
+        
+        @Override
+        public EmployeeDetails getEmployeeDetails(Long employeeId, CacheMode cacheMode) {
+            enrichedIds.add(employeeId);
+            return new EmployeeDetails(employeeId, "Mid", new BigDecimal("1000"), "Active");
+        }
+        
+        @Override
+        public Map<Long, EmployeeDetails> getEmployeeDetailsBatch(List<Long> employeeIds, CacheMode cacheMode) {
+            Map<Long, EmployeeDetails> details = new LinkedHashMap<>();
+            employeeIds.forEach(id -> details.put(id, getEmployeeDetails(id, cacheMode)));
+            return details;
+        }
+    }
+    
+    private static class FakeExportLogRepository extends ExportLogRepository {
+        @Override
+        public LocalDateTime findLastHighWaterMark() {
+            return null;
+        }
+        
+        @Override
+        public void recordExport(String exportType, long employeeCount, String fileName, String status,
+                                 LocalDateTime highWaterMark) {
+        }
+    }
+}
\ No newline at end of file
@@ -4,11 +4,19 @@ import com.example.csvbatch.dto.EmployeeCsvData;
 import com.example.csvbatch.exception.CsvProcessingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -123,6 +131,47 @@ class CsvProcessorServiceTest {
         assertTrue(exception.getMessage().contains("Error rate too high"));
     }
     
+    @Test
+    void testCreateBeanToCsv_WithoutHeaderWritesSameRows() throws Exception {
+        String fullCsv = csvProcessorService.writeCsvToString(testEmployees);
+        
+        StringWriter writer = new StringWriter();
+        BeanToCsvFactory.createBeanToCsv(writer, false).write(testEmployees);
+        
+        assertEquals(fullCsv.substring(fullCsv.indexOf('\n') + 1), writer.toString());
+    }
+    
+    @Test
+    void testWriteCsvFile_MatchesStringOutput(@TempDir Path tempDir) throws Exception {
+        Path outputPath = tempDir.resolve("out").resolve("result.csv");
+        setField("csvOutputPath", outputPath.toString());
+        setField("localBackupEnabled", true);
+        setField("compressionCodec", "none");
+        
+        Path csvFile = csvProcessorService.writeCsvFile(testEmployees);
+        
+        assertEquals(outputPath, csvFile);
+        assertFalse(Files.exists(tempDir.resolve("out").resolve("result.csv.part")));
+        assertEquals(csvProcessorService.writeCsvToString(testEmployees), Files.readString(csvFile, StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void testWriteCsvFile_GzipCompressed(@TempDir Path tempDir) throws Exception {
+        setField("csvOutputPath", tempDir.resolve("result.csv").toString());
+        setField("localBackupEnabled", true);
+        setField("compressionCodec", "gzip");
+        setField("compressionWorkers", 2);
+        setField("compressionBlockSize", 64);
+        
+        Path csvFile = csvProcessorService.writeCsvFile(testEmployees);
+        
+        assertEquals(tempDir.resolve("result.csv.gz"), csvFile);
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(csvFile))) {
+            assertEquals(csvProcessorService.writeCsvToString(testEmployees),
+                    new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+    
     @Test
     void testGetCsvHeaders() {
         String[] headers = csvProcessorService.getCsvHeaders();
@@ -140,4 +189,10 @@ class CsvProcessorServiceTest {
         assertEquals(1000, csvProcessorService.calculateBatchSize(5000));
         assertEquals(2000, csvProcessorService.calculateBatchSize(20000));
     }
+    
+    private void setField(String name, Object value) throws Exception {
+        Field field = CsvProcessorService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(csvProcessorService, value);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeCsvEncoderTest {
+    
+    private final CsvProcessorService csvProcessorService = new CsvProcessorService();
+    
+    @Test
+    void testEncode_MatchesOpenCsvForTypicalRows() throws Exception {
+        List<EmployeeCsvData> rows = List.of(
+                EmployeeCsvData.builder()
+                        .employeeId(1001L)
+                        .employeeName("田中 太郎")
+                        .department("開発部")
+                        .email("tanaka@example.com")
+                        .hireDate(LocalDate.of(2020, 4, 1))
+                        .salary(new BigDecimal("500000.00"))
+                        .level("Senior")
+                        .bonus(new BigDecimal("150000.00"))
+                        .status("Active")
+                        .build(),
+                EmployeeCsvData.builder()
+                        .employeeId(1002L)
+                        .employeeName("Sato, \"Hana\"\nline two")
+                        .department("営業部 😀")
+                        .hireDate(LocalDate.of(1999, 12, 31))
+                        .salary(new BigDecimal("-0.05"))
+                        .bonus(new BigDecimal("1E+3"))
+                        .status("")
+                        .build(),
+                EmployeeCsvData.builder().build());
+        
+        assertArrayEquals(writeWithOpenCsv(rows), encode(rows));
+    }
+    
+    @Test
+    void testEncode_MatchesOpenCsvForEdgeValues() throws Exception {
+        List<EmployeeCsvData> rows = new ArrayList<>();
+        String[] decimals = {
+            "0", "0.00", "-0", "0.000001", "0.0000001", "0E-10", "123.456", "-123.456", "999999999999999999",
+            "9999999999999999.99", "0.000123456789012345678", "123456789012345678901234.5", "1.0E+5", "-1E-7"
+        };
+        for (String decimal : decimals) {
+            rows.add(EmployeeCsvData.builder().salary(new BigDecimal(decimal)).bonus(new BigDecimal(decimal)).build());
+        }
+        for (long employeeId : new long[] {0L, 7L, -1L, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            rows.add(EmployeeCsvData.builder().employeeId(employeeId).build());
+        }
+        for (LocalDate date : new LocalDate[] {LocalDate.of(1, 1, 1), LocalDate.of(9999, 12, 31),
+                LocalDate.of(12345, 6, 7), LocalDate.of(0, 1, 1), LocalDate.of(-44, 3, 15)}) {
+            rows.add(EmployeeCsvData.builder().hireDate(date).build());
+        }
+        rows.add(EmployeeCsvData.builder().employeeName("\"").department("\"\"").email("\uD800 lone").build());
+        rows.add(EmployeeCsvData.builder().employeeName("é ß ü").department("\t\r\n,;\\").build());
+        
+        assertArrayEquals(writeWithOpenCsv(rows), encode(rows));
+    }
+    
+    @Test
+    void testEncode_MatchesOpenCsvForRandomDecimals() throws Exception {
+        Random random = new Random(42);
+        List<EmployeeCsvData> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            BigDecimal salary = new BigDecimal(new BigInteger(random.nextInt(70) + 1, random), random.nextInt(30) - 5);
+            BigDecimal bonus = BigDecimal.valueOf(random.nextLong() % 10_000_000_000L, random.nextInt(12));
+            rows.add(EmployeeCsvData.builder()
+                    .employeeId(random.nextLong())
+                    .salary(random.nextBoolean() ? salary : salary.negate())
+                    .bonus(bonus)
+                    .hireDate(LocalDate.ofEpochDay(random.nextInt(40_000)))
+                    .build());
+        }
+        
+        assertArrayEquals(writeWithOpenCsv(rows), encode(rows));
+    }
+    
+    @Test
+    void testWriteCsvToString_MatchesOpenCsv() throws Exception {
+        List<EmployeeCsvData> rows = List.of(
+                EmployeeCsvData.builder().employeeId(1L).employeeName("A").build(),
+                EmployeeCsvData.builder().employeeId(2L).employeeName("B").build());
+        
+        assertEquals(new String(writeWithOpenCsv(rows), StandardCharsets.UTF_8),
+                csvProcessorService.writeCsvToString(rows));
+        assertEquals("", csvProcessorService.writeCsvToString(List.of()));
+    }
+    
+    @Test
+    void testReset_ReusesBuffer() throws Exception {
+        EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(64);
+        EmployeeCsvData row = EmployeeCsvData.builder()
+                .employeeId(1L)
+                .employeeName("x".repeat(500))
+                .build();
+        
+        encoder.encode(row);
+        String first = encoder.toString();
+        encoder.reset();
+        assertEquals(0, encoder.size());
+        
+        encoder.encode(row);
+        assertEquals(first, encoder.toString());
+    }
+    
+    private byte[] encode(List<EmployeeCsvData> rows) throws Exception {
+        EmployeeCsvEncoder encoder = new EmployeeCsvEncoder(128);
+        encoder.encodeHeader();
+        for (EmployeeCsvData row : rows) {
+            encoder.encode(row);
+        }
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.writeTo(out);
+        return out.toByteArray();
+    }
+    
+    private byte[] writeWithOpenCsv(List<EmployeeCsvData> rows) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            BeanToCsvFactory.createBeanToCsv(writer).write(rows);
+        }
+        return out.toByteArray();
+    }
+}
\ No newline at end of file
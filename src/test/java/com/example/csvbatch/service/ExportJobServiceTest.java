@@ -0,0 +1,154 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.client.CacheMode;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportJobServiceTest {
+    
+    private BlockingExportService exportService;
+    private ExportJobService jobService;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        exportService = new BlockingExportService();
+        jobService = new ExportJobService();
+        setField(jobService, "csvExportService", exportService);
+        setField(jobService, "employeeRepository", new FakeEmployeeRepository());
+        setField(jobService, "maxRetainedJobs", 2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        exportService.release.countDown();
+        jobService.shutdown();
+    }
+    
+    @Test
+    void testSubmitExport_CompletesWithOutputLocation() throws Exception {
+        exportService.release.countDown();
+        
+        ExportJob job = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        awaitFinished(job);
+        
+        assertEquals(ExportJob.State.SUCCEEDED, job.getState());
+        assertEquals("local:result.csv", job.getOutputLocation());
+        assertEquals(42L, job.getProgress().getTotalRows());
+        assertEquals(0L, job.getEtaSeconds());
+        assertSame(job, jobService.getJob(job.getId()));
+    }
+    
+    @Test
+    void testAwaitFinished_BlocksUntilJobCompletes() throws Exception {
+        ExportJob job = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        assertTrue(exportService.started.await(5, TimeUnit.SECONDS));
+        assertFalse(job.isFinished());
+        
+        exportService.release.countDown();
+        job.awaitFinished();
+        
+        assertEquals(ExportJob.State.SUCCEEDED, job.getState());
+        assertEquals("local:result.csv", job.getOutputLocation());
+    }
+    
+    @Test
+    void testSubmitExport_IdenticalRequestAttachesToRunningJob() throws Exception {
+        ExportJob first = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        ExportJob second = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        
+        assertSame(first, second);
+        
+        CsvProcessingException exception = assertThrows(CsvProcessingException.class,
+                () -> jobService.submitExport(CacheMode.BYPASS, ExportMode.FULL));
+        assertEquals("EXPORT_IN_PROGRESS", exception.getErrorCode());
+    }
+    
+    @Test
+    void testCancelJob_StopsRunningExport() throws Exception {
+        ExportJob job = jobService.submitExport(CacheMode.USE, ExportMode.DELTA);
+        assertTrue(exportService.started.await(5, TimeUnit.SECONDS));
+        
+        jobService.cancelJob(job.getId());
+        awaitFinished(job);
+        
+        assertEquals(ExportJob.State.CANCELLED, job.getState());
+        assertNull(job.getProgress().getTotalRows());
+        assertNull(jobService.cancelJob("unknown"));
+    }
+    
+    @Test
+    void testSubmitResume_WithoutCheckpointFails() {
+        CsvProcessingException exception = assertThrows(CsvProcessingException.class, jobService::submitResume);
+        
+        assertEquals("NO_CHECKPOINT", exception.getErrorCode());
+    }
+    
+    @Test
+    void testFinishedJobsAreEvicted() throws Exception {
+        exportService.release.countDown();
+        
+        ExportJob first = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        awaitFinished(first);
+        ExportJob second = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        awaitFinished(second);
+        ExportJob third = jobService.submitExport(CacheMode.USE, ExportMode.FULL);
+        awaitFinished(third);
+        
+        assertNull(jobService.getJob(first.getId()));
+        assertNotNull(jobService.getJob(second.getId()));
+        assertNotNull(jobService.getJob(third.getId()));
+    }
+    
+    private void awaitFinished(ExportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(job.isFinished(), "Job did not finish: " + job.getState());
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+    
+    private static class BlockingExportService extends CsvExportService {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        
+        @Override
+        public String exportEmployeesToCsv(CacheMode cacheMode, ExportMode exportMode, ExportProgress progress) {
+            started.countDown();
+            try {
+                while (!release.await(5, TimeUnit.MILLISECONDS)) {
+                    progress.checkCancelled();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "local:result.csv";
+        }
+        
+        @Override
+        public boolean hasResumableExport() {
+            return false;
+        }
+    }
+    
+    private static class FakeEmployeeRepository extends EmployeeRepository {
+        @Override
+        public int countEmployees() {
+            return 42;
+        }
+    }
+}
\ No newline at end of file
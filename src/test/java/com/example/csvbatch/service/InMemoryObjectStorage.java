@@ -0,0 +1,180 @@
+package com.example.csvbatch.service;
+
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadPartDetails;
+import com.oracle.bmc.objectstorage.model.ListObjects;
+import com.oracle.bmc.objectstorage.model.MultipartUpload;
+import com.oracle.bmc.objectstorage.model.ObjectSummary;
+import com.oracle.bmc.objectstorage.requests.AbortMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.CommitMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.CreateMultipartUploadRequest;
+import com.oracle.bmc.objectstorage.requests.DeleteObjectRequest;
+import com.oracle.bmc.objectstorage.requests.ListObjectsRequest;
+import com.oracle.bmc.objectstorage.requests.PutObjectRequest;
+import com.oracle.bmc.objectstorage.requests.UploadPartRequest;
+import com.oracle.bmc.objectstorage.responses.AbortMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.CommitMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.CreateMultipartUploadResponse;
+import com.oracle.bmc.objectstorage.responses.DeleteObjectResponse;
+import com.oracle.bmc.objectstorage.responses.ListObjectsResponse;
+import com.oracle.bmc.objectstorage.responses.PutObjectResponse;
+import com.oracle.bmc.objectstorage.responses.UploadPartResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Local stand-in for the Object Storage client: keeps objects and multipart uploads in memory
+// and can be told to fail individual part uploads.
+class InMemoryObjectStorage {
+    
+    final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    final Map<String, String> contentEncodings = new ConcurrentHashMap<>();
+    final Map<String, SortedMap<Integer, byte[]>> openUploads = new ConcurrentHashMap<>();
+    final Set<String> abortedUploads = ConcurrentHashMap.newKeySet();
+    final AtomicInteger partRequests = new AtomicInteger();
+    final AtomicInteger activePartUploads = new AtomicInteger();
+    final AtomicInteger peakPartUploads = new AtomicInteger();
+    final AtomicInteger listRequests = new AtomicInteger();
+    
+    // Part number -> number of times its upload should still fail
+    final Map<Integer, AtomicInteger> partFailures = new ConcurrentHashMap<>();
+    volatile long partDelayMs;
+    // Objects per listObjects page; the service asks for 1000, tests use less to get several pages
+    volatile int listPageSize = 1000;
+    
+    ObjectStorage client() {
+        return (ObjectStorage) Proxy.newProxyInstance(ObjectStorage.class.getClassLoader(),
+                new Class<?>[] {ObjectStorage.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "createMultipartUpload" -> createMultipartUpload((CreateMultipartUploadRequest) args[0]);
+                    case "uploadPart" -> uploadPart((UploadPartRequest) args[0]);
+                    case "commitMultipartUpload" -> commitMultipartUpload((CommitMultipartUploadRequest) args[0]);
+                    case "abortMultipartUpload" -> abortMultipartUpload((AbortMultipartUploadRequest) args[0]);
+                    case "putObject" -> putObject((PutObjectRequest) args[0]);
+                    case "listObjects" -> listObjects((ListObjectsRequest) args[0]);
+                    case "deleteObject" -> deleteObject((DeleteObjectRequest) args[0]);
+                    case "close" -> null;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+    
+    private CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        String objectName = request.getCreateMultipartUploadDetails().getObject();
+        openUploads.put(uploadId, new ConcurrentSkipListMap<>());
+        if (request.getCreateMultipartUploadDetails().getContentEncoding() != null) {
+            contentEncodings.put(objectName, request.getCreateMultipartUploadDetails().getContentEncoding());
+        }
+        
+        return CreateMultipartUploadResponse.builder()
+                .multipartUpload(MultipartUpload.builder()
+                        .uploadId(uploadId)
+                        .object(objectName)
+                        .build())
+                .build();
+    }
+    
+    private UploadPartResponse uploadPart(UploadPartRequest request) throws Exception {
+        partRequests.incrementAndGet();
+        peakPartUploads.accumulateAndGet(activePartUploads.incrementAndGet(), Math::max);
+        try {
+            if (partDelayMs > 0) {
+                Thread.sleep(partDelayMs);
+            }
+            
+            AtomicInteger failures = partFailures.get(request.getUploadPartNum());
+            if (failures != null && failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("Simulated failure of part " + request.getUploadPartNum());
+            }
+            
+            SortedMap<Integer, byte[]> parts = openUploads.get(request.getUploadId());
+            if (parts == null) {
+                throw new IllegalStateException("No such upload: " + request.getUploadId());
+            }
+            parts.put(request.getUploadPartNum(), request.getUploadPartBody().readAllBytes());
+            
+            return UploadPartResponse.builder()
+                    .eTag("etag-" + request.getUploadPartNum())
+                    .build();
+                    
+        } finally {
+            activePartUploads.decrementAndGet();
+        }
+    }
+    
+    private CommitMultipartUploadResponse commitMultipartUpload(CommitMultipartUploadRequest request) {
+        SortedMap<Integer, byte[]> parts = openUploads.remove(request.getUploadId());
+        if (parts == null) {
+            throw new IllegalStateException("No such upload: " + request.getUploadId());
+        }
+        
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (CommitMultipartUploadPartDetails part : request.getCommitMultipartUploadDetails().getPartsToCommit()) {
+            content.writeBytes(parts.get(part.getPartNum()));
+        }
+        objects.put(request.getObjectName(), content.toByteArray());
+        
+        return CommitMultipartUploadResponse.builder()
+                .eTag("etag-" + request.getUploadId())
+                .build();
+    }
+    
+    private AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        openUploads.remove(request.getUploadId());
+        abortedUploads.add(request.getUploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+    
+    private PutObjectResponse putObject(PutObjectRequest request) {
+        try {
+            objects.put(request.getObjectName(), request.getPutObjectBody().readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (request.getContentEncoding() != null) {
+            contentEncodings.put(request.getObjectName(), request.getContentEncoding());
+        }
+        return PutObjectResponse.builder()
+                .eTag("etag-" + request.getObjectName())
+                .build();
+    }
+    
+    private ListObjectsResponse listObjects(ListObjectsRequest request) {
+        listRequests.incrementAndGet();
+        int pageSize = Math.min(request.getLimit(), listPageSize);
+        
+        List<String> names = objects.keySet().stream()
+                .filter(name -> request.getPrefix() == null || name.startsWith(request.getPrefix()))
+                .filter(name -> request.getStart() == null || name.compareTo(request.getStart()) >= 0)
+                .sorted()
+                .limit(pageSize + 1)
+                .collect(Collectors.toList());
+        
+        List<ObjectSummary> page = names.stream()
+                .limit(pageSize)
+                .map(name -> ObjectSummary.builder().name(name).build())
+                .collect(Collectors.toList());
+        
+        return ListObjectsResponse.builder()
+                .listObjects(ListObjects.builder()
+                        .objects(page)
+                        .nextStartWith(names.size() > pageSize ? names.get(pageSize) : null)
+                        .build())
+                .build();
+    }
+    
+    private DeleteObjectResponse deleteObject(DeleteObjectRequest request) {
+        objects.remove(request.getObjectName());
+        return DeleteObjectResponse.builder().build();
+    }
+}
\ No newline at end of file
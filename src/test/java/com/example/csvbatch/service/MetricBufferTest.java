@@ -0,0 +1,116 @@
+package com.example.csvbatch.service;
+
+import com.oracle.bmc.monitoring.model.MetricDataDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricBufferTest {
+    
+    private final MetricBuffer buffer = MetricBuffer.builder()
+            .namespace("csv_batch_processor")
+            .dimensions(Map.of("service", "csv-batch-processor"))
+            .maxSeries(4)
+            .build();
+    
+    @Test
+    void testDrain_AggregatesEachKind() {
+        buffer.record("records_processed", MetricBuffer.Kind.COUNTER, 100);
+        buffer.record("records_processed", MetricBuffer.Kind.COUNTER, 50);
+        buffer.record("active_jobs", MetricBuffer.Kind.GAUGE, 2);
+        buffer.record("active_jobs", MetricBuffer.Kind.GAUGE, 1);
+        buffer.record("job_duration_ms", MetricBuffer.Kind.DISTRIBUTION, 10);
+        buffer.record("job_duration_ms", MetricBuffer.Kind.DISTRIBUTION, 30);
+        buffer.record("job_duration_ms", MetricBuffer.Kind.DISTRIBUTION, 20);
+        
+        Map<String, MetricDataDetails> metrics = byName(buffer.drain(new Date()));
+        
+        assertEquals(5, metrics.size());
+        assertDatapoint(metrics.get("records_processed"), 150.0, 1);
+        assertDatapoint(metrics.get("active_jobs"), 1.0, 1);
+        assertDatapoint(metrics.get("job_duration_ms"), 20.0, 3);
+        assertDatapoint(metrics.get("job_duration_ms_min"), 10.0, 1);
+        assertDatapoint(metrics.get("job_duration_ms_max"), 30.0, 1);
+        assertEquals("csv_batch_processor", metrics.get("active_jobs").getNamespace());
+        assertEquals("csv-batch-processor", metrics.get("active_jobs").getDimensions().get("service"));
+        
+        // Nothing recorded since the last drain means nothing to post.
+        assertTrue(buffer.drain(new Date()).isEmpty());
+    }
+    
+    @Test
+    void testRecord_ShedsNewSeriesWhenFull() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.record("metric_" + i, MetricBuffer.Kind.COUNTER, 1));
+        }
+        
+        assertFalse(buffer.record("metric_4", MetricBuffer.Kind.COUNTER, 1));
+        assertTrue(buffer.record("metric_0", MetricBuffer.Kind.COUNTER, 1));
+        
+        assertEquals(4, buffer.getSeriesCount());
+        assertEquals(1, buffer.getShedDatapoints());
+        assertDatapoint(byName(buffer.drain(new Date())).get("metric_0"), 2.0, 1);
+    }
+    
+    @Test
+    void testRecord_ConcurrentWritersLoseNothing() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 1; i <= perThread; i++) {
+                        buffer.record("records_processed", MetricBuffer.Kind.COUNTER, 1);
+                        buffer.record("db_operation_duration", MetricBuffer.Kind.DISTRIBUTION, i);
+                    }
+                }));
+            }
+            
+            double recorded = 0;
+            long samples = 0;
+            boolean running = true;
+            while (running) {
+                running = writers.stream().anyMatch(writer -> !writer.isDone());
+                Map<String, MetricDataDetails> metrics = byName(buffer.drain(new Date()));
+                if (metrics.containsKey("records_processed")) {
+                    recorded += metrics.get("records_processed").getDatapoints().get(0).getValue();
+                }
+                if (metrics.containsKey("db_operation_duration")) {
+                    samples += metrics.get("db_operation_duration").getDatapoints().get(0).getCount();
+                }
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            
+            assertEquals((double) threads * perThread, recorded);
+            assertEquals((long) threads * perThread, samples);
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static Map<String, MetricDataDetails> byName(List<MetricDataDetails> metrics) {
+        return metrics.stream().collect(Collectors.toMap(MetricDataDetails::getName, Function.identity()));
+    }
+    
+    private static void assertDatapoint(MetricDataDetails metric, double value, int count) {
+        assertNotNull(metric);
+        assertEquals(1, metric.getDatapoints().size());
+        assertEquals(value, metric.getDatapoints().get(0).getValue(), 1e-9);
+        assertEquals(count, (int) metric.getDatapoints().get(0).getCount());
+    }
+}
\ No newline at end of file
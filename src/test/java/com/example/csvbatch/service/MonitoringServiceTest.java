@@ -0,0 +1,237 @@
+package com.example.csvbatch.service;
+
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.monitoring.Monitoring;
+import com.oracle.bmc.monitoring.model.Datapoint;
+import com.oracle.bmc.monitoring.model.MetricDataDetails;
+import com.oracle.bmc.monitoring.requests.PostMetricDataRequest;
+import org.eclipse.microprofile.metrics.Counter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitoringServiceTest {
+    
+    private final List<PostMetricDataRequest> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int failureStatus = 503;
+    private MonitoringService service;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new MonitoringService();
+        setField(service, "monitoringClient", fakeClient());
+        setField(service, "recordsProcessedCounter", fakeCounter());
+        setField(service, "processingErrorsCounter", fakeCounter());
+        setField(service, "region", "ap-tokyo-1");
+        setField(service, "exportEnabled", true);
+        setField(service, "exportIntervalMs", 3_600_000L);
+        setField(service, "maxSeries", 1000);
+        setField(service, "maxBacklog", 120);
+        service.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    void testRecord_DoesNotCallMonitoringUntilFlush() {
+        for (int i = 0; i < 10_000; i++) {
+            service.recordProcessedRecords(1);
+            service.recordDatabaseOperationTime("select", i % 100);
+        }
+        assertTrue(requests.isEmpty());
+        
+        service.flush();
+        
+        assertEquals(1, requests.size());
+        List<MetricDataDetails> metricData = requests.get(0).getPostMetricDataDetails().getMetricData();
+        assertEquals(List.of("db_operation_duration", "db_operation_duration_max", "db_operation_duration_min",
+                "records_processed"), names(metricData));
+        MetricDataDetails records = metricData.stream()
+                .filter(metric -> metric.getName().equals("records_processed"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(10_000.0, records.getDatapoints().get(0).getValue());
+        assertEquals("ap-tokyo-1", records.getDimensions().get("region"));
+    }
+    
+    @Test
+    void testFlush_SplitsIntoBatchesOfFifty() {
+        for (int i = 0; i < 120; i++) {
+            service.sendHealthCheckMetric("component_" + i, true);
+        }
+        
+        service.flush();
+        
+        assertEquals(List.of(50, 50, 20), requests.stream()
+                .map(request -> request.getPostMetricDataDetails().getMetricData().size())
+                .collect(Collectors.toList()));
+    }
+    
+    @Test
+    void testFlush_RetriesUnsentMetricsAndShedsBeyondBacklog() {
+        for (int i = 0; i < 100; i++) {
+            service.sendHealthCheckMetric("component_" + i, true);
+        }
+        failures.set(1);
+        
+        service.flush();
+        assertEquals(1, requests.size());
+        
+        // The 100 unsent entries plus 100 new ones exceed the backlog of 120; the oldest go first.
+        for (int i = 100; i < 200; i++) {
+            service.sendHealthCheckMetric("component_" + i, true);
+        }
+        service.flush();
+        
+        List<String> sent = requests.stream()
+                .skip(1)
+                .flatMap(request -> request.getPostMetricDataDetails().getMetricData().stream())
+                .map(MetricDataDetails::getName)
+                .collect(Collectors.toList());
+        assertEquals(120, sent.size());
+        for (int i = 100; i < 200; i++) {
+            assertTrue(sent.contains("health_check_component_" + i));
+        }
+        assertEquals(80L, service.getApplicationMetrics().get("metrics_shed"));
+    }
+    
+    @Test
+    void testFlush_DropsMetricsRejectedAsInvalid() {
+        service.recordProcessingError();
+        failureStatus = 400;
+        failures.set(1);
+        
+        service.flush();
+        service.flush();
+        
+        assertEquals(1, requests.size());
+        assertEquals(1L, service.getApplicationMetrics().get("metrics_shed"));
+    }
+    
+    @Test
+    void testConcurrentRecording_LosesNoUpdates() throws Exception {
+        int threads = 16;
+        int iterations = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    await(startSignal);
+                    for (int i = 0; i < iterations; i++) {
+                        service.recordJobStart();
+                        service.recordProcessedRecords(3);
+                        if (i % 10 == 0) {
+                            service.recordProcessingErrors(2);
+                        }
+                        service.recordDatabaseOperationTime("select", i);
+                        service.recordJobCompletion(i);
+                    }
+                }));
+            }
+            
+            // Snapshots and flushes run while the writers are busy.
+            Future<?> reader = executor.submit(() -> {
+                await(startSignal);
+                long previous = 0;
+                while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                    Map<String, Object> snapshot = service.getApplicationMetrics();
+                    long processed = (Long) snapshot.get("records_processed");
+                    assertTrue(processed >= previous);
+                    assertTrue((Integer) snapshot.get("active_jobs") >= 0);
+                    previous = processed;
+                    service.flush();
+                }
+            });
+            
+            startSignal.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            reader.get(60, TimeUnit.SECONDS);
+            service.flush();
+            
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        Map<String, Object> metrics = service.getApplicationMetrics();
+        assertEquals(3L * threads * iterations, metrics.get("records_processed"));
+        assertEquals(2L * threads * (iterations / 10), metrics.get("processing_errors"));
+        assertEquals(0, metrics.get("active_jobs"));
+        assertEquals((long) iterations - 1, metrics.get("last_job_duration_ms"));
+        
+        assertEquals(3.0 * threads * iterations, postedValues("records_processed")
+                .mapToDouble(datapoint -> datapoint.getValue())
+                .sum());
+        assertEquals((long) threads * iterations, postedValues("db_operation_duration")
+                .mapToLong(datapoint -> datapoint.getCount())
+                .sum());
+    }
+    
+    private Stream<Datapoint> postedValues(String metricName) {
+        return requests.stream()
+                .flatMap(request -> request.getPostMetricDataDetails().getMetricData().stream())
+                .filter(metric -> metric.getName().equals(metricName))
+                .flatMap(metric -> metric.getDatapoints().stream());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static List<String> names(List<MetricDataDetails> metricData) {
+        return metricData.stream().map(MetricDataDetails::getName).sorted().collect(Collectors.toList());
+    }
+    
+    private Monitoring fakeClient() {
+        return (Monitoring) Proxy.newProxyInstance(Monitoring.class.getClassLoader(), new Class<?>[] {Monitoring.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("postMetricData")) {
+                        return null;
+                    }
+                    requests.add((PostMetricDataRequest) args[0]);
+                    if (failures.getAndDecrement() > 0) {
+                        throw new BmcException(failureStatus, "Failure", "Simulated failure", "request-id");
+                    }
+                    return null;
+                });
+    }
+    
+    private static Counter fakeCounter() {
+        return (Counter) Proxy.newProxyInstance(Counter.class.getClassLoader(), new Class<?>[] {Counter.class},
+                (proxy, method, args) -> 0L);
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.exception.ObjectStorageException;
+import com.oracle.bmc.objectstorage.model.CommitMultipartUploadPartDetails;
+import com.oracle.bmc.objectstorage.model.CreateMultipartUploadDetails;
+import com.oracle.bmc.objectstorage.requests.CreateMultipartUploadRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultipartUploadChannelTest {
+    
+    private static final String OBJECT_NAME = "exports/2025/08/07/result-20250807-103000.csv";
+    
+    private final InMemoryObjectStorage storage = new InMemoryObjectStorage();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void testComplete_UploadsPartsInParallelAndCommitsInOrder() throws Exception {
+        storage.partDelayMs = 20;
+        byte[] content = content(10_000);
+        ExportProgress progress = new ExportProgress();
+        
+        try (MultipartUploadChannel upload = open(1000, 4, progress)) {
+            // Odd write sizes so writes straddle part boundaries.
+            for (int offset = 0; offset < content.length; offset += 333) {
+                upload.write(ByteBuffer.wrap(content, offset, Math.min(333, content.length - offset)));
+            }
+            assertEquals(OBJECT_NAME, upload.complete());
+        }
+        
+        assertArrayEquals(content, storage.objects.get(OBJECT_NAME));
+        assertEquals(10, storage.partRequests.get());
+        assertTrue(storage.peakPartUploads.get() > 1, "Parts should be uploaded concurrently");
+        assertTrue(storage.peakPartUploads.get() <= 4, "Concurrent part uploads exceeded parallelism");
+        assertEquals(content.length, progress.getBytesUploaded());
+        assertTrue(storage.abortedUploads.isEmpty());
+    }
+    
+    @Test
+    void testComplete_RetriesFailedPartOnItsOwn() throws Exception {
+        storage.partFailures.put(3, new AtomicInteger(2));
+        byte[] content = content(5_000);
+        
+        try (MultipartUploadChannel upload = open(1000, 2, new ExportProgress())) {
+            upload.write(ByteBuffer.wrap(content));
+            upload.complete();
+        }
+        
+        assertArrayEquals(content, storage.objects.get(OBJECT_NAME));
+        // Five parts, plus two retries of part 3 only
+        assertEquals(7, storage.partRequests.get());
+    }
+    
+    @Test
+    void testComplete_AbortsWhenPartKeepsFailing() throws Exception {
+        storage.partFailures.put(2, new AtomicInteger(Integer.MAX_VALUE));
+        
+        MultipartUploadChannel upload = open(1000, 2, new ExportProgress());
+        upload.write(ByteBuffer.wrap(content(3_500)));
+        
+        IOException exception = assertThrows(IOException.class, upload::complete);
+        
+        assertTrue(exception.getCause() instanceof ObjectStorageException);
+        assertTrue(storage.abortedUploads.contains(upload.getUploadId()));
+        assertFalse(storage.objects.containsKey(OBJECT_NAME));
+        assertFalse(upload.isOpen());
+    }
+    
+    @Test
+    void testClose_WithoutCompleteAbortsUpload() throws Exception {
+        MultipartUploadChannel upload = open(1000, 2, new ExportProgress());
+        upload.write(ByteBuffer.wrap(content(2_500)));
+        upload.close();
+        
+        assertTrue(storage.abortedUploads.contains(upload.getUploadId()));
+        assertTrue(storage.openUploads.isEmpty());
+        assertFalse(storage.objects.containsKey(OBJECT_NAME));
+    }
+    
+    @Test
+    void testSuspend_KeepsPartsForAChannelThatContinuesTheUpload() throws Exception {
+        storage.partDelayMs = 20;
+        byte[] content = content(5_500);
+        
+        MultipartUploadChannel upload = open(1000, 2, new ExportProgress());
+        upload.write(ByteBuffer.wrap(content, 0, 3_200));
+        List<CommitMultipartUploadPartDetails> parts = upload.awaitUploadedParts();
+        long uploadedBytes = upload.getUploadedBytes();
+        upload.suspend();
+        
+        assertEquals(3, parts.size());
+        assertEquals(3_000, uploadedBytes);
+        assertTrue(storage.abortedUploads.isEmpty());
+        
+        storage.partRequests.set(0);
+        try (MultipartUploadChannel resumed = MultipartUploadChannel.builder()
+                .client(storage.client())
+                .namespace("test-namespace")
+                .bucketName("test-bucket")
+                .objectName(OBJECT_NAME)
+                .uploadId(upload.getUploadId())
+                .partSize(1000)
+                .executor(executor)
+                .uploadedParts(parts, uploadedBytes)
+                .build()) {
+            resumed.write(ByteBuffer.wrap(content, (int) uploadedBytes, content.length - (int) uploadedBytes));
+            resumed.complete();
+        }
+        
+        assertArrayEquals(content, storage.objects.get(OBJECT_NAME));
+        assertEquals(3, storage.partRequests.get());
+    }
+    
+    private MultipartUploadChannel open(int partSize, int parallelism, ExportProgress progress) {
+        String uploadId = storage.client().createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .namespaceName("test-namespace")
+                .bucketName("test-bucket")
+                .createMultipartUploadDetails(CreateMultipartUploadDetails.builder()
+                        .object(OBJECT_NAME)
+                        .build())
+                .build()).getMultipartUpload().getUploadId();
+        
+        return MultipartUploadChannel.builder()
+                .client(storage.client())
+                .namespace("test-namespace")
+                .bucketName("test-bucket")
+                .objectName(OBJECT_NAME)
+                .uploadId(uploadId)
+                .partSize(partSize)
+                .parallelism(parallelism)
+                .partRetries(3)
+                .retryDelayMs(1)
+                .executor(executor)
+                .progress(progress)
+                .build();
+    }
+    
+    private static byte[] content(int length) {
+        byte[] content = new byte[length];
+        ThreadLocalRandom.current().nextBytes(content);
+        return content;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.example.csvbatch.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectListingCacheTest {
+    
+    private final AtomicLong now = new AtomicLong();
+    private final ObjectListingCache cache = ObjectListingCache.builder()
+            .ttl(Duration.ofSeconds(30))
+            .clock(now::get)
+            .build();
+    
+    @Test
+    void testGet_ReloadsAfterTtl() {
+        assertEquals(List.of("a"), cache.get(() -> List.of("a")));
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertEquals(List.of("a"), cache.get(() -> List.of("b")));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(List.of("b"), cache.get(() -> List.of("b")));
+        
+        assertEquals(2, cache.getLoads());
+        assertEquals(1, cache.getHits());
+    }
+    
+    @Test
+    void testInvalidate_ForcesReload() {
+        cache.get(() -> List.of("a"));
+        cache.invalidate();
+        
+        assertEquals(List.of("a", "b"), cache.get(() -> List.of("a", "b")));
+        assertEquals(2, cache.getLoads());
+    }
+    
+    @Test
+    void testInvalidate_DuringLoadIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<String>> stale = executor.submit(() -> cache.get(() -> {
+                loading.countDown();
+                await(invalidated);
+                return List.of("stale");
+            }));
+            
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            cache.invalidate();
+            invalidated.countDown();
+            
+            assertEquals(List.of("stale"), stale.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("fresh"), cache.get(() -> List.of("fresh")));
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testGet_ConcurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> results = executor.invokeAll(Collections.nCopies(32, () ->
+                    cache.get(() -> {
+                        loads.incrementAndGet();
+                        sleep(20);
+                        return List.of("a");
+                    })));
+            
+            for (Future<List<String>> result : results) {
+                assertEquals(List.of("a"), result.get());
+            }
+            assertEquals(1, loads.get());
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
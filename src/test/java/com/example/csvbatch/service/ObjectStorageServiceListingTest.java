@@ -0,0 +1,124 @@
+package com.example.csvbatch.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectStorageServiceListingTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private InMemoryObjectStorage storage;
+    private ObjectStorageService service;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new InMemoryObjectStorage();
+        storage.listPageSize = 100;
+        
+        service = new ObjectStorageService();
+        setField(service, "objectStorageClient", storage.client());
+        setField(service, "namespace", "test-namespace");
+        setField(service, "bucketName", "test-bucket");
+        setField(service, "objectPrefix", "exports/");
+        setField(service, "listPageSize", 1000);
+    }
+    
+    @Test
+    void testListObjects_FollowsEveryPage() {
+        List<String> names = addCsvFiles(250);
+        
+        List<String> listed = service.listObjects("exports/").stream()
+                .map(summary -> summary.getName())
+                .collect(Collectors.toList());
+        
+        assertEquals(names, listed);
+        assertEquals(3, storage.listRequests.get());
+    }
+    
+    @Test
+    void testListCsvFiles_PagesNewestFirstWithCursor() {
+        List<String> names = addCsvFiles(7);
+        storage.objects.put("exports/2025/01/01/result-0001.manifest.json", new byte[0]);
+        
+        List<String> collected = new ArrayList<>();
+        String start = null;
+        int pages = 0;
+        do {
+            CsvFilePage page = service.listCsvFiles(start, 3);
+            assertTrue(page.getFiles().size() <= 3);
+            collected.addAll(page.getFiles());
+            start = page.getNextStart();
+            pages++;
+        } while (start != null);
+        
+        assertEquals(3, pages);
+        assertEquals(names.stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList()), collected);
+        
+        // A cursor that was deleted in the meantime still resumes right after it.
+        CsvFilePage first = service.listCsvFiles(null, 3);
+        service.deleteCsvFile(first.getNextStart());
+        assertEquals(collected.subList(3, 6), service.listCsvFiles(first.getNextStart(), 3).getFiles());
+    }
+    
+    @Test
+    void testListCsvFiles_CachedUntilOwnUploadOrDelete() throws Exception {
+        addCsvFiles(3);
+        
+        assertEquals(3, service.listCsvFiles().size());
+        assertEquals(3, service.listCsvFiles(null, 10).getFiles().size());
+        assertEquals(1, storage.listRequests.get());
+        
+        Path csvFile = tempDir.resolve("result.csv");
+        Files.writeString(csvFile, "\"EMPLOYEEID\"\n\"1\"\n", StandardCharsets.UTF_8);
+        String uploaded = service.uploadCsvFile(csvFile, 1, 10L, "result", CsvCompression.NONE, new ExportProgress());
+        
+        assertTrue(service.listCsvFiles().contains(uploaded));
+        assertEquals(2, storage.listRequests.get());
+        
+        service.deleteCsvFile(uploaded);
+        
+        assertFalse(service.listCsvFiles().contains(uploaded));
+        assertEquals(3, storage.listRequests.get());
+    }
+    
+    @Test
+    void testListCsvFiles_LimitIsCappedAtPageSize() throws Exception {
+        addCsvFiles(20);
+        setField(service, "listPageSize", 5);
+        
+        CsvFilePage page = service.listCsvFiles(null, 50);
+        
+        assertEquals(5, page.getFiles().size());
+        assertEquals(page.getFiles().get(4), page.getNextStart());
+        assertThrows(IllegalArgumentException.class, () -> service.listCsvFiles(null, 0));
+    }
+    
+    private List<String> addCsvFiles(int count) {
+        List<String> names = IntStream.range(0, count)
+                .mapToObj(i -> String.format("exports/2025/01/%02d/result-%04d.csv", i % 28 + 1, i))
+                .sorted()
+                .collect(Collectors.toList());
+        names.forEach(name -> storage.objects.put(name, new byte[0]));
+        return names;
+    }
+    
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelCsvEncoderTest {
+    
+    private final CsvProcessorService csvProcessorService = new CsvProcessorService();
+    private final DirectBufferPool bufferPool = new DirectBufferPool(4096, 2);
+    
+    @Test
+    void testWrite_ParallelOutputMatchesSequential() throws Exception {
+        List<EmployeeCsvData> rows = rows(10_000);
+        
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (CsvChannelWriter sink = new CsvChannelWriter(bufferPool, Channels.newChannel(target));
+             ParallelCsvEncoder encoder = new ParallelCsvEncoder(sink, 4, 7)) {
+            encoder.writeHeader();
+            for (EmployeeCsvData row : rows) {
+                encoder.write(row);
+            }
+        }
+        
+        assertEquals(csvProcessorService.writeCsvToString(rows), target.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void testFlush_EmitsEveryRowReceivedSoFar() throws Exception {
+        List<EmployeeCsvData> rows = rows(250);
+        
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (CsvChannelWriter sink = new CsvChannelWriter(bufferPool, Channels.newChannel(target));
+             ParallelCsvEncoder encoder = new ParallelCsvEncoder(sink, 3, 100)) {
+            encoder.writeHeader();
+            for (EmployeeCsvData row : rows.subList(0, 150)) {
+                encoder.write(row);
+            }
+            
+            encoder.flush();
+            sink.flush();
+            
+            assertEquals(csvProcessorService.writeCsvToString(rows.subList(0, 150)),
+                    target.toString(StandardCharsets.UTF_8));
+            
+            for (EmployeeCsvData row : rows.subList(150, 250)) {
+                encoder.write(row);
+            }
+        }
+        
+        assertEquals(csvProcessorService.writeCsvToString(rows), target.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void testWrite_SingleWorkerEncodesInline() throws Exception {
+        List<EmployeeCsvData> rows = rows(20);
+        
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (CsvChannelWriter sink = new CsvChannelWriter(bufferPool, Channels.newChannel(target));
+             ParallelCsvEncoder encoder = new ParallelCsvEncoder(sink, 1, 1000)) {
+            encoder.writeHeader();
+            for (EmployeeCsvData row : rows) {
+                encoder.write(row);
+            }
+            sink.flush();
+            
+            assertEquals(csvProcessorService.writeCsvToString(rows), target.toString(StandardCharsets.UTF_8));
+        }
+    }
+    
+    @Test
+    void testWrite_EncodingFailureSurfacesOnWriterThread() throws Exception {
+        List<EmployeeCsvData> rows = new ArrayList<>(rows(10));
+        rows.add(5, null);
+        
+        CsvChannelWriter sink = new CsvChannelWriter(bufferPool, Channels.newChannel(new ByteArrayOutputStream()));
+        ParallelCsvEncoder encoder = new ParallelCsvEncoder(sink, 2, 4);
+        
+        IOException exception = assertThrows(IOException.class, () -> {
+            for (EmployeeCsvData row : rows) {
+                encoder.write(row);
+            }
+            encoder.flush();
+        });
+        
+        assertTrue(exception.getCause() instanceof NullPointerException);
+        encoder.close();
+        sink.close();
+    }
+    
+    private List<EmployeeCsvData> rows(int count) {
+        List<EmployeeCsvData> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(EmployeeCsvData.builder()
+                    .employeeId((long) i)
+                    .employeeName("鈴木 一郎 " + i)
+                    .department(i % 3 == 0 ? "Sales, \"East\"" : "開発部")
+                    .email("suzuki" + i + "@example.com")
+                    .hireDate(LocalDate.of(2015, 1, 1).plusDays(i))
+                    .salary(BigDecimal.valueOf(300000 + i, 2))
+                    .level("Mid")
+                    .bonus(new BigDecimal("1000.00"))
+                    .status("Active")
+                    .build());
+        }
+        return rows;
+    }
+}
\ No newline at end of file
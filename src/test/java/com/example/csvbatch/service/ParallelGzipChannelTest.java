@@ -0,0 +1,88 @@
+package com.example.csvbatch.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelGzipChannelTest {
+    
+    @Test
+    void testWrite_ParallelBlocksDecompressInOrder() throws Exception {
+        byte[] content = content(200_000);
+        
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (ParallelGzipChannel channel = new ParallelGzipChannel(4, 4096, Channels.newChannel(target))) {
+            // Odd write sizes so writes straddle block boundaries.
+            for (int offset = 0; offset < content.length; offset += 777) {
+                channel.write(ByteBuffer.wrap(content, offset, Math.min(777, content.length - offset)));
+            }
+        }
+        
+        assertArrayEquals(content, decompress(target.toByteArray()));
+        assertTrue(target.size() < content.length / 2, "CSV-like content should compress well");
+    }
+    
+    @Test
+    void testFlush_OffsetCanBeTruncatedAndAppendedTo(@TempDir Path tempDir) throws Exception {
+        byte[] content = content(50_000);
+        Path file = tempDir.resolve("result.csv.part");
+        
+        long checkpointOffset;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             ParallelGzipChannel channel = new ParallelGzipChannel(2, 8192, fileChannel)) {
+            channel.write(ByteBuffer.wrap(content, 0, 30_000));
+            channel.flush();
+            checkpointOffset = fileChannel.position();
+            
+            // Written after the checkpoint, then lost when the export is interrupted.
+            channel.write(ByteBuffer.wrap(content(5_000)));
+        }
+        
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            fileChannel.truncate(checkpointOffset);
+            fileChannel.position(checkpointOffset);
+            try (ParallelGzipChannel channel = new ParallelGzipChannel(2, 8192, fileChannel)) {
+                channel.write(ByteBuffer.wrap(content, 30_000, 20_000));
+            }
+        }
+        
+        assertArrayEquals(content, decompress(Files.readAllBytes(file)));
+    }
+    
+    @Test
+    void testClose_EmptyOutputIsValidGzip() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        new ParallelGzipChannel(1, 1024, Channels.newChannel(target)).close();
+        
+        assertEquals(0, decompress(target.toByteArray()).length);
+    }
+    
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return inputStream.readAllBytes();
+        }
+    }
+    
+    private static byte[] content(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 1; builder.length() < length; i++) {
+            builder.append("\"").append(i).append("\",\"Employee ").append(i).append("\",\"開発部\"\n");
+        }
+        return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), length);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,300 @@
+package com.example.csvbatch.service;
+
+import com.example.csvbatch.dto.EmployeeCsvData;
+import com.example.csvbatch.entity.Employee;
+import com.example.csvbatch.exception.CsvProcessingException;
+import com.example.csvbatch.exception.DataProcessingException;
+import com.example.csvbatch.exception.ExportCancelledException;
+import com.example.csvbatch.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingExportPipelineTest {
+    
+    private ExecutorService executorService;
+    
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newVirtualThreadPerTaskExecutor();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+    
+    @Test
+    void testRun_PreservesDatabaseOrder() {
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                new FakeEmployeeRepository(500), stage(this::enrichWithJitter, 32), executorService, 16);
+        
+        List<Long> writtenIds = new ArrayList<>();
+        StreamingExportPipeline.Result result = pipeline.run(row -> writtenIds.add(row.getEmployeeId()));
+        
+        assertEquals(500, result.getRecordCount());
+        assertEquals(0, result.getInvalidCount());
+        for (int i = 0; i < writtenIds.size(); i++) {
+            assertEquals((long) (i + 1), writtenIds.get(i));
+        }
+    }
+    
+    @Test
+    void testRun_InFlightRowsBoundedByWindow() {
+        int windowSize = 8;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                new FakeEmployeeRepository(300),
+                stage(employee -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return enrichWithJitter(employee);
+                }, 32),
+                executorService,
+                windowSize);
+        
+        pipeline.run(row -> inFlight.decrementAndGet());
+        
+        // window slots + the row being enqueued + the row being written
+        assertTrue(maxInFlight.get() <= windowSize + 2,
+                "In-flight rows exceeded window: " + maxInFlight.get());
+    }
+    
+    @Test
+    void testRun_CountsInvalidRows() {
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                new FakeEmployeeRepository(10),
+                stage(employee -> EmployeeCsvData.builder()
+                        .employeeId(employee.getEmployeeId())
+                        .employeeName(employee.getEmployeeId() % 2 == 0 ? null : employee.getEmployeeName())
+                        .build(), 4),
+                executorService,
+                4);
+        
+        StreamingExportPipeline.Result result = pipeline.run(row -> { });
+        
+        assertEquals(10, result.getRecordCount());
+        assertEquals(5, result.getInvalidCount());
+    }
+    
+    @Test
+    void testRun_ReaderFailurePropagates() {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository(50);
+        repository.failAfter = 20;
+        
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                repository, stage(this::enrichWithJitter, 4), executorService, 4);
+        
+        CsvProcessingException exception = assertThrows(CsvProcessingException.class,
+                () -> pipeline.run(row -> { }));
+        
+        assertEquals("STREAMING_EXPORT_ERROR", exception.getErrorCode());
+        assertTrue(exception.getCause() instanceof DataProcessingException);
+    }
+    
+    @Test
+    void testRun_WriterFailureStopsReader() {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository(100_000);
+        
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                repository, stage(this::enrichWithJitter, 4), executorService, 4);
+        
+        assertThrows(CsvProcessingException.class, () -> pipeline.run(row -> {
+            if (row.getEmployeeId() == 10L) {
+                throw new IllegalStateException("disk full");
+            }
+        }));
+        
+        assertTrue(repository.emitted.get() < 100_000, "Reader should stop after writer failure");
+    }
+    
+    @Test
+    void testRun_SoapCallsBoundedByMaxInFlight() {
+        int maxInFlight = 3;
+        AtomicInteger activeCalls = new AtomicInteger();
+        AtomicInteger peakCalls = new AtomicInteger();
+        
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                new FakeEmployeeRepository(200),
+                stage(employee -> {
+                    peakCalls.accumulateAndGet(activeCalls.incrementAndGet(), Math::max);
+                    try {
+                        return enrichWithJitter(employee);
+                    } finally {
+                        activeCalls.decrementAndGet();
+                    }
+                }, maxInFlight),
+                executorService,
+                64);
+        
+        StreamingExportPipeline.Result result = pipeline.run(row -> { });
+        
+        assertEquals(200, result.getRecordCount());
+        assertTrue(peakCalls.get() <= maxInFlight, "Concurrent SOAP calls exceeded limit: " + peakCalls.get());
+    }
+    
+    @Test
+    void testRun_BatchesSoapCallsAndKeepsOrder() {
+        AtomicInteger soapCalls = new AtomicInteger();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        
+        EnrichmentStage batchedStage = new EnrichmentStage(employees -> {
+            soapCalls.incrementAndGet();
+            batchSizes.add(employees.size());
+            return employees.stream().map(this::enrichWithJitter).collect(Collectors.toList());
+        }, executorService, 4, 7);
+        
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                new FakeEmployeeRepository(100), batchedStage, executorService, 16);
+        
+        List<Long> writtenIds = new ArrayList<>();
+        StreamingExportPipeline.Result result = pipeline.run(row -> writtenIds.add(row.getEmployeeId()));
+        
+        assertEquals(100, result.getRecordCount());
+        assertEquals(15, soapCalls.get());
+        assertTrue(batchSizes.contains(2), "Trailing partial batch should be flushed");
+        for (int i = 0; i < writtenIds.size(); i++) {
+            assertEquals((long) (i + 1), writtenIds.get(i));
+        }
+    }
+    
+    @Test
+    void testRun_ShortBatchResultFailsOnlyMissingRows() {
+        EnrichmentStage shortStage = new EnrichmentStage(employees -> employees.stream()
+                .limit(employees.size() - 1)
+                .map(this::enrichWithJitter)
+                .collect(Collectors.toList()), executorService, 2, 5);
+        
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                new FakeEmployeeRepository(10), shortStage, executorService, 16);
+        
+        List<Long> writtenIds = new ArrayList<>();
+        assertThrows(CsvProcessingException.class, () -> pipeline.run(row -> writtenIds.add(row.getEmployeeId())));
+        
+        assertEquals(List.of(1L, 2L, 3L, 4L), writtenIds);
+    }
+    
+    @Test
+    void testRun_ReadsFromCustomEmployeeSource() {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository(20);
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                consumer -> repository.streamAll(employee -> {
+                    if (employee.getEmployeeId() % 5 == 0) {
+                        consumer.accept(employee);
+                    }
+                }),
+                stage(this::enrichWithJitter, 4), executorService, 4);
+        
+        List<Long> writtenIds = new ArrayList<>();
+        StreamingExportPipeline.Result result = pipeline.run(row -> writtenIds.add(row.getEmployeeId()));
+        
+        assertEquals(4, result.getRecordCount());
+        assertEquals(List.of(5L, 10L, 15L, 20L), writtenIds);
+    }
+    
+    @Test
+    void testRun_CancellationStopsPipelineAndReportsProgress() {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository(100_000);
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                repository, stage(this::enrichWithJitter, 4), executorService, 4);
+        
+        ExportProgress progress = new ExportProgress();
+        assertThrows(ExportCancelledException.class, () -> pipeline.run(row -> {
+            if (row.getEmployeeId() == 25L) {
+                progress.cancel();
+            }
+        }, progress));
+        
+        assertEquals(25, progress.getRowsWritten());
+        assertTrue(progress.getRowsRead() >= 25);
+        assertTrue(progress.getRowsEnriched() >= 25);
+        assertTrue(repository.emitted.get() < 100_000, "Reader should stop after cancellation");
+    }
+    
+    @Test
+    void testRun_CancellationFromWriterReleasesReader() throws Exception {
+        FakeEmployeeRepository repository = new FakeEmployeeRepository(100_000);
+        StreamingExportPipeline pipeline = new StreamingExportPipeline(
+                repository, stage(this::enrichWithJitter, 4), executorService, 4);
+        
+        assertThrows(ExportCancelledException.class, () -> pipeline.run(row -> {
+            if (row.getEmployeeId() == 10L) {
+                throw new ExportCancelledException("Export was cancelled");
+            }
+        }));
+        
+        assertTrue(repository.finished.await(5, TimeUnit.SECONDS), "Reader should be released after cancellation");
+        assertTrue(repository.emitted.get() < 100_000);
+    }
+    
+    private EnrichmentStage stage(Function<Employee, EmployeeCsvData> enricher, int maxInFlight) {
+        return new EnrichmentStage(employees -> employees.stream().map(enricher).collect(Collectors.toList()),
+                executorService, maxInFlight, 1);
+    }
+    
+    private EmployeeCsvData enrichWithJitter(Employee employee) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        return EmployeeCsvData.builder()
+                .employeeId(employee.getEmployeeId())
+                .employeeName(employee.getEmployeeName())
+                .department(employee.getDepartment())
+                .email(employee.getEmail())
+                .hireDate(employee.getHireDate())
+                .salary(employee.getSalary())
+                .level("Mid")
+                .bonus(BigDecimal.ONE)
+                .status("Active")
+                .build();
+    }
+    
+    private static class FakeEmployeeRepository extends EmployeeRepository {
+        private final int rowCount;
+        private final AtomicInteger emitted = new AtomicInteger();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private int failAfter = -1;
+        
+        FakeEmployeeRepository(int rowCount) {
+            this.rowCount = rowCount;
+        }
+        
+        @Override
+        public long streamAll(Consumer<Employee> consumer) {
+            try {
+                for (int i = 1; i <= rowCount; i++) {
+                    if (i == failAfter) {
+                        throw new DataProcessingException("DB_CONNECTION_ERROR", "Connection reset");
+                    }
+                    consumer.accept(new Employee((long) i, "Employee " + i, "Dept", "emp" + i + "@example.com",
+                            LocalDate.of(2020, 1, 1), new BigDecimal("400000.00")));
+                    emitted.incrementAndGet();
+                }
+                return rowCount;
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+}
\ No newline at end of file